@@ -7,23 +7,37 @@ import com.documentflow.entities.Person;
 import com.documentflow.entities.dto.ContragentDto;
 import com.documentflow.entities.dto.ContragentDtoBindAddressAndEmployee;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
+import com.documentflow.entities.dto.ContragentDtoSimilar;
+import com.documentflow.entities.dto.ContragentDtoSuggestion;
 import com.documentflow.exceptions.BadArgumentException;
+import com.documentflow.model.enums.ContragentType;
+import com.documentflow.model.enums.ExportFormat;
+import com.documentflow.search.ContragentSuggestIndex;
 import com.documentflow.services.AddressService;
+import com.documentflow.services.ContragentImportService;
 import com.documentflow.services.ContragentService;
 import com.documentflow.services.OrganizationService;
 import com.documentflow.services.PersonService;
 import com.documentflow.exceptions.NotFoundIdException;
 import com.documentflow.utils.ContragentUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,6 +45,11 @@ import java.util.stream.Collectors;
 @RequestMapping("/contragent")
 public class ContragentController {
 
+    private static final String DEFAULT_SEARCH_LIMIT = "20";
+    private static final String DEFAULT_AUTOCOMPLETE_LIMIT = "10";
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private ContragentService contragentService;
 
@@ -43,18 +62,59 @@ public class ContragentController {
     @Autowired
     private OrganizationService organizationService;
 
+    @Autowired
+    private ContragentSuggestIndex contragentSuggestIndex;
+
+    @Autowired
+    private ContragentImportService contragentImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping()
     public ModelAndView searchContragent(@RequestParam(value = "searchName") String searchName,
-                                         HttpServletRequest request) {
+                                         @RequestParam(value = "after", required = false) Long afterId,
+                                         @RequestParam(value = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
 
-        String redirectUrl = request.getHeader("referer");
-        ModelAndView modelAndView = createDefaultModelAndView(redirectUrl);
+        ModelAndView modelAndView = createDefaultModelAndView("contragent_search");
 
         if (StringUtils.isNotEmpty(searchName)) {
-            modelAndView.addObject("contragents", contragentService.searchContragents(searchName));
+            //сервис урезает слишком большой лимит, курсор сравниваем с фактическим размером страницы
+            int pageSize = Math.max(1, Math.min(limit, ContragentService.MAX_SEARCH_LIMIT));
+            List<Contragent> contragents = contragentService.searchContragents(searchName, ContragentType.ANY, afterId, pageSize);
+            if (contragents.isEmpty() && afterId == null) {
+                //точных совпадений нет: показываем похожие записи (опечатки, Ё/Е, латиница), без продолжения
+                contragents = contragentService.searchSimilarContragents(searchName, ContragentType.ANY, pageSize);
+                modelAndView.addObject("contragentsSimilar", true);
+            } else if (contragents.size() == pageSize) {
+                //курсор для запроса следующей страницы
+                modelAndView.addObject("contragentsAfter", contragents.get(contragents.size() - 1).getId());
+            }
+            modelAndView.addObject("contragents", contragents);
+            modelAndView.addObject("contragentsSearchName", searchName);
+            modelAndView.addObject("contragentsLimit", pageSize);
         }
         return modelAndView;
     }
+
+    @GetMapping("/autocomplete")
+    @ResponseBody
+    public List<ContragentDtoSuggestion> autocomplete(@RequestParam(value = "q") String query,
+                                                      @RequestParam(value = "type", defaultValue = "ANY") ContragentType type,
+                                                      @RequestParam(value = "limit", defaultValue = DEFAULT_AUTOCOMPLETE_LIMIT) int limit) {
+        return contragentSuggestIndex.complete(query, type, Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT)));
+    }
+
+    @GetMapping("/similar")
+    @ResponseBody
+    public List<ContragentDtoSimilar> searchSimilarContragents(@RequestParam(value = "q") String query,
+                                                               @RequestParam(value = "type", defaultValue = "ANY") ContragentType type,
+                                                               @RequestParam(value = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
+        return contragentService.searchSimilarContragents(query, type, limit).stream()
+                .map(ContragentUtils::createSimilar)
+                .collect(Collectors.toList());
+    }
+
     private ModelAndView createDefaultModelAndView(String url) {
         return new ModelAndView(url);
     }
@@ -79,16 +139,52 @@ public class ContragentController {
         return contragentService.save(contragentDto);
     }
 
+    /**
+     * Import contragents from NDJSON, one contragent per line in the format of {@code POST /contragent/add}.
+     * The response is NDJSON as well: progress after every chunk, an error for every rejected row and the totals
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public void importContragents(HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream output = response.getOutputStream();
+        //состояние отдается по мере загрузки, клиент видит прогресс, не дожидаясь конца файла
+        contragentImportService.importContragents(request.getInputStream(), status -> {
+            try {
+                output.write(objectMapper.writeValueAsBytes(status));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Download all contragents that are not deleted as CSV
+     */
+    @GetMapping("/export")
+    public void exportContragents(HttpServletResponse response) throws IOException {
+
+        response.setContentType(ExportFormat.CSV.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"contragents." + ExportFormat.CSV.getExtension() + "\"");
+        contragentService.exportContragents(response.getOutputStream());
+    }
+
     @GetMapping("/edit/person")
     @ResponseBody
     public List<Person> getPerson(@RequestParam(name = "first_name", required = false) String firstName,
                                   @RequestParam(name = "middle_name", required = false) String middleName,
-                                  @RequestParam(name = "last_name") String lastName) {
+                                  @RequestParam(name = "last_name") String lastName,
+                                  @RequestParam(name = "after", required = false) Long afterId,
+                                  @RequestParam(name = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
 
         if (StringUtils.isEmpty(lastName)) {
             throw new IllegalArgumentException("Last name is empty");
         }
-        return personService.findAll(firstName.toUpperCase(), middleName.toUpperCase(), lastName.toUpperCase());
+        return personService.findAll(firstName.toUpperCase(), middleName.toUpperCase(), lastName.toUpperCase(), afterId, limit);
     }
 
     @PostMapping("/edit/person")
@@ -143,7 +239,9 @@ public class ContragentController {
                                     @RequestParam(name = "city") String city,
                                     @RequestParam(name = "street") String street,
                                     @RequestParam(name = "house_number", required = false) String houseNumber,
-                                    @RequestParam(name = "apartrment_number", required = false) String apartrmentNumber) {
+                                    @RequestParam(name = "apartrment_number", required = false) String apartrmentNumber,
+                                    @RequestParam(name = "after", required = false) Long afterId,
+                                    @RequestParam(name = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
 
         if (StringUtils.isEmpty(country)) {
             throw new BadArgumentException("Country is empty");
@@ -154,7 +252,8 @@ public class ContragentController {
         if (StringUtils.isEmpty(street)) {
             throw new BadArgumentException("Street is empty");
         }
-        return addressService.findAll(postIndex, country.toUpperCase(), city.toUpperCase(), street.toUpperCase(), houseNumber, apartrmentNumber);
+        return addressService.findAll(postIndex, country.toUpperCase(), city.toUpperCase(), street.toUpperCase(), houseNumber, apartrmentNumber,
+                afterId, limit);
     }
 
     @PostMapping("/edit/address")
@@ -267,7 +366,9 @@ public class ContragentController {
     public List<ContragentDtoEmployee> getEmployee(@RequestParam(name = "first_name", required = false) String firstName,
                                                    @RequestParam(name = "middle_name", required = false) String middleName,
                                                    @RequestParam(name = "last_name") String lastName,
-                                                   @RequestParam(name = "position", required = false) String position) {
+                                                   @RequestParam(name = "position", required = false) String position,
+                                                   @RequestParam(name = "after", required = false) Long afterId,
+                                                   @RequestParam(name = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
 
         if (StringUtils.isEmpty(lastName)) {
             throw new BadArgumentException("Last name is empty");
@@ -275,9 +376,8 @@ public class ContragentController {
 
         //the order of arguments is important
         String searchString = ContragentUtils.createSearchName(firstName, middleName, lastName, position);
-        List<Contragent> contragents = contragentService.searchContragents(searchString);
+        List<Contragent> contragents = contragentService.searchContragents(searchString, ContragentType.COMPANY, afterId, limit);
         return contragents.stream()
-                .filter(contragent -> contragent.getOrganization() != null)
                 .map(contragent -> {
                     return new ContragentDtoEmployee(contragent.getId().toString(),
                             contragent.getPerson().getFirstName(),
@@ -1,21 +1,30 @@
 package com.documentflow.controllers;
 
 import com.documentflow.entities.*;
+import com.documentflow.entities.DTO.ExportJobDTO;
+import com.documentflow.entities.DTO.KeysetPage;
 import com.documentflow.entities.dto.DocInDto;
 import com.documentflow.model.enums.BusinessKeyState;
+import com.documentflow.model.enums.DocumentKind;
+import com.documentflow.model.enums.ExportFormat;
+import com.documentflow.search.DocumentFullTextIndex;
 import com.documentflow.services.*;
 import com.documentflow.utils.DocInFilter;
 import com.documentflow.utils.DocInUtils;
+import com.documentflow.utils.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import java.security.Principal;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping("/docs/in")
@@ -26,31 +35,32 @@ public class DocInController {
     private DepartmentService departmentService;
     private DocInUtils docInUtils;
     private StateService stateService;
+    private DocumentFullTextIndex fullTextIndex;
+    private RegistryExportService registryExportService;
 
     @Autowired
     public DocInController(DocInService docInService, DocTypeService docTypeService,
                            DepartmentService departmentService, DocInUtils docInUtils,
-                           StateService stateService) {
+                           StateService stateService, DocumentFullTextIndex fullTextIndex,
+                           RegistryExportService registryExportService) {
         this.docInService = docInService;
         this.docTypeService = docTypeService;
         this.departmentService = departmentService;
         this.docInUtils = docInUtils;
         this.stateService = stateService;
+        this.fullTextIndex = fullTextIndex;
+        this.registryExportService = registryExportService;
     }
 
     @GetMapping()
     public String showIn(
             Model model,
             HttpServletRequest request,
-            @RequestParam(value = "currentPage", required = false) Integer currentPage) {
-        if (currentPage == null || currentPage < 1) {
-            currentPage = 1;
-        }
-        model.addAttribute("currentPage", currentPage);
-        DocInFilter filter = new DocInFilter(request);
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "before", required = false) String before) {
+        DocInFilter filter = new DocInFilter(request, stateService.getStateByBusinessKey(BusinessKeyState.DELETED), fullTextIndex);
         model.addAttribute("filter", filter.getFiltersStr());
-        Page<DocInDto> page = docInService.findAllByPagingAndFiltering(filter.getSpecification(), PageRequest.of(currentPage-1,20, Sort.Direction.ASC, "regDate"))
-                .map(d -> docInUtils.convertToDTO(d));
+        KeysetPage<DocInDto> page = docInService.findPage(filter.getSpecification(), KeysetCursor.parse(after, before, LocalDateTime::parse), 20);
         model.addAttribute("docs", page);
         model.addAttribute("states", stateService.findAllStates());
         model.addAttribute("docTypes", docTypeService.findAllDocTypes());
@@ -75,4 +85,31 @@ public class DocInController {
         docInUtils.deleteDocIn(docInDto);
         return "redirect:/docs/in";
     }
+
+    /**
+     * Start the export of the registry with the filters of the page
+     */
+    @PostMapping("/export")
+    @ResponseBody
+    public ExportJobDTO export(HttpServletRequest request,
+                               @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                               Principal principal) {
+        DocInFilter filter = new DocInFilter(request, stateService.getStateByBusinessKey(BusinessKeyState.DELETED), fullTextIndex);
+        return registryExportService.exportDocIn(filter.getSpecification(), format, principal.getName());
+    }
+
+    @GetMapping("/export/{id}")
+    @ResponseBody
+    public ExportJobDTO getExport(@PathVariable("id") String id, Principal principal) {
+        return registryExportService.getJob(DocumentKind.DOC_IN, id, principal.getName());
+    }
+
+    @GetMapping("/export/{id}/file")
+    public ResponseEntity<Resource> downloadExport(@PathVariable("id") String id, Principal principal) {
+        ExportJobDTO job = registryExportService.getJob(DocumentKind.DOC_IN, id, principal.getName());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"doc_in." + job.getFormat().getExtension() + "\"")
+                .body(new FileSystemResource(registryExportService.getFile(DocumentKind.DOC_IN, id, principal.getName())));
+    }
 }
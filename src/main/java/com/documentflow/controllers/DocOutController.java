@@ -2,17 +2,25 @@ package com.documentflow.controllers;
 
 
 import com.documentflow.entities.DTO.DocOutDTO;
+import com.documentflow.entities.DTO.ExportJobDTO;
+import com.documentflow.entities.DTO.KeysetPage;
+import com.documentflow.entities.DTO.LookupDTO;
 import com.documentflow.entities.DocOut;
 import com.documentflow.entities.State;
 import com.documentflow.entities.User;
+import com.documentflow.model.enums.DocumentKind;
+import com.documentflow.model.enums.ExportFormat;
+import com.documentflow.search.DocumentFullTextIndex;
 import com.documentflow.services.*;
 import com.documentflow.utils.DocOutFilter;
 import com.documentflow.utils.DocOutUtils;
+import com.documentflow.utils.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -21,12 +29,17 @@ import org.springframework.web.servlet.ModelAndView;
 import javax.servlet.http.HttpServletRequest;
 import java.security.Principal;
 import java.time.LocalDate;
+import java.util.List;
 
 
 @Controller
 @RequestMapping("/docs/out")
 public class DocOutController {
 
+    private static final int LOOKUP_PAGE_SIZE = 20;
+    //пользователи заполняют выпадающие списки целиком, страницами побольше
+    private static final int USERS_PAGE_SIZE = 200;
+
     private DocOutService docOutService;
     private DocInService docInService;
     private DocTypeService docTypeService;
@@ -35,11 +48,14 @@ public class DocOutController {
     private StateService stateService;
     private ContragentServiceImpl contragentService;
     private TaskService taskService;
+    private DocumentFullTextIndex fullTextIndex;
+    private RegistryExportService registryExportService;
 
     @Autowired
     public void setDocOutService(DocOutService docOutService, DocTypeService docTypeService, UserServiceImpl userService,
                                  DocOutUtils docOutUtils, StateService stateService, ContragentServiceImpl contragentService,
-                                 TaskService taskService) {
+                                 TaskService taskService, DocumentFullTextIndex fullTextIndex,
+                                 RegistryExportService registryExportService) {
         this.docOutService = docOutService;
         this.docTypeService = docTypeService;
         this.userService = userService;
@@ -47,14 +63,14 @@ public class DocOutController {
         this.stateService = stateService;
         this.contragentService=contragentService;
         this.taskService=taskService;
+        this.fullTextIndex=fullTextIndex;
+        this.registryExportService=registryExportService;
     }
 
     @GetMapping()
-    public String showAllDocOut(Model model, HttpServletRequest request, @RequestParam(value = "currentPage", required = false) Integer currentPage) {
-        if (currentPage == null || currentPage < 1) {
-            currentPage = 1;
-        }
-        model.addAttribute("currentPage", currentPage);
+    public String showAllDocOut(Model model, HttpServletRequest request,
+                                @RequestParam(value = "after", required = false) String after,
+                                @RequestParam(value = "before", required = false) String before) {
 //        Page<DocOut> pageOut = docOutService.findAll(PageRequest.of(currentPage - 1, 20, Sort.Direction.DESC, "createDate"));
 //        Page<DocOutDTO> pageDTOs = pageOut.map(d -> new DocOutDTO(d));
 //        pageDTOs.stream().map(d -> model.addAttribute(d));
@@ -63,19 +79,15 @@ public class DocOutController {
   //      DocOutDTO docOut = new DocOutDTO();
 
 
-        DocOutFilter filter = new DocOutFilter(request);
+        DocOutFilter filter = new DocOutFilter(request, fullTextIndex);
         model.addAttribute("filter", filter.getFiltersString());
-        Page<DocOutDTO> page = docOutService.findAllByPagingAndFiltering(filter.getSpecification(), PageRequest.of(currentPage-1,20, Sort.Direction.DESC, "createDate"))
+        KeysetPage<DocOutDTO> page = docOutService.findPage(filter.getSpecification(), KeysetCursor.parse(after, before, LocalDate::parse), 20)
                 .map(d -> docOutUtils.convertFromDocOut(d));
         model.addAttribute("docs", page);
         model.addAttribute("createDate", LocalDate.now());
-        model.addAttribute("creator", userService.getAllUsers());
-        model.addAttribute("signer", userService.getAllUsers());
+        //статусы и типы из кэша справочников, пользователи и поручения подгружаются карточкой по запросу
         model.addAttribute("states", stateService.findAllStates());
-        model.addAttribute("tasks", taskService.findAll(Pageable.unpaged()));
         model.addAttribute("docTypes", docTypeService.findAllDocTypes());
-        model.addAttribute("docOutAddress", docTypeService.findAllDocTypes());
-        model.addAttribute("appendix", docOutService.findOneById(1L).getAppendix());
         return "doc_out";
 
     }
@@ -91,6 +103,20 @@ public class DocOutController {
         return "redirect:/docs/out";
     }
 
+    @ResponseBody
+    @GetMapping("/users")
+    public List<LookupDTO> findUsers(@RequestParam(value = "query", required = false) String query,
+                                     @RequestParam(value = "page", defaultValue = "0") int page) {
+        return userService.findLookups(query, page, USERS_PAGE_SIZE);
+    }
+
+    @ResponseBody
+    @GetMapping("/tasks")
+    public List<LookupDTO> findTasks(@RequestParam(value = "query", required = false) String query,
+                                     @RequestParam(value = "page", defaultValue = "0") int page) {
+        return taskService.findLookups(query, page, LOOKUP_PAGE_SIZE);
+    }
+
     @ResponseBody
     @RequestMapping("/card/{id}")
     public DocOutDTO getCard(@PathVariable("id") Long id) {
@@ -112,4 +138,31 @@ public class DocOutController {
         }
             return "redirect:/docs/out";
     }
-}
\ No newline at end of file
+
+    /**
+     * Start the export of the registry with the filters of the page
+     */
+    @PostMapping("/export")
+    @ResponseBody
+    public ExportJobDTO export(HttpServletRequest request,
+                               @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                               Principal principal) {
+        DocOutFilter filter = new DocOutFilter(request, fullTextIndex);
+        return registryExportService.exportDocOut(filter.getSpecification(), format, principal.getName());
+    }
+
+    @GetMapping("/export/{id}")
+    @ResponseBody
+    public ExportJobDTO getExport(@PathVariable("id") String id, Principal principal) {
+        return registryExportService.getJob(DocumentKind.DOC_OUT, id, principal.getName());
+    }
+
+    @GetMapping("/export/{id}/file")
+    public ResponseEntity<Resource> downloadExport(@PathVariable("id") String id, Principal principal) {
+        ExportJobDTO job = registryExportService.getJob(DocumentKind.DOC_OUT, id, principal.getName());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"doc_out." + job.getFormat().getExtension() + "\"")
+                .body(new FileSystemResource(registryExportService.getFile(DocumentKind.DOC_OUT, id, principal.getName())));
+    }
+}
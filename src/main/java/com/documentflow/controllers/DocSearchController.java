@@ -0,0 +1,54 @@
+package com.documentflow.controllers;
+
+import com.documentflow.entities.DTO.FullTextPageDTO;
+import com.documentflow.model.enums.BusinessKeyRole;
+import com.documentflow.model.enums.DocumentKind;
+import com.documentflow.search.DocumentFullTextIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+
+@Controller
+@RequestMapping("/docs/search")
+public class DocSearchController {
+
+    private static final int PAGE_SIZE = 20;
+
+    private DocumentFullTextIndex fullTextIndex;
+
+    @Autowired
+    public DocSearchController(DocumentFullTextIndex fullTextIndex) {
+        this.fullTextIndex = fullTextIndex;
+    }
+
+    @GetMapping
+    @ResponseBody
+    public FullTextPageDTO search(@RequestParam("query") String query,
+                                  @RequestParam(value = "kind", required = false) DocumentKind kind,
+                                  @RequestParam(value = "page", defaultValue = "0") int page,
+                                  HttpServletRequest request) {
+        return fullTextIndex.search(readableKind(kind, request), query, page, PAGE_SIZE);
+    }
+
+    //входящие и исходящие ищутся только при праве на чтение своего реестра
+    private DocumentKind readableKind(DocumentKind kind, HttpServletRequest request) {
+        boolean docIn = request.isUserInRole(BusinessKeyRole.DOC_IN_READ.name());
+        boolean docOut = request.isUserInRole(BusinessKeyRole.DOC_OUT_READ.name());
+        if (!docIn && !docOut) {
+            throw new AccessDeniedException("No read access to documents");
+        }
+        if (kind == null) {
+            return docIn && docOut ? null : docIn ? DocumentKind.DOC_IN : DocumentKind.DOC_OUT;
+        }
+        if (kind == DocumentKind.DOC_IN ? !docIn : !docOut) {
+            throw new AccessDeniedException("No read access to " + kind);
+        }
+        return kind;
+    }
+}
@@ -2,15 +2,23 @@ package com.documentflow.controllers;
 
 
 import com.documentflow.entities.User;
+import com.documentflow.entities.dto.CacheRegionDto;
+import com.documentflow.search.DocumentFullTextIndex;
+import com.documentflow.services.CacheService;
 import com.documentflow.services.DepartmentService;
+import com.documentflow.services.TaskCounterService;
 import com.documentflow.services.UserService;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.util.List;
+
 @Controller
 @RequestMapping("/sys")
 public class SysController {
@@ -21,6 +29,15 @@ public class SysController {
     @Setter(onMethod_ = {@Autowired})
     private UserService userService;
 
+    @Setter(onMethod_ = {@Autowired})
+    private CacheService cacheService;
+
+    @Setter(onMethod_ = {@Autowired})
+    private DocumentFullTextIndex fullTextIndex;
+
+    @Setter(onMethod_ = {@Autowired})
+    private TaskCounterService taskCounterService;
+
     @GetMapping("/departments")
     public String departmentsTable(Model model) {
         model.addAttribute("departments", departmentService.findAllDepartments());
@@ -57,4 +74,28 @@ public class SysController {
         userService.saveOrUpdate(user);
         return "redirect:/sys/users";
     }
-}
\ No newline at end of file
+
+    @GetMapping("/cache")
+    @ResponseBody
+    public List<CacheRegionDto> cacheStatistics() {
+        return cacheService.getStatistics();
+    }
+
+    @PostMapping("/cache/evict")
+    @ResponseBody
+    public List<CacheRegionDto> evictCache(@RequestParam(required = false) String region) {
+        cacheService.evict(region);
+        return cacheService.getStatistics();
+    }
+
+    @PostMapping("/fulltext/reindex")
+    public ResponseEntity<Void> reindexFullText() {
+        //переиндексация идет в фоне, ее итог пишется в лог
+        return fullTextIndex.startReindex() ? ResponseEntity.accepted().build() : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @PostMapping("/task-counters/rebuild")
+    public ResponseEntity<Void> rebuildTaskCounters() {
+        return taskCounterService.startRebuild() ? ResponseEntity.accepted().build() : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.documentflow.controllers;
 
 import com.documentflow.entities.*;
+import com.documentflow.entities.DTO.TaskCountersDTO;
 import com.documentflow.model.enums.BusinessKeyState;
 import com.documentflow.model.enums.BusinessKeyTask;
 import com.documentflow.repositories.specifications.TaskSpecification;
@@ -29,6 +30,7 @@ public class TaskController {
     private DocInService docInService;
     private DocOutService docOutService;
     private DocInUtils docInUtils;
+    private TaskCounterService taskCounterService;
 
     @Autowired
     public void setTaskService(TaskService taskService) {
@@ -70,11 +72,22 @@ public class TaskController {
         this.docInUtils = docInUtils;
     }
 
+    @Autowired
+    public void setTaskCounterService(TaskCounterService taskCounterService) {
+        this.taskCounterService = taskCounterService;
+    }
+
     @GetMapping("")
     public String showAllTasks() {
         return "redirect:/tasks/registry/in";
     }
 
+    @GetMapping("/counters")
+    @ResponseBody
+    public TaskCountersDTO showCounters(Principal principal) {
+        return taskCounterService.getCounters(principal.getName());
+    }
+
     @GetMapping("/registry/{direction}")
     public String showTasks(Principal principal,
                             Model model,
@@ -130,12 +143,12 @@ public class TaskController {
 
         if (taskType.getBusinessKey().equals(BusinessKeyTask.EXECUTION.name())) {
             DocIn docIn = docInService.findById(docId);
-            taskState = stateService.getStateByBusinessKey(BusinessKeyState.EXECUTION.name());
+            taskState = stateService.getStateByBusinessKey(BusinessKeyState.EXECUTION);
             task.setState(taskState);
             model.addAttribute("docIn", docIn);
         } else if (taskType.getBusinessKey().equals(BusinessKeyTask.APPROVING.name())) {
             DocOut docOut = docOutService.findOneById(docId);
-            taskState = stateService.getStateByBusinessKey(BusinessKeyState.APPROVING.name());
+            taskState = stateService.getStateByBusinessKey(BusinessKeyState.APPROVING);
             task.setState(taskState);
             model.addAttribute("docOut", docOut);
         }
@@ -186,14 +199,14 @@ public class TaskController {
         taskHistory.setUser(task.getAuthor());
         taskHistory.setState(task.getState());
         taskService.save(task);
-        taskHistoryService.save(taskHistory);
+        taskHistoryService.append(taskHistory);
         String taskType = task.getTaskType().getBusinessKey();
         if (taskType.equals(BusinessKeyTask.EXECUTION.name())) {
             docInUtils.addTaskToDocIn(docId, task);
         } else if (taskType.equals(BusinessKeyTask.APPROVING.name())) {
             DocOut docOut = docOutService.findOneById(docId);
             docOut.setTask(task);
-            docOut.setState(stateService.getStateByBusinessKey(BusinessKeyState.APPROVING.name()));
+            docOut.setState(stateService.getStateByBusinessKey(BusinessKeyState.APPROVING));
             docOutService.save(docOut);
             // TODO: добавить метод addTaskToDocOut()
         }
@@ -205,7 +218,7 @@ public class TaskController {
         Task task = taskHistory.getTask();
         task.setState(taskHistory.getState());
         taskService.save(task);
-        taskHistoryService.save(taskHistory);
+        taskHistoryService.append(taskHistory);
         return "redirect:/tasks/";
     }
 
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import org.apache.commons.lang3.math.NumberUtils;
+import org.hibernate.annotations.Where;
+import org.hibernate.annotations.WhereJoinTable;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -51,6 +53,11 @@ public class Address implements Serializable {
     @Column(name = "apartrment_number")
     private String apartmentNumber;
 
+    //хеш нормализованного адреса для поиска дубликатов по индексу
+    @JsonIgnore
+    @Column(name = "canonical_key")
+    private String canonicalKey;
+
     @JsonCreator
     public Address(@JsonProperty("id") Long id,
                    @JsonProperty("post_index") Integer postIndex,
@@ -82,6 +89,7 @@ public class Address implements Serializable {
 
     @JsonIgnore
     @ManyToMany
+    @WhereJoinTable(clause = Contragent.LIVE)
     @JoinTable(name = "contragents",
             joinColumns = @JoinColumn(name = "address_id"),
             inverseJoinColumns = @JoinColumn(name = "organiztion_id"))
@@ -89,6 +97,7 @@ public class Address implements Serializable {
 
     @JsonIgnore
     @ManyToMany
+    @WhereJoinTable(clause = Contragent.LIVE)
     @JoinTable(name = "contragents",
             joinColumns = @JoinColumn(name = "address_id"),
             inverseJoinColumns = @JoinColumn(name = "person_id"))
@@ -96,5 +105,12 @@ public class Address implements Serializable {
 
     @JsonIgnore
     @OneToMany(mappedBy = "address", cascade = CascadeType.ALL)
+    @Where(clause = Contragent.LIVE)
     private List<Contragent> contragents = new ArrayList<>();
+
+    @PrePersist
+    @PreUpdate
+    public void updateCanonicalKey() {
+        canonicalKey = ContragentUtils.createCanonicalKey(ContragentUtils.createCanonicalString(this));
+    }
 }
@@ -4,18 +4,26 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
 import java.io.Serializable;
 
+/**
+ * Link of a person and/or an organization with an address. Deleted records stay in the table with
+ * is_deleted set and are skipped by every query and collection through {@link #LIVE}
+ */
 @Setter
 @Getter
 @Entity
 @NoArgsConstructor
 @Table(name = "contragents")
+@Where(clause = Contragent.LIVE)
 public class Contragent implements Serializable {
     private static final long serialVersionUID = -3584625726642093828L;
 
+    public static final String LIVE = "is_deleted = false";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
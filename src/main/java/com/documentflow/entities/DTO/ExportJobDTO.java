@@ -0,0 +1,24 @@
+package com.documentflow.entities.DTO;
+
+import com.documentflow.model.enums.DocumentKind;
+import com.documentflow.model.enums.ExportFormat;
+import com.documentflow.model.enums.ExportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a registry export: the file can be downloaded once the status is DONE
+ */
+@Getter
+@AllArgsConstructor
+public class ExportJobDTO {
+    private String id;
+    private DocumentKind kind;
+    private ExportFormat format;
+    private ExportStatus status;
+    private long rows;
+    private String error;
+    private LocalDateTime createdAt;
+}
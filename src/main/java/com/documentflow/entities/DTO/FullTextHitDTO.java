@@ -0,0 +1,13 @@
+package com.documentflow.entities.DTO;
+
+import com.documentflow.model.enums.DocumentKind;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FullTextHitDTO {
+    private DocumentKind kind;
+    private Long id;
+    private float score;
+}
@@ -0,0 +1,18 @@
+package com.documentflow.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Page of full-text search results, best matches first
+ */
+@Getter
+@AllArgsConstructor
+public class FullTextPageDTO {
+    private List<FullTextHitDTO> hits;
+    private long total;
+    private int page;
+    private int size;
+}
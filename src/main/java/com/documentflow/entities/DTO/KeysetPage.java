@@ -0,0 +1,30 @@
+package com.documentflow.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Page of a registry read by seek pagination: cursors of the neighbour pages instead of a page number
+ * and a total count that is exact only up to a cap
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private List<T> content;
+    //null, если соседней страницы нет
+    private String prevCursor;
+    private String nextCursor;
+    private long total;
+    //строк больше, чем total
+    private boolean totalCapped;
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> converter) {
+        return new KeysetPage<>(content.stream().map(converter).collect(Collectors.toList()),
+                prevCursor, nextCursor, total, totalCapped);
+    }
+}
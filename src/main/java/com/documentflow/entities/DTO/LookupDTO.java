@@ -0,0 +1,16 @@
+package com.documentflow.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Option of a dropdown loaded on demand
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupDTO {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,17 @@
+package com.documentflow.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Badges of the task inbox: open tasks assigned to the user, how many of them are overdue
+ * or due today, and open tasks the user is the author of
+ */
+@Getter
+@AllArgsConstructor
+public class TaskCountersDTO {
+    private long assignedOpen;
+    private long assignedOverdue;
+    private long assignedDueToday;
+    private long authoredOpen;
+}
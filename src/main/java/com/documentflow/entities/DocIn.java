@@ -1,5 +1,6 @@
 package com.documentflow.entities;
 
+import com.documentflow.utils.RegNumber;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -25,6 +26,16 @@ public class DocIn implements Serializable {
     @Column(name = "reg_number")
     private String regNumber;
 
+    //части номера для поиска по индексу, заполняются из regNumber
+    @Column(name = "reg_prefix")
+    private String regPrefix;
+
+    @Column(name = "reg_sequence")
+    private Integer regSequence;
+
+    @Column(name = "reg_year")
+    private Integer regYear;
+
     @CreationTimestamp
     @Column(name = "reg_date")
     private LocalDateTime regDate;
@@ -89,4 +100,13 @@ public class DocIn implements Serializable {
         this.appendix = appendix;
         this.note = note;
     }
+
+    @PrePersist
+    @PreUpdate
+    public void updateRegNumberParts() {
+        RegNumber parts = RegNumber.parse(regNumber);
+        regPrefix = parts != null ? parts.getPrefix() : null;
+        regSequence = parts != null ? parts.getSequenceFrom() : null;
+        regYear = parts != null ? parts.getYear() : null;
+    }
 }
@@ -1,6 +1,7 @@
 package com.documentflow.entities;
 
 
+import com.documentflow.utils.RegNumber;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -61,6 +62,16 @@ public class DocOut implements Serializable {
     @Column(name = "number")
     private String number;
 
+    //части номера для поиска по индексу, заполняются из number
+    @Column(name = "number_prefix")
+    private String numberPrefix;
+
+    @Column(name = "number_sequence")
+    private Integer numberSequence;
+
+    @Column(name = "number_year")
+    private Integer numberYear;
+
     @CreationTimestamp
     @Column(name="reg_date")
     private LocalDate regDate;
@@ -83,6 +94,15 @@ public class DocOut implements Serializable {
         this.note = note;
         this.state = state;
     }
+
+    @PrePersist
+    @PreUpdate
+    public void updateNumberParts() {
+        RegNumber parts = RegNumber.parse(number);
+        numberPrefix = parts != null ? parts.getPrefix() : null;
+        numberSequence = parts != null ? parts.getSequenceFrom() : null;
+        numberYear = parts != null ? parts.getYear() : null;
+    }
 }
 
 //        User creator=docOutDTO.getCreator();
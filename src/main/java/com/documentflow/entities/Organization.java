@@ -6,6 +6,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Where;
+import org.hibernate.annotations.WhereJoinTable;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -44,6 +46,7 @@ public class Organization implements Serializable {
 
     @JsonIgnore
     @ManyToMany
+    @WhereJoinTable(clause = Contragent.LIVE)
     @JoinTable(name = "contragents",
             joinColumns = @JoinColumn(name = "organiztion_id"),
             inverseJoinColumns = @JoinColumn(name = "address_id"))
@@ -51,6 +54,7 @@ public class Organization implements Serializable {
 
     @JsonIgnore
     @ManyToMany
+    @WhereJoinTable(clause = Contragent.LIVE)
     @JoinTable(name = "contragents",
             joinColumns = @JoinColumn(name = "organiztion_id"),
             inverseJoinColumns = @JoinColumn(name = "person_id"))
@@ -58,5 +62,6 @@ public class Organization implements Serializable {
 
     @JsonIgnore
     @OneToMany(mappedBy = "organization", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @Where(clause = Contragent.LIVE)
     private List<Contragent> contragents = new ArrayList<>();
 }
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Where;
+import org.hibernate.annotations.WhereJoinTable;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -37,6 +39,11 @@ public class Person implements Serializable {
     @NotBlank(message = "Last name can no be empty")
     private String lastName;
 
+    //хеш нормализованного ФИО для поиска дубликатов по индексу
+    @JsonIgnore
+    @Column(name = "canonical_key")
+    private String canonicalKey;
+
     @JsonCreator
     public Person(
             @JsonProperty("id") Long id,
@@ -55,6 +62,7 @@ public class Person implements Serializable {
 
     @JsonIgnore
     @ManyToMany
+    @WhereJoinTable(clause = Contragent.LIVE)
     @JoinTable(name = "contragents",
             joinColumns = @JoinColumn(name = "person_id"),
             inverseJoinColumns = @JoinColumn(name = "organiztion_id"))
@@ -62,6 +70,7 @@ public class Person implements Serializable {
 
     @JsonIgnore
     @ManyToMany
+    @WhereJoinTable(clause = Contragent.LIVE)
     @JoinTable(name = "contragents",
             joinColumns = @JoinColumn(name = "person_id"),
             inverseJoinColumns = @JoinColumn(name = "address_id"))
@@ -69,5 +78,12 @@ public class Person implements Serializable {
 
     @JsonIgnore
     @OneToMany(mappedBy = "person", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @Where(clause = Contragent.LIVE)
     private List<Contragent> contragents = new ArrayList<>();
+
+    @PrePersist
+    @PreUpdate
+    public void updateCanonicalKey() {
+        canonicalKey = ContragentUtils.createCanonicalKey(ContragentUtils.createCanonicalString(this));
+    }
 }
@@ -38,4 +38,12 @@ public class TaskHistory {
     @JoinColumn(name = "task_id")
     private Task task;
 
+    //номер записи в TaskHistoryJournal, пустой у записей, сохраненных через репозиторий
+    @Column(name = "journal_seq", insertable = false, updatable = false)
+    private Long journalSeq;
+
+    //копия приложения, в журнале которой записан номер
+    @Column(name = "journal_instance", insertable = false, updatable = false)
+    private String journalInstance;
+
 }
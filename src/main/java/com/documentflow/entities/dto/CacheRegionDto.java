@@ -0,0 +1,16 @@
+package com.documentflow.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CacheRegionDto {
+
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    //записей в памяти, -1 если провайдер не сообщает
+    private long elementCount;
+}
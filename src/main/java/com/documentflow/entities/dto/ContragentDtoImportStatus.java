@@ -0,0 +1,36 @@
+package com.documentflow.entities.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ContragentDtoImportStatus {
+
+    public static final String PROGRESS = "progress";
+    public static final String ERROR = "error";
+    public static final String DONE = "done";
+
+    private String type;
+    //номер строки входного файла, только для ошибок
+    private Long line;
+    private String message;
+    //прочитано строк, сохранено контрагентов, отклонено строк
+    private long processed;
+    private long imported;
+    private long failed;
+
+    public static ContragentDtoImportStatus progress(long processed, long imported, long failed) {
+        return new ContragentDtoImportStatus(PROGRESS, null, null, processed, imported, failed);
+    }
+
+    public static ContragentDtoImportStatus error(long line, String message, long processed, long imported, long failed) {
+        return new ContragentDtoImportStatus(ERROR, line, message, processed, imported, failed);
+    }
+
+    public static ContragentDtoImportStatus done(long processed, long imported, long failed) {
+        return new ContragentDtoImportStatus(DONE, null, null, processed, imported, failed);
+    }
+}
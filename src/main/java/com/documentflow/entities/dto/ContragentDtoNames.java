@@ -0,0 +1,18 @@
+package com.documentflow.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ContragentDtoNames {
+
+    private Long id;
+    private String searchName;
+    private Long personId;
+    private String firstName;
+    private String middleName;
+    private String lastName;
+    private Long organizationId;
+    private String organizationName;
+}
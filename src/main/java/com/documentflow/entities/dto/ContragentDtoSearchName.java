@@ -0,0 +1,12 @@
+package com.documentflow.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ContragentDtoSearchName {
+
+    private Long id;
+    private String searchName;
+}
@@ -0,0 +1,27 @@
+package com.documentflow.entities.dto;
+
+import com.documentflow.model.enums.ContragentType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ContragentDtoSimilar {
+
+    //ID контрагента
+    private Long id;
+    private ContragentType type;
+    //ФИО персоны или наименование организации с ФИО сотрудника
+    private String name;
+    @JsonProperty("first_name")
+    private String firstName;
+    @JsonProperty("middle_name")
+    private String middleName;
+    @JsonProperty("last_name")
+    private String lastName;
+    @JsonProperty("name_company")
+    private String nameCompany;
+    private String position;
+    private ContragentDtoAddress address;
+}
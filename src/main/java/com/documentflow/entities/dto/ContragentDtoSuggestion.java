@@ -0,0 +1,28 @@
+package com.documentflow.entities.dto;
+
+import com.documentflow.model.enums.ContragentType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ContragentDtoSuggestion {
+
+    //ID персоны или организации, в зависимости от типа
+    private Long id;
+    private ContragentType type;
+    private String name;
+    @JsonProperty("first_name")
+    private String firstName;
+    @JsonProperty("middle_name")
+    private String middleName;
+    @JsonProperty("last_name")
+    private String lastName;
+    //количество действующих контрагентов с этим наименованием
+    private long weight;
+
+    public ContragentDtoSuggestion withWeight(long weight) {
+        return new ContragentDtoSuggestion(id, type, name, firstName, middleName, lastName, weight);
+    }
+}
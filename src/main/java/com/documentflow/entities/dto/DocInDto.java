@@ -3,9 +3,12 @@ package com.documentflow.entities.dto;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.Date;
 
 @Getter
@@ -58,4 +61,26 @@ public class DocInDto implements Serializable {
         this.stateName = stateName;
         this.stateId = stateId;
     }
+
+    /**
+     * Row of the registry read by one query, see DocInService#findPage
+     */
+    public DocInDto(Long id, String regNumber, LocalDateTime regDate, Integer userId, String userLastName, String userFirstName,
+                    String userMiddleName, Integer docTypeId, String docTypeName, Integer departmentId, String sender,
+                    String outgoingNumber, LocalDateTime outgoingDate, String content, Integer pages, String appendix,
+                    String note, String stateName, Integer stateId, Long docOutId, String docOutNumber, Long taskId) {
+        this(id, regNumber, toDate(regDate), userId,
+                userLastName == null ? null
+                        : userLastName + " " + StringUtils.left(userFirstName, 1) + "." + StringUtils.left(userMiddleName, 1),
+                docTypeId, docTypeName, departmentId, sender, outgoingNumber, toDate(outgoingDate), content, pages,
+                appendix, note, stateName, stateId);
+        this.docOutId = docOutId;
+        this.docOutNumber = docOutNumber;
+        this.taskId = taskId;
+    }
+
+    //Timestamp сохраняет наносекунды, по нему строится курсор страницы
+    private static Date toDate(LocalDateTime date) {
+        return date != null ? Timestamp.valueOf(date) : null;
+    }
 }
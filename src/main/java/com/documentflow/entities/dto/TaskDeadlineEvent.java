@@ -0,0 +1,26 @@
+package com.documentflow.entities.dto;
+
+import com.documentflow.model.enums.DeadlineKind;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Application event published by the deadline scheduler when a reminder or an escalation of a task is due.
+ * The recipient is the executor for a reminder and the executor's boss for an escalation;
+ * events without a recipient are not published
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskDeadlineEvent {
+    private final DeadlineKind kind;
+    private final Long taskId;
+    private final String taskName;
+    private final LocalDate endDate;
+    private final Integer authorId;
+    private final Integer executorId;
+    private final Integer recipientId;
+}
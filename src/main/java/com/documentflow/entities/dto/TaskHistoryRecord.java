@@ -0,0 +1,23 @@
+package com.documentflow.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Task history entry as it is written to the journal file and inserted into tasks_history.
+ * The sequence number is unique across restarts and makes a repeated insert a no-op
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskHistoryRecord {
+    private long seq;
+    private Long taskId;
+    private Integer userId;
+    private Integer stateId;
+    private String note;
+    private LocalDateTime actionDate;
+}
@@ -0,0 +1,11 @@
+package com.documentflow.model.enums;
+
+/**
+ * Kind of contragent record used to narrow the search
+ */
+public enum ContragentType {
+
+    ANY, // любая запись
+    PERSON, // физическое лицо
+    COMPANY // организация или ее сотрудник
+}
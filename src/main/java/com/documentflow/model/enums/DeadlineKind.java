@@ -0,0 +1,10 @@
+package com.documentflow.model.enums;
+
+/**
+ * What a task deadline event means for its recipient
+ */
+public enum DeadlineKind {
+
+    REMINDER, // срок скоро истекает, сообщение исполнителю
+    ESCALATION // срок истек, сообщение руководителю исполнителя
+}
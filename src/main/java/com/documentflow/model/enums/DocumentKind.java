@@ -0,0 +1,10 @@
+package com.documentflow.model.enums;
+
+/**
+ * Kind of a registered document
+ */
+public enum DocumentKind {
+
+    DOC_IN, // входящий
+    DOC_OUT // исходящий
+}
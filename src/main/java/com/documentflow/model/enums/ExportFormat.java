@@ -0,0 +1,18 @@
+package com.documentflow.model.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * File format of a registry export
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"), // CSV в UTF-8
+    XML("application/vnd.ms-excel", "xml"); // таблица XML Spreadsheet 2003, открывается в Excel
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,11 @@
+package com.documentflow.model.enums;
+
+/**
+ * State of a registry export job
+ */
+public enum ExportStatus {
+
+    RUNNING, // файл пишется
+    DONE, // файл готов к скачиванию
+    FAILED // выгрузка прервана ошибкой
+}
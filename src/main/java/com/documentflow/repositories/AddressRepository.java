@@ -1,8 +1,18 @@
 package com.documentflow.repositories;
 
 import com.documentflow.entities.Address;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface AddressRepository extends JpaRepository<Address, Long>, JpaSpecificationExecutor<Address> {
+
+    List<Address> findAllByCanonicalKeyOrderById(String canonicalKey);
+
+    List<Address> findAllByCanonicalKeyIsNull(Pageable pageable);
+
+    List<Address> findAllByCanonicalKeyInOrderById(Collection<String> canonicalKeys);
 }
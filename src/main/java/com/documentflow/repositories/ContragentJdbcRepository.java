@@ -0,0 +1,169 @@
+package com.documentflow.repositories;
+
+import com.documentflow.entities.Address;
+import com.documentflow.entities.Contragent;
+import com.documentflow.entities.Person;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bulk lookups and inserts of contragent parts that bypass the persistence context: one IN query or one
+ * multi-row INSERT ... RETURNING statement per chunk instead of one statement per entity.
+ * The canonical key must be set on the entities before the insert, entity callbacks are not called.
+ */
+@Repository
+public class ContragentJdbcRepository {
+
+    //не больше строк в одном запросе, чтобы не упереться в лимит параметров PostgreSQL
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_CONTRAGENT = "INSERT INTO contragents " +
+            "(person_position, search_name, is_deleted, address_id, person_id, organiztion_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Find persons by canonical keys
+     *
+     * @param canonicalKeys canonical keys
+     * @return persons with id and names, ordered by id
+     */
+    public List<Person> findPersonsByCanonicalKeys(Collection<String> canonicalKeys) {
+        return findIn("SELECT id, first_name, middle_name, last_name FROM persons WHERE canonical_key IN (:values) ORDER BY id",
+                canonicalKeys,
+                (resultSet, i) -> new Person(resultSet.getLong("id"), resultSet.getString("first_name"),
+                        resultSet.getString("middle_name"), resultSet.getString("last_name")));
+    }
+
+    /**
+     * Find addresses by canonical keys
+     *
+     * @param canonicalKeys canonical keys
+     * @return addresses with id and fields, ordered by id
+     */
+    public List<Address> findAddressesByCanonicalKeys(Collection<String> canonicalKeys) {
+        return findIn("SELECT id, post_index, country, city, street, house_number, apartrment_number FROM addresses " +
+                        "WHERE canonical_key IN (:values) ORDER BY id",
+                canonicalKeys,
+                (resultSet, i) -> new Address(resultSet.getLong("id"), (Integer) resultSet.getObject("post_index"),
+                        resultSet.getString("country"), resultSet.getString("city"), resultSet.getString("street"),
+                        resultSet.getString("house_number"), resultSet.getString("apartrment_number")));
+    }
+
+    /**
+     * Find organizations by exact names
+     *
+     * @param names organization names
+     * @return ids by name, the smallest id for repeated names
+     */
+    public Map<String, Long> findOrganizationIds(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        findIn("SELECT id, name FROM organizations WHERE name IN (:values) ORDER BY id",
+                names,
+                (resultSet, i) -> ids.putIfAbsent(resultSet.getString("name"), resultSet.getLong("id")));
+        return ids;
+    }
+
+    /**
+     * Insert the organizations
+     *
+     * @param names distinct names of new organizations
+     * @return ids of the inserted rows by name
+     */
+    public Map<String, Long> insertOrganizations(List<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        for (int from = 0; from < names.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + MAX_ROWS_PER_STATEMENT));
+            StringJoiner sql = new StringJoiner(", ", "INSERT INTO organizations (name) VALUES ", " RETURNING id, name");
+            chunk.forEach(name -> sql.add("(?)"));
+            jdbcTemplate.query(sql.toString(), chunk.toArray(),
+                    (RowCallbackHandler) resultSet -> ids.put(resultSet.getString("name"), resultSet.getLong("id")));
+        }
+        return ids;
+    }
+
+    /**
+     * Insert the contragents with JDBC batches. Address, person and organization are referenced by id only
+     *
+     * @param contragents new contragents
+     */
+    public void insertContragents(List<Contragent> contragents) {
+        jdbcTemplate.batchUpdate(INSERT_CONTRAGENT, contragents, MAX_ROWS_PER_STATEMENT, (statement, contragent) -> {
+            statement.setString(1, contragent.getPersonPosition());
+            statement.setString(2, contragent.getSearchName());
+            statement.setBoolean(3, Boolean.TRUE.equals(contragent.getIsDeleted()));
+            statement.setObject(4, contragent.getAddress() != null ? contragent.getAddress().getId() : null, Types.BIGINT);
+            statement.setObject(5, contragent.getPerson() != null ? contragent.getPerson().getId() : null, Types.BIGINT);
+            statement.setObject(6, contragent.getOrganization() != null ? contragent.getOrganization().getId() : null, Types.BIGINT);
+        });
+    }
+
+    /**
+     * Insert the persons
+     *
+     * @param persons new persons with canonical keys
+     * @return ids of the inserted rows by canonical key
+     */
+    public Map<String, Long> insertPersons(List<Person> persons) {
+        return insert("INSERT INTO persons (first_name, middle_name, last_name, canonical_key) VALUES ",
+                "(?, ?, ?, ?)",
+                new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR},
+                persons,
+                person -> new Object[]{person.getFirstName(), person.getMiddleName(), person.getLastName(), person.getCanonicalKey()});
+    }
+
+    /**
+     * Insert the addresses
+     *
+     * @param addresses new addresses with canonical keys
+     * @return ids of the inserted rows by canonical key
+     */
+    public Map<String, Long> insertAddresses(List<Address> addresses) {
+        return insert("INSERT INTO addresses (post_index, country, city, street, house_number, apartrment_number, canonical_key) VALUES ",
+                "(?, ?, ?, ?, ?, ?, ?)",
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR},
+                addresses,
+                address -> new Object[]{address.getIndex(), address.getCountry(), address.getCity(), address.getStreet(),
+                        address.getHouseNumber(), address.getApartmentNumber(), address.getCanonicalKey()});
+    }
+
+    private <T> List<T> findIn(String sql, Collection<String> values, RowMapper<T> rowMapper) {
+        List<T> result = new ArrayList<>();
+        List<String> list = new ArrayList<>(values);
+        for (int from = 0; from < list.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = list.subList(from, Math.min(list.size(), from + MAX_ROWS_PER_STATEMENT));
+            result.addAll(namedParameterJdbcTemplate.query(sql, Collections.singletonMap("values", chunk), rowMapper));
+        }
+        return result;
+    }
+
+    private <T> Map<String, Long> insert(String insert, String row, int[] rowTypes, List<T> items, Function<T, Object[]> values) {
+        Map<String, Long> ids = new HashMap<>();
+        for (int from = 0; from < items.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<T> chunk = items.subList(from, Math.min(items.size(), from + MAX_ROWS_PER_STATEMENT));
+            StringJoiner sql = new StringJoiner(", ", insert, " RETURNING id, canonical_key");
+            List<Object> args = new ArrayList<>();
+            int[] types = new int[chunk.size() * rowTypes.length];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.add(row);
+                args.addAll(Arrays.asList(values.apply(chunk.get(i))));
+                System.arraycopy(rowTypes, 0, types, i * rowTypes.length, rowTypes.length);
+            }
+            jdbcTemplate.query(sql.toString(), args.toArray(), types,
+                    (RowCallbackHandler) resultSet -> ids.put(resultSet.getString("canonical_key"), resultSet.getLong("id")));
+        }
+        return ids;
+    }
+}
@@ -1,10 +1,108 @@
 package com.documentflow.repositories;
 
+import com.documentflow.entities.Address;
 import com.documentflow.entities.Contragent;
+import com.documentflow.entities.dto.ContragentDtoEmployee;
+import com.documentflow.entities.dto.ContragentDtoNames;
+import com.documentflow.entities.dto.ContragentDtoSearchName;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface ContragentRepository extends JpaRepository<Contragent, Long>, JpaSpecificationExecutor<Contragent> {
+
+    @Query("select new com.documentflow.entities.dto.ContragentDtoSearchName(c.id, c.searchName) " +
+            "from Contragent c where c.searchName is not null")
+    List<ContragentDtoSearchName> findAllSearchNames();
+
+    String SELECT_NAMES = "select new com.documentflow.entities.dto.ContragentDtoNames(c.id, c.searchName, p.id, p.firstName, p.middleName, p.lastName, o.id, o.name) " +
+            "from Contragent c left join c.person p left join c.organization o";
+
+    @Query(SELECT_NAMES)
+    List<ContragentDtoNames> findAllNames();
+
+    @Query(SELECT_NAMES + " where p.id = :personId")
+    List<ContragentDtoNames> findAllNamesByPersonId(@Param("personId") Long personId);
+
+    @Query(SELECT_NAMES + " where o.id = :organizationId")
+    List<ContragentDtoNames> findAllNamesByOrganizationId(@Param("organizationId") Long organizationId);
+
+    //id адреса подменяется id контрагента, чтобы на фронте можно было удалить запись
+    String SELECT_ADDRESSES = "select new com.documentflow.entities.Address(c.id, a.index, a.country, a.city, a.street, a.houseNumber, a.apartmentNumber) " +
+            "from Contragent c join c.address a";
+
+    /**
+     * Addresses of the person that are not deleted, with one query
+     *
+     * @return addresses with the id of the contragent instead of the address id
+     */
+    @Query(SELECT_ADDRESSES + " where c.person.id = :personId order by c.id")
+    List<Address> findAllAddressesByPersonId(@Param("personId") Long personId);
+
+    /**
+     * Addresses of the organization that are not deleted, with one query
+     *
+     * @return addresses with the id of the contragent instead of the address id
+     */
+    @Query(SELECT_ADDRESSES + " where c.organization.id = :organizationId order by c.id")
+    List<Address> findAllAddressesByOrganizationId(@Param("organizationId") Long organizationId);
+
+    /**
+     * Employees of the organization that are not deleted, with one query
+     *
+     * @return employees with the id of the contragent
+     */
+    @Query("select new com.documentflow.entities.dto.ContragentDtoEmployee(str(c.id), p.firstName, p.middleName, p.lastName, c.personPosition) " +
+            "from Contragent c join c.person p where c.organization.id = :organizationId order by c.id")
+    List<ContragentDtoEmployee> findAllEmployeesByOrganizationId(@Param("organizationId") Long organizationId);
+
+    /**
+     * Stream the contragents that are not deleted with their person, organization and address, ordered by id.
+     * Rows are read from a server-side cursor in portions of the fetch size, so the stream must be consumed
+     * inside a transaction and closed
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")})
+    @Query("select c from Contragent c left join fetch c.person left join fetch c.organization left join fetch c.address " +
+            "order by c.id")
+    Stream<Contragent> streamAllNotDeleted();
+
+    /**
+     * Replace a part of the search name in all contragents of the person with one statement
+     *
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE contragents SET search_name = replace(search_name, :oldPart, :newPart) WHERE person_id = :personId",
+            nativeQuery = true)
+    int replaceSearchNamePartByPersonId(@Param("personId") Long personId,
+                                        @Param("oldPart") String oldPart,
+                                        @Param("newPart") String newPart);
+
+    /**
+     * Replace a part of the search name in all contragents of the organization with one statement
+     *
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE contragents SET search_name = replace(search_name, :oldPart, :newPart) WHERE organiztion_id = :organizationId",
+            nativeQuery = true)
+    int replaceSearchNamePartByOrganizationId(@Param("organizationId") Long organizationId,
+                                              @Param("oldPart") String oldPart,
+                                              @Param("newPart") String newPart);
 }
@@ -2,15 +2,18 @@ package com.documentflow.repositories;
 
 import com.documentflow.entities.Department;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface DepartmentRepository extends JpaRepository <Department, Integer> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Department> findAllByOrderByName();
 
-    Department findOneById(int id);
-
 }
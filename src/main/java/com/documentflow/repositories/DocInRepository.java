@@ -10,6 +10,5 @@ import org.springframework.stereotype.Repository;
 public interface DocInRepository extends JpaRepository<DocIn, Long>, JpaSpecificationExecutor<DocIn> {
 
     DocIn findByTask(Task task);
-    DocIn findFirstByOrderByIdDesc();
     DocIn findByRegNumber(String regNumber);
 }
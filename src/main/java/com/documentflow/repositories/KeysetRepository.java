@@ -0,0 +1,199 @@
+package com.documentflow.repositories;
+
+import com.documentflow.entities.DTO.KeysetPage;
+import com.documentflow.utils.KeysetCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Seek pagination of filtered registries. A page is read with "(key, id) after the cursor" and LIMIT,
+ * so the cost does not depend on the page position, and the total count stops at a cap
+ * instead of counting the whole journal.
+ */
+@Repository
+public class KeysetRepository {
+
+    private static final String ID = "id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${documentflow.registry.count-cap:1000}")
+    private int countCap;
+
+    /**
+     * Read a page
+     *
+     * @param type          entity class
+     * @param filter        filter of the registry
+     * @param keyAttribute  attribute the registry is ordered by, the id breaks ties
+     * @param key           value of the attribute for the cursors
+     * @param direction     order of the registry
+     * @param cursor        position to read from, null for the first page
+     * @param size          page size
+     * @param fetch         associations read with the page
+     * @return rows in the registry order and the cursors of the neighbour pages
+     */
+    public <T, K extends Comparable<? super K>> KeysetPage<T> findPage(Class<T> type, Specification<T> filter,
+                                                                      String keyAttribute, Function<T, K> key,
+                                                                      Sort.Direction direction, KeysetCursor<K> cursor,
+                                                                      int size, String... fetch) {
+        return findPage(type, filter, keyAttribute, key, this::id, direction, cursor, size,
+                (specification, sort) -> find(type, specification, sort, size + 1, fetch));
+    }
+
+    /**
+     * Read a page of projections, one statement for the rows
+     *
+     * @param type          entity class
+     * @param filter        filter of the registry
+     * @param keyAttribute  attribute the registry is ordered by, the id breaks ties
+     * @param key           value of the attribute in a projection
+     * @param id            entity id in a projection
+     * @param direction     order of the registry
+     * @param cursor        position to read from, null for the first page
+     * @param size          page size
+     * @param resultType    projection class
+     * @param projection    selection of the projection, usually a constructor expression over joins of the root
+     * @return projections in the registry order and the cursors of the neighbour pages
+     */
+    public <T, R, K extends Comparable<? super K>> KeysetPage<R> findPage(Class<T> type, Specification<T> filter,
+                                                                         String keyAttribute, Function<R, K> key,
+                                                                         Function<R, Long> id,
+                                                                         Sort.Direction direction, KeysetCursor<K> cursor,
+                                                                         int size, Class<R> resultType,
+                                                                         BiFunction<Root<T>, CriteriaBuilder, Selection<? extends R>> projection) {
+        return findPage(type, filter, keyAttribute, key, id, direction, cursor, size,
+                (specification, sort) -> select(type, resultType, specification, sort, size + 1, projection));
+    }
+
+    private <T, R, K extends Comparable<? super K>> KeysetPage<R> findPage(Class<T> type, Specification<T> filter,
+                                                                          String keyAttribute, Function<R, K> key,
+                                                                          Function<R, Long> id,
+                                                                          Sort.Direction direction, KeysetCursor<K> cursor,
+                                                                          int size, BiFunction<Specification<T>, Sort, List<R>> reader) {
+        boolean backward = cursor != null && cursor.isBackward();
+        //назад читаем в обратном порядке от первой строки текущей страницы
+        Sort.Direction queryDirection = backward
+                ? (direction.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC)
+                : direction;
+        Specification<T> specification = Specification.where(filter);
+        if (cursor != null) {
+            specification = specification.and(seek(keyAttribute, queryDirection, cursor));
+        }
+
+        List<R> rows = new ArrayList<>(reader.apply(specification, Sort.by(queryDirection, keyAttribute, ID)));
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = rows.subList(0, size);
+        }
+        if (backward) {
+            Collections.reverse(rows);
+        }
+
+        String prevCursor = null;
+        String nextCursor = null;
+        if (!rows.isEmpty()) {
+            R first = rows.get(0);
+            R last = rows.get(rows.size() - 1);
+            if (backward ? more : cursor != null) {
+                prevCursor = KeysetCursor.format(key.apply(first), id.apply(first));
+            }
+            if (backward || more) {
+                nextCursor = KeysetCursor.format(key.apply(last), id.apply(last));
+            }
+        }
+        long total = count(type, filter);
+        return new KeysetPage<>(rows, prevCursor, nextCursor, Math.min(total, countCap), total > countCap);
+    }
+
+    /**
+     * Read the first rows of a filtered selection with LIMIT and no count query
+     *
+     * @param type          entity class
+     * @param specification filter
+     * @param sort          order of the rows
+     * @param limit         maximum number of rows
+     * @param fetch         associations read with the rows
+     * @return rows in the given order
+     */
+    public <T> List<T> find(Class<T> type, Specification<T> specification, Sort sort, int limit, String... fetch) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(toOrders(sort, root, criteriaBuilder));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query).setMaxResults(limit);
+        if (fetch.length > 0) {
+            EntityGraph<T> graph = entityManager.createEntityGraph(type);
+            graph.addAttributeNodes(fetch);
+            typedQuery.setHint("javax.persistence.loadgraph", graph);
+        }
+        return typedQuery.getResultList();
+    }
+
+    private <T, R> List<R> select(Class<T> type, Class<R> resultType, Specification<T> specification, Sort sort, int limit,
+                                  BiFunction<Root<T>, CriteriaBuilder, Selection<? extends R>> projection) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = criteriaBuilder.createQuery(resultType);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(projection.apply(root, criteriaBuilder)).orderBy(toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    //не больше countCap + 1 строк: остальное не считается
+    private <T> long count(Class<T> type, Specification<T> filter) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = criteriaBuilder.createQuery(Object.class);
+        Root<T> root = query.from(type);
+        Predicate predicate = filter != null ? filter.toPredicate(root, query, criteriaBuilder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get(ID));
+        return entityManager.createQuery(query).setMaxResults(countCap + 1).getResultList().size();
+    }
+
+    private <T, K extends Comparable<? super K>> Specification<T> seek(String keyAttribute, Sort.Direction direction,
+                                                                       KeysetCursor<K> cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Path<K> key = root.get(keyAttribute);
+            Path<Long> id = root.get(ID);
+            if (direction.isAscending()) {
+                return criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(key, cursor.getKey()),
+                        criteriaBuilder.and(criteriaBuilder.equal(key, cursor.getKey()), criteriaBuilder.greaterThan(id, cursor.getId())));
+            }
+            return criteriaBuilder.or(
+                    criteriaBuilder.lessThan(key, cursor.getKey()),
+                    criteriaBuilder.and(criteriaBuilder.equal(key, cursor.getKey()), criteriaBuilder.lessThan(id, cursor.getId())));
+        };
+    }
+
+    private Long id(Object entity) {
+        return (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+}
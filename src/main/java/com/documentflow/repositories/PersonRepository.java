@@ -1,10 +1,20 @@
 package com.documentflow.repositories;
 
 import com.documentflow.entities.Person;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person> {
+
+    List<Person> findAllByCanonicalKeyOrderById(String canonicalKey);
+
+    List<Person> findAllByCanonicalKeyIsNull(Pageable pageable);
+
+    List<Person> findAllByCanonicalKeyInOrderById(Collection<String> canonicalKeys);
 }
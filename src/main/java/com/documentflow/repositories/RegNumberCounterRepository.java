@@ -0,0 +1,37 @@
+package com.documentflow.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Counters of the registration journals, one row per journal and year
+ */
+@Repository
+public class RegNumberCounterRepository {
+
+    //строка года создается первым обращением, конкурирующие вставки сходятся на ON CONFLICT
+    private static final String RESERVE = "INSERT INTO reg_number_counters (journal, year, last_value) VALUES (?, ?, ?) " +
+            "ON CONFLICT (journal, year) DO UPDATE SET last_value = reg_number_counters.last_value + EXCLUDED.last_value " +
+            "RETURNING last_value";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserve the next numbers of the journal in one atomic statement
+     *
+     * @param journal journal name
+     * @param year    registration year
+     * @param size    how many numbers to reserve
+     * @return the last reserved number, the block is (last - size, last]
+     */
+    public long reserve(String journal, int year, int size) {
+        Long last = jdbcTemplate.queryForObject(RESERVE, Long.class, journal, year, size);
+        return last != null ? last : 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.documentflow.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Reads a whole filtered registry as rows of column values. The rows come from a server-side cursor
+ * in portions of the fetch size and are not entities, so memory does not grow with the registry.
+ * The stream must be consumed inside a transaction and closed
+ */
+@Repository
+public class RegistryExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${documentflow.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Stream the rows of the registry
+     *
+     * @param type    entity class
+     * @param filter  filter of the registry
+     * @param sort    order of the rows
+     * @param columns selections of the row values, usually attributes of the root and its left joins
+     * @return rows with the values in the order of the columns
+     */
+    public <T> Stream<Object[]> stream(Class<T> type, Specification<T> filter, Sort sort,
+                                       BiFunction<Root<T>, CriteriaBuilder, List<Selection<?>>> columns) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<T> root = query.from(type);
+        Predicate predicate = filter != null ? filter.toPredicate(root, query, criteriaBuilder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(columns.apply(root, criteriaBuilder)).orderBy(toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READONLY, true)
+                .getResultStream();
+    }
+}
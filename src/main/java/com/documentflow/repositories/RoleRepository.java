@@ -2,9 +2,15 @@ package com.documentflow.repositories;
 
 import com.documentflow.entities.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Integer> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Role findRoleByBusinessKey(String businessKey);
 }
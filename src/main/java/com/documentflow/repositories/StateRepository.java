@@ -2,17 +2,18 @@ package com.documentflow.repositories;
 
 import com.documentflow.entities.State;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface StateRepository extends JpaRepository <State, Integer> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<State> findAll();
 
-    State findOneById(int id);
-
-    State findOneByBusinessKey(String businessKey);
-
 }
@@ -0,0 +1,125 @@
+package com.documentflow.repositories;
+
+import com.documentflow.model.enums.DeadlineKind;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reads of task due dates for the deadline scheduler and claims of reminders and escalations,
+ * one statement per chunk of tasks
+ */
+@Repository
+public class TaskDeadlineJdbcRepository {
+
+    private static final String COLUMNS = "SELECT t.id, t.name, t.end_date, t.state_id, t.author_id, t.executor_id, u.boss_id, " +
+            "t.reminded_for, t.escalated_for FROM tasks t LEFT JOIN sys_users u ON u.id = t.executor_id ";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Find open tasks due up to the date that still wait for a reminder or an escalation, by the end_date index
+     *
+     * @param closedStateIds ids of the states of closed tasks
+     * @param afterDate      due date of the last task of the previous chunk, null for the first chunk
+     * @param afterId        id of the last task of the previous chunk
+     * @param toDate         latest due date, inclusive
+     * @param limit          chunk size
+     * @return tasks ordered by due date and id
+     */
+    public List<Deadline> findDue(Collection<Integer> closedStateIds, LocalDate afterDate, Long afterId, LocalDate toDate, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("closed", closedStateIds.isEmpty() ? Collections.singleton(-1) : closedStateIds)
+                .addValue("toDate", Date.valueOf(toDate))
+                .addValue("limit", limit);
+        String after = "";
+        if (afterDate != null) {
+            after = "AND (t.end_date, t.id) > (:afterDate, :afterId) ";
+            parameters.addValue("afterDate", Date.valueOf(afterDate)).addValue("afterId", afterId);
+        }
+        return jdbcTemplate.query(COLUMNS +
+                        "WHERE t.end_date <= :toDate " + after +
+                        "AND (t.state_id IS NULL OR t.state_id NOT IN (:closed)) " +
+                        "AND (t.escalated_for IS NULL OR t.escalated_for <> t.end_date) " +
+                        "ORDER BY t.end_date, t.id LIMIT :limit",
+                parameters, this::mapDeadline);
+    }
+
+    /**
+     * Read the tasks again before their events are sent
+     *
+     * @param ids task ids
+     * @return tasks that still exist, in any order
+     */
+    public List<Deadline> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(COLUMNS + "WHERE t.id IN (:ids)", new MapSqlParameterSource("ids", ids), this::mapDeadline);
+    }
+
+    /**
+     * Claim the events of the due dates with one statement before they are sent. Only one instance
+     * of the application claims an event, so it is sent once
+     *
+     * @param kind  reminder or escalation
+     * @param dates due dates by task id
+     * @return ids of the tasks claimed by this call; tasks already claimed or with a moved due date are left out
+     */
+    public Set<Long> claim(DeadlineKind kind, Map<Long, LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return Collections.emptySet();
+        }
+        //отмечаем срок, о котором сообщаем: если его тем временем перенесли, о новом сроке тоже сообщат
+        String column = kind == DeadlineKind.REMINDER ? "reminded_for" : "escalated_for";
+        List<Object[]> keys = dates.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), Date.valueOf(entry.getValue())})
+                .collect(Collectors.toList());
+        return new HashSet<>(jdbcTemplate.queryForList("UPDATE tasks SET " + column + " = end_date " +
+                        "WHERE (id, end_date) IN (:keys) AND " + column + " IS DISTINCT FROM end_date RETURNING id",
+                new MapSqlParameterSource("keys", keys), Long.class));
+    }
+
+    private Deadline mapDeadline(ResultSet resultSet, int i) throws SQLException {
+        return new Deadline(resultSet.getLong("id"), resultSet.getString("name"), toLocalDate(resultSet.getDate("end_date")),
+                (Integer) resultSet.getObject("state_id"), (Integer) resultSet.getObject("author_id"),
+                (Integer) resultSet.getObject("executor_id"), (Integer) resultSet.getObject("boss_id"),
+                toLocalDate(resultSet.getDate("reminded_for")), toLocalDate(resultSet.getDate("escalated_for")));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    /**
+     * Due date of a task with the people it concerns and the dates already reminded and escalated
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Deadline {
+        private final Long id;
+        private final String name;
+        private final LocalDate endDate;
+        private final Integer stateId;
+        private final Integer authorId;
+        private final Integer executorId;
+        private final Integer bossId;
+        private final LocalDate remindedFor;
+        private final LocalDate escalatedFor;
+
+        public boolean isSent(DeadlineKind kind) {
+            return endDate != null && endDate.equals(kind == DeadlineKind.REMINDER ? remindedFor : escalatedFor);
+        }
+    }
+}
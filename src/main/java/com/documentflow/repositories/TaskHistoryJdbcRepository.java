@@ -0,0 +1,52 @@
+package com.documentflow.repositories;
+
+import com.documentflow.entities.dto.TaskHistoryRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Batched inserts of task history entries from the journal
+ */
+@Repository
+public class TaskHistoryJdbcRepository {
+
+    //запись, вставленная до сбоя, при повторе журнала пропускается; номера разных копий приложения не пересекаются
+    private static final String INSERT = "INSERT INTO tasks_history (journal_instance, journal_seq, task_id, user_id, state_id, note, action_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (journal_instance, journal_seq) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the entries with one JDBC batch, in the order of the list
+     *
+     * @param instance instance of the application that wrote the journal
+     * @param records  entries of the journal
+     */
+    public void insert(String instance, List<TaskHistoryRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT, records, records.size(), (statement, record) -> {
+            statement.setString(1, instance);
+            statement.setLong(2, record.getSeq());
+            statement.setObject(3, record.getTaskId(), Types.BIGINT);
+            statement.setObject(4, record.getUserId(), Types.INTEGER);
+            statement.setObject(5, record.getStateId(), Types.INTEGER);
+            statement.setString(6, record.getNote());
+            statement.setTimestamp(7, record.getActionDate() != null ? Timestamp.valueOf(record.getActionDate()) : null);
+        });
+    }
+
+    /**
+     * @param instance instance of the application that wrote the journal
+     * @return the largest journal sequence number of the instance saved in the table, 0 if there is none
+     */
+    public long findMaxSeq(String instance) {
+        Long seq = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(journal_seq), 0) FROM tasks_history WHERE journal_instance = ?",
+                Long.class, instance);
+        return seq != null ? seq : 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.documentflow.repositories;
 
+import com.documentflow.entities.DTO.LookupDTO;
 import com.documentflow.entities.Task;
 import com.documentflow.entities.User;
 import org.springframework.data.domain.Page;
@@ -7,6 +8,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +18,9 @@ import java.util.List;
 public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
     List<Task> findAllByAuthor(User author);
     List<Task> findAllByExecutor(User executor);
+
+    //только id и название, без связанных пользователей и статусов; без запроса количества
+    @Query("SELECT new com.documentflow.entities.DTO.LookupDTO(t.id, t.taskName) FROM Task t " +
+            "WHERE lower(t.taskName) LIKE :pattern ESCAPE '\\'")
+    List<LookupDTO> findLookups(@Param("pattern") String pattern, Pageable pageable);
 }
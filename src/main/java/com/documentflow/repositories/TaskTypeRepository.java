@@ -3,17 +3,18 @@ package com.documentflow.repositories;
 import com.documentflow.entities.DocType;
 import com.documentflow.entities.TaskType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface TaskTypeRepository extends JpaRepository <TaskType, Integer> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<TaskType> findAll();
 
-    TaskType findOneById(int id);
-
-    TaskType findOneByBusinessKey(String businessKey);
-
 }
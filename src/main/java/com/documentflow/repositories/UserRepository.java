@@ -1,9 +1,12 @@
 package com.documentflow.repositories;
 
+import com.documentflow.entities.DTO.LookupDTO;
 import com.documentflow.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +17,12 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     List<User> findAllByOrderByLastNameAsc();
 
+    //только id и фамилия с инициалами, без начальников, отделов и ролей; без запроса количества
+    @Query("SELECT new com.documentflow.entities.DTO.LookupDTO(cast(u.id as long), " +
+            "concat(u.lastName, ' ', substring(u.firstName, 1, 1), '.', substring(u.middleName, 1, 1))) FROM User u " +
+            "WHERE lower(u.lastName) LIKE :pattern ESCAPE '\\'")
+    List<LookupDTO> findLookups(@Param("pattern") String pattern, Pageable pageable);
+
     User findOneById(int id);
 
     User findUserByUsername(String username);
@@ -1,8 +1,12 @@
 package com.documentflow.repositories.specifications;
 
 import com.documentflow.entities.Address;
+import com.documentflow.entities.Contragent;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
 public class AddressSpecifications {
     public static Specification<Address> postIndexEq(String postIndex) {
         return (Specification<Address>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.equal(root.get("index"), postIndex);
@@ -39,4 +43,21 @@ public class AddressSpecifications {
     public static Specification<Address> apartmentNumberIsNull() {
         return (Specification<Address>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.isNull(root.get("apartmentNumber"));
     }
+
+    public static Specification<Address> idGreaterThan(Long id) {
+        return (Specification<Address>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * The address belongs to a contragent that is not deleted. Checked by a correlated EXISTS in the same query
+     */
+    public static Specification<Address> hasNotDeletedContragent() {
+        return (Specification<Address>) (root, criteriaQuery, criteriaBuilder) -> {
+            Subquery<Long> subquery = criteriaQuery.subquery(Long.class);
+            Root<Contragent> contragent = subquery.from(Contragent.class);
+            subquery.select(contragent.get("id")).where(
+                    criteriaBuilder.equal(contragent.get("address"), root));
+            return criteriaBuilder.exists(subquery);
+        };
+    }
 }
@@ -3,8 +3,37 @@ package com.documentflow.repositories.specifications;
 import com.documentflow.entities.Contragent;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.criteria.JoinType;
+import java.util.Collection;
+
 public class ContragentSpecifications {
     public static Specification<Contragent> searchNameLike(String searchName) {
         return (Specification<Contragent>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.like(root.get("searchName"), "%" + searchName + "%");
     }
+
+    public static Specification<Contragent> idIn(Collection<Long> ids) {
+        return (Specification<Contragent>) (root, criteriaQuery, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Contragent> organizationIsNull() {
+        return (Specification<Contragent>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.isNull(root.get("organization"));
+    }
+
+    public static Specification<Contragent> organizationIsNotNull() {
+        return (Specification<Contragent>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get("organization"));
+    }
+
+    /**
+     * Load address, person and organization in the same select instead of one select per row
+     */
+    public static Specification<Contragent> fetchRelations() {
+        return (Specification<Contragent>) (root, criteriaQuery, criteriaBuilder) -> {
+            if (!Long.class.equals(criteriaQuery.getResultType())) {
+                root.fetch("address", JoinType.LEFT);
+                root.fetch("person", JoinType.LEFT);
+                root.fetch("organization", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
 }
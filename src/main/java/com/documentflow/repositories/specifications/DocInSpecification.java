@@ -1,13 +1,17 @@
 package com.documentflow.repositories.specifications;
 
 import com.documentflow.entities.DocIn;
-import com.documentflow.model.enums.BusinessKeyState;
+import com.documentflow.entities.State;
 import com.documentflow.services.StateService;
+import com.documentflow.utils.RegNumber;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import javax.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class DocInSpecification {
@@ -25,6 +29,22 @@ public class DocInSpecification {
                         criteriaBuilder.lower(criteriaBuilder.literal("%" + regNumber + "%"))));
     }
 
+    public static Specification<DocIn> regNumberMatches(RegNumber number) {
+        return ((root, criteriaQuery, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (number.getPrefix() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("regPrefix"), number.getPrefix()));
+            }
+            if (number.getSequenceFrom() != null) {
+                predicates.add(criteriaBuilder.between(root.get("regSequence"), number.getSequenceFrom(), number.getSequenceTo()));
+            }
+            if (number.getYear() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("regYear"), number.getYear()));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        });
+    }
+
     public static Specification<DocIn> regDateGreaterThanOrEq(LocalDateTime date) {
         return ((root, criteriaQuery, criteriaBuilder) ->
                 criteriaBuilder.greaterThanOrEqualTo(root.get("regDate"), date));
@@ -47,13 +67,30 @@ public class DocInSpecification {
                         criteriaBuilder.lower(criteriaBuilder.literal("%" + sender + "%"))));
     }
 
+    //подстрока в любом текстовом поле, когда полнотекстовый индекс не дает ответа
+    public static Specification<DocIn> textContains(String text) {
+        return ((root, criteriaQuery, criteriaBuilder) -> {
+            String pattern = "%" + text.toLowerCase() + "%";
+            return criteriaBuilder.or(
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("content")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("sender")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("note")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("regNumber")), pattern));
+        });
+    }
+
     public static Specification<DocIn> stateId(Integer id) {
         return ((root, criteriaQuery, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("state").get("id"), id));
     }
 
-    public static Specification<DocIn> stateIdNotEqual(BusinessKeyState bks) {
+    public static Specification<DocIn> stateIdNotEqual(State state) {
+        return ((root, criteriaQuery, criteriaBuilder) ->
+                criteriaBuilder.notEqual(root.get("state").get("id"), state.getId()));
+    }
+
+    public static Specification<DocIn> idIn(List<Long> ids) {
         return ((root, criteriaQuery, criteriaBuilder) ->
-                criteriaBuilder.notEqual(root.get("state").get("businessKey"), bks.toString()));
+                ids.isEmpty() ? criteriaBuilder.disjunction() : root.get("id").in(ids));
     }
 }
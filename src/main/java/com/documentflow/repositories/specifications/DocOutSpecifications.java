@@ -2,9 +2,14 @@ package com.documentflow.repositories.specifications;
 
 
 import com.documentflow.entities.DocOut;
+import com.documentflow.utils.RegNumber;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
+
+import javax.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class DocOutSpecifications {
@@ -56,6 +61,22 @@ public class DocOutSpecifications {
                         criteriaBuilder.lower(criteriaBuilder.literal("%" + number + "%"))));
     }
 
+    public static Specification<DocOut> numberMatches(RegNumber number) {
+        return ((root, criteriaQuery, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (number.getPrefix() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("numberPrefix"), number.getPrefix()));
+            }
+            if (number.getSequenceFrom() != null) {
+                predicates.add(criteriaBuilder.between(root.get("numberSequence"), number.getSequenceFrom(), number.getSequenceTo()));
+            }
+            if (number.getYear() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("numberYear"), number.getYear()));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        });
+    }
+
     public static Specification<DocOut> stateId(Integer id) {
         return ((root, criteriaQuery, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("state").get("id"), id));
@@ -84,5 +105,20 @@ public class DocOutSpecifications {
                         criteriaBuilder.lower(root.get("note")),
                         criteriaBuilder.lower(criteriaBuilder.literal("%" + note + "%"))));
     }
-}
 
+    //подстрока в любом текстовом поле, когда полнотекстовый индекс не дает ответа
+    public static Specification<DocOut> textContains(String text) {
+        return ((root, criteriaQuery, criteriaBuilder) -> {
+            String pattern = "%" + text.toLowerCase() + "%";
+            return criteriaBuilder.or(
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("content")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("note")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("number")), pattern));
+        });
+    }
+
+    public static Specification<DocOut> idIn(List<Long> ids) {
+        return ((root, criteriaQuery, criteriaBuilder) ->
+                ids.isEmpty() ? criteriaBuilder.disjunction() : root.get("id").in(ids));
+    }
+}
@@ -1,10 +1,27 @@
 package com.documentflow.repositories.specifications;
 
+import com.documentflow.entities.Contragent;
 import com.documentflow.entities.Organization;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
 public class OrganizationSpecifications {
     public static Specification<Organization> nameCompanyLike(String nameCompany) {
         return (Specification<Organization>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.like(root.get("name"), "%" + nameCompany + "%");
     }
+
+    /**
+     * The organization has a contragent that is not deleted. Checked by a correlated EXISTS in the same query
+     */
+    public static Specification<Organization> hasNotDeletedContragent() {
+        return (Specification<Organization>) (root, criteriaQuery, criteriaBuilder) -> {
+            Subquery<Long> subquery = criteriaQuery.subquery(Long.class);
+            Root<Contragent> contragent = subquery.from(Contragent.class);
+            subquery.select(contragent.get("id")).where(
+                    criteriaBuilder.equal(contragent.get("organization"), root));
+            return criteriaBuilder.exists(subquery);
+        };
+    }
 }
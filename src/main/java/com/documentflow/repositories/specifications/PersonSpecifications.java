@@ -1,8 +1,12 @@
 package com.documentflow.repositories.specifications;
 
+import com.documentflow.entities.Contragent;
 import com.documentflow.entities.Person;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
 public class PersonSpecifications {
     public static Specification<Person> firstNameEq(String firstName){
         return (Specification<Person>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.equal(root.get("firstName"), firstName);
@@ -19,4 +23,22 @@ public class PersonSpecifications {
     public static Specification<Person> lastNameEq(String lastName){
         return (Specification<Person>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.equal(root.get("lastName"), lastName);
     }
+    public static Specification<Person> idGreaterThan(Long id){
+        return (Specification<Person>) (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * The person has a contragent of its own (not as an employee) that is not deleted. Checked by a correlated
+     * EXISTS in the same query
+     */
+    public static Specification<Person> hasNotDeletedOwnContragent(){
+        return (Specification<Person>) (root, criteriaQuery, criteriaBuilder) -> {
+            Subquery<Long> subquery = criteriaQuery.subquery(Long.class);
+            Root<Contragent> contragent = subquery.from(Contragent.class);
+            subquery.select(contragent.get("id")).where(
+                    criteriaBuilder.equal(contragent.get("person"), root),
+                    criteriaBuilder.isNull(contragent.get("organization")));
+            return criteriaBuilder.exists(subquery);
+        };
+    }
 }
\ No newline at end of file
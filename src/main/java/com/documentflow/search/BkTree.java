@@ -0,0 +1,149 @@
+package com.documentflow.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Burkhard-Keller tree of distinct terms under the Levenshtein distance. A query for terms within
+ * distance k of a word only descends into children whose edge distance lies in [d - k, d + k], so it
+ * visits a small part of the tree for small k. Terms can not be removed; callers keep terms that
+ * are no longer used and skip them. The tree is not thread safe.
+ */
+public class BkTree {
+
+    private Node root;
+    private int size;
+
+    /**
+     * Add the term if it is not in the tree yet
+     */
+    public void add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term, Integer.MAX_VALUE);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(term));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find terms within the edit distance of the word
+     *
+     * @param word        word to look for
+     * @param maxDistance maximum Levenshtein distance
+     * @param limit       maximum number of terms
+     * @return matched terms ordered by distance
+     */
+    public List<Match> search(String word, int maxDistance, int limit) {
+        List<Match> result = new ArrayList<>();
+        if (root == null || limit <= 0) {
+            return result;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            //дальше этой границы точное расстояние не нужно: ни узел, ни его потомки не подойдут
+            int distance = distance(word, node.term, maxDistance + node.maxEdge);
+            if (distance <= maxDistance) {
+                result.add(new Match(node.term, distance));
+            }
+            for (int i = 0; i < node.size; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    stack.push(node.children[i]);
+                }
+            }
+        }
+        result.sort(Comparator.comparingInt(Match::getDistance));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Levenshtein distance between two strings. Stops early and returns a value greater than the bound
+     * once every cell of a row exceeds it
+     */
+    static int distance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final String term;
+        private final int distance;
+    }
+
+    private static class Node {
+        private final String term;
+        private int[] distances = new int[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private int maxEdge;
+
+        Node(String term) {
+            this.term = term;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < size; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            if (size == distances.length) {
+                distances = Arrays.copyOf(distances, Math.max(2, size * 2));
+                children = Arrays.copyOf(children, Math.max(2, size * 2));
+            }
+            distances[size] = distance;
+            children[size] = child;
+            size++;
+            maxEdge = Math.max(maxEdge, distance);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.documentflow.search;
+
+import com.documentflow.entities.Contragent;
+import com.documentflow.entities.dto.ContragentDtoNames;
+import com.documentflow.repositories.ContragentRepository;
+import com.documentflow.utils.ContragentUtils;
+import com.documentflow.utils.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Typo and transliteration tolerant index over the words that make up {@link Contragent#getSearchName()}:
+ * person names and organization names. Words are reduced by {@link TransliterationNormalizer} and kept
+ * in a {@link BkTree}; every word has the list of contragents that contain it.
+ * <p>
+ * A query matches a contragent when each of its words is within the allowed edit distance of one of the
+ * contragent words. The allowed distance grows with the word length up to the configured maximum,
+ * and both the number of matched words and the number of results are capped. A reload builds a new index
+ * and replaces the current one at once.
+ */
+@Component
+public class ContragentFuzzyIndex {
+
+    //на каждое слово запроса берем не больше стольких похожих слов индекса
+    private static final int MAX_TERMS_PER_WORD = 64;
+
+    @Autowired
+    private ContragentRepository contragentRepository;
+
+    @Value("${documentflow.contragent.fuzzy.max-distance:2}")
+    private int maxDistance;
+
+    private final ReloadableIndex<Terms> index = new ReloadableIndex<>(new Terms());
+
+    @PostConstruct
+    public void load() {
+        index.load(() -> {
+            Terms loaded = new Terms();
+            contragentRepository.findAllNames().forEach(loaded::put);
+            return loaded;
+        });
+    }
+
+    /**
+     * Find contragents whose names are similar to the query
+     *
+     * @param query words of a name, in Cyrillic or Latin, possibly misspelled
+     * @param limit maximum number of ids
+     * @return contragent ids, closest matches first
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> words = Arrays.stream(query == null ? new String[0] : query.split("\\s+"))
+                .map(TransliterationNormalizer::normalize)
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        if (words.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return index.read(terms -> terms.search(words, limit));
+    }
+
+    /**
+     * Put the names of the contragent into the index or remove it if it is marked as deleted.
+     * Applied after the current transaction commits
+     *
+     * @param contragent saved contragent
+     */
+    public void index(Contragent contragent) {
+        if (Boolean.TRUE.equals(contragent.getIsDeleted())) {
+            Long id = contragent.getId();
+            TransactionUtils.afterCommit(() -> index.apply(terms -> terms.remove(id)));
+        } else {
+            index(ContragentUtils.createNames(contragent));
+        }
+    }
+
+    /**
+     * Put the names of the contragent that is not deleted into the index. Applied after the current transaction commits
+     *
+     * @param names names of the contragent
+     */
+    public void index(ContragentDtoNames names) {
+        TransactionUtils.afterCommit(() -> index.apply(terms -> terms.put(names)));
+    }
+
+    public void index(List<Contragent> contragents) {
+        contragents.forEach(this::index);
+    }
+
+    int allowedDistance(String word) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return Math.min(maxDistance, word.length() <= 6 ? 1 : 2);
+    }
+
+    private class Terms {
+        private final BkTree terms = new BkTree();
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final Map<Long, String[]> termsByContragent = new HashMap<>();
+
+        private List<Long> search(List<String> words, int limit) {
+            //для каждого слова запроса: похожие слова индекса по возрастанию расстояния
+            List<List<BkTree.Match>> matches = new ArrayList<>();
+            for (String word : words) {
+                List<BkTree.Match> wordMatches = terms.search(word, allowedDistance(word), MAX_TERMS_PER_WORD).stream()
+                        .filter(match -> postings.containsKey(match.getTerm()))
+                        .collect(Collectors.toList());
+                if (wordMatches.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                matches.add(wordMatches);
+            }
+            //кандидатов перебираем по самому избирательному слову, остальные слова проверяем поиском в списках
+            matches.sort(Comparator.comparingLong(this::postingsSize));
+
+            Map<Long, Integer> distances = new LinkedHashMap<>();
+            for (BkTree.Match driver : matches.get(0)) {
+                PostingList list = postings.get(driver.getTerm());
+                for (int i = 0; i < list.size() && distances.size() < limit; i++) {
+                    long id = list.get(i);
+                    if (distances.containsKey(id)) {
+                        continue;
+                    }
+                    int total = driver.getDistance();
+                    for (int j = 1; j < matches.size() && total >= 0; j++) {
+                        int distance = distanceOf(matches.get(j), id);
+                        total = distance < 0 ? -1 : total + distance;
+                    }
+                    if (total >= 0) {
+                        distances.put(id, total);
+                    }
+                }
+                if (distances.size() == limit) {
+                    break;
+                }
+            }
+            return distances.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+
+        private long postingsSize(List<BkTree.Match> wordMatches) {
+            return wordMatches.stream().mapToLong(match -> postings.get(match.getTerm()).size()).sum();
+        }
+
+        //наименьшее расстояние до слова, которое есть у контрагента, или -1
+        private int distanceOf(List<BkTree.Match> wordMatches, long id) {
+            for (BkTree.Match match : wordMatches) {
+                if (postings.get(match.getTerm()).contains(id)) {
+                    return match.getDistance();
+                }
+            }
+            return -1;
+        }
+
+        private void put(ContragentDtoNames names) {
+            remove(names.getId());
+            String[] words = Arrays.stream(new String[]{names.getLastName(), names.getFirstName(), names.getMiddleName(), names.getOrganizationName()})
+                    .filter(Objects::nonNull)
+                    .flatMap(value -> Arrays.stream(value.split("\\s+")))
+                    .map(TransliterationNormalizer::normalize)
+                    .filter(word -> !word.isEmpty())
+                    .distinct()
+                    .toArray(String[]::new);
+            for (String word : words) {
+                terms.add(word);
+                postings.computeIfAbsent(word, key -> new PostingList()).add(names.getId());
+            }
+            termsByContragent.put(names.getId(), words);
+        }
+
+        private void remove(Long id) {
+            String[] words = termsByContragent.remove(id);
+            if (words == null) {
+                return;
+            }
+            for (String word : words) {
+                PostingList list = postings.get(word);
+                if (list != null && list.remove(id) && list.size() == 0) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.documentflow.search;
+
+import com.documentflow.entities.Contragent;
+import com.documentflow.entities.dto.ContragentDtoNames;
+import com.documentflow.repositories.ContragentRepository;
+import com.documentflow.utils.ContragentUtils;
+import com.documentflow.utils.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Trigram index over {@link Contragent#getSearchName()} of the records that are not deleted.
+ * Loaded at startup and updated after commit of every change made through the contragent service;
+ * a reload builds a new index and replaces the current one at once.
+ */
+@Component
+public class ContragentSearchIndex {
+
+    @Autowired
+    private ContragentRepository contragentRepository;
+
+    private final ReloadableIndex<TrigramIndex> index = new ReloadableIndex<>(new TrigramIndex());
+
+    @PostConstruct
+    public void load() {
+        index.load(() -> {
+            TrigramIndex loaded = new TrigramIndex();
+            contragentRepository.findAllSearchNames()
+                    .forEach(item -> loaded.put(item.getId(), item.getSearchName()));
+            return loaded;
+        });
+    }
+
+    /**
+     * Search for contragents whose search name contains the string
+     *
+     * @param searchName search string, normalized the same way as the search name
+     * @param limit      maximum number of ids
+     * @return contragent ids in ascending order
+     */
+    public List<Long> search(String searchName, int limit) {
+        return search(searchName, null, limit);
+    }
+
+    /**
+     * Search for contragents whose search name contains the string, continuing after the given id
+     *
+     * @param searchName search string, normalized the same way as the search name
+     * @param afterId    keyset cursor, null for the first page
+     * @param limit      maximum number of ids
+     * @return contragent ids in ascending order
+     */
+    public List<Long> search(String searchName, Long afterId, int limit) {
+        String query = ContragentUtils.createSearchName(searchName);
+        return index.read(trigrams -> trigrams.search(query, afterId == null ? Long.MIN_VALUE : afterId, limit));
+    }
+
+    /**
+     * Put the contragent into the index or remove it if it is marked as deleted.
+     * Applied after the current transaction commits
+     *
+     * @param contragent saved contragent
+     */
+    public void index(Contragent contragent) {
+        if (Boolean.TRUE.equals(contragent.getIsDeleted())) {
+            Long id = contragent.getId();
+            TransactionUtils.afterCommit(() -> index.apply(trigrams -> trigrams.remove(id)));
+        } else {
+            index(ContragentUtils.createNames(contragent));
+        }
+    }
+
+    /**
+     * Put the contragent that is not deleted into the index. Applied after the current transaction commits
+     *
+     * @param names search name and names of the contragent
+     */
+    public void index(ContragentDtoNames names) {
+        TransactionUtils.afterCommit(() -> index.apply(trigrams -> {
+            if (names.getSearchName() == null) {
+                trigrams.remove(names.getId());
+            } else {
+                trigrams.put(names.getId(), names.getSearchName());
+            }
+        }));
+    }
+
+    public void index(List<Contragent> contragents) {
+        contragents.forEach(this::index);
+    }
+
+    public int size() {
+        return index.read(TrigramIndex::size);
+    }
+}
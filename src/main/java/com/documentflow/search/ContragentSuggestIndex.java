@@ -0,0 +1,149 @@
+package com.documentflow.search;
+
+import com.documentflow.entities.Contragent;
+import com.documentflow.entities.dto.ContragentDtoNames;
+import com.documentflow.entities.dto.ContragentDtoSuggestion;
+import com.documentflow.model.enums.ContragentType;
+import com.documentflow.repositories.ContragentRepository;
+import com.documentflow.utils.ContragentUtils;
+import com.documentflow.utils.TransactionUtils;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Autocomplete index over person full names and organization names. The weight of a name is the number
+ * of contragents that are not deleted and refer to it, so frequently used names come first.
+ * Loaded at startup and updated after commit of every change made through the contragent service;
+ * a reload builds new tries and replaces the current ones at once.
+ */
+@Component
+public class ContragentSuggestIndex {
+
+    @Autowired
+    private ContragentRepository contragentRepository;
+
+    @Value("${documentflow.contragent.autocomplete.budget-ms:5}")
+    private long budgetMillis;
+
+    private final ReloadableIndex<Tries> index = new ReloadableIndex<>(new Tries());
+
+    @PostConstruct
+    public void load() {
+        index.load(() -> {
+            Tries loaded = new Tries();
+            contragentRepository.findAllNames().forEach(loaded::apply);
+            return loaded;
+        });
+    }
+
+    /**
+     * Find the most used names starting with the prefix
+     *
+     * @param prefix beginning of a full name or an organization name
+     * @param type   kind of names to complete: persons, organizations or both
+     * @param limit  maximum number of suggestions
+     * @return suggestions ordered by weight descending
+     */
+    public List<ContragentDtoSuggestion> complete(String prefix, ContragentType type, int limit) {
+        String key = ContragentUtils.createSuggestKey(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        List<PrefixTrie.Completion<ContragentDtoSuggestion>> completions = index.read(tries -> {
+            List<PrefixTrie.Completion<ContragentDtoSuggestion>> found = new ArrayList<>();
+            if (type != ContragentType.COMPANY) {
+                found.addAll(tries.persons.complete(key, limit, deadline));
+            }
+            if (type != ContragentType.PERSON) {
+                found.addAll(tries.organizations.complete(key, limit, deadline));
+            }
+            return found;
+        });
+        return completions.stream()
+                .sorted(Comparator.comparingLong(PrefixTrie.Completion<ContragentDtoSuggestion>::getWeight).reversed())
+                .limit(limit)
+                .map(completion -> completion.getValue().withWeight(completion.getWeight()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Count the names of the contragent or stop counting them if it is marked as deleted.
+     * Applied after the current transaction commits
+     *
+     * @param contragent saved contragent
+     */
+    public void index(Contragent contragent) {
+        if (Boolean.TRUE.equals(contragent.getIsDeleted())) {
+            Long id = contragent.getId();
+            TransactionUtils.afterCommit(() -> index.apply(tries -> tries.remove(id)));
+        } else {
+            index(ContragentUtils.createNames(contragent));
+        }
+    }
+
+    /**
+     * Count the names of the contragent that is not deleted. Applied after the current transaction commits
+     *
+     * @param names names of the contragent
+     */
+    public void index(ContragentDtoNames names) {
+        TransactionUtils.afterCommit(() -> index.apply(tries -> tries.apply(names)));
+    }
+
+    public void index(List<Contragent> contragents) {
+        contragents.forEach(this::index);
+    }
+
+    private static class Tries {
+        private final PrefixTrie<ContragentDtoSuggestion> persons = new PrefixTrie<>();
+        private final PrefixTrie<ContragentDtoSuggestion> organizations = new PrefixTrie<>();
+        //какие ключи учтены для каждого контрагента, чтобы повторная индексация не увеличивала веса
+        private final Map<Long, Keys> keysByContragent = new HashMap<>();
+
+        private void apply(ContragentDtoNames names) {
+            remove(names.getId());
+
+            Keys keys = new Keys(null, null);
+            if (names.getPersonId() != null) {
+                String name = ContragentUtils.createFullName(names.getLastName(), names.getFirstName(), names.getMiddleName());
+                keys.person = ContragentUtils.createSuggestKey(name);
+                persons.adjust(keys.person, new ContragentDtoSuggestion(names.getPersonId(), ContragentType.PERSON, name,
+                        names.getFirstName(), names.getMiddleName(), names.getLastName(), 0), 1);
+            }
+            if (names.getOrganizationId() != null) {
+                String name = ContragentUtils.createFullName(names.getOrganizationName());
+                keys.organization = ContragentUtils.createSuggestKey(name);
+                organizations.adjust(keys.organization, new ContragentDtoSuggestion(names.getOrganizationId(), ContragentType.COMPANY, name,
+                        null, null, null, 0), 1);
+            }
+            keysByContragent.put(names.getId(), keys);
+        }
+
+        private void remove(Long id) {
+            Keys keys = keysByContragent.remove(id);
+            if (keys == null) {
+                return;
+            }
+            if (keys.person != null) {
+                persons.adjust(keys.person, null, -1);
+            }
+            if (keys.organization != null) {
+                organizations.adjust(keys.organization, null, -1);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Keys {
+        private String person;
+        private String organization;
+    }
+}
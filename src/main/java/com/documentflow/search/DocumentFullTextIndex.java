@@ -0,0 +1,485 @@
+package com.documentflow.search;
+
+import com.documentflow.entities.DTO.FullTextHitDTO;
+import com.documentflow.entities.DTO.FullTextPageDTO;
+import com.documentflow.entities.DocIn;
+import com.documentflow.entities.DocOut;
+import com.documentflow.model.enums.DocumentKind;
+import com.documentflow.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.ru.RussianAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded Lucene index over the text of incoming and outgoing documents: content, sender, note and number,
+ * analyzed with the Russian stemmer. Saved documents are indexed after commit and become searchable through
+ * a near-real-time reader; the index is committed to disk periodically, so a crash loses only the changes
+ * of the last interval. A full reindex reads doc_in and doc_out by id ranges in parallel and keeps the index
+ * searchable meanwhile.
+ * <p>
+ * A clean shutdown marks the last commit; an index that is empty or was not closed cleanly is rebuilt at startup,
+ * and until then it does not answer the registry filters, which search the database instead.
+ * <p>
+ * Every indexed document carries the time it was indexed, so after a reindex everything indexed
+ * before it started and not indexed again belongs to removed rows and is deleted. Documents saved or removed
+ * while a reindex runs are not overwritten by the rows it read earlier.
+ */
+@Slf4j
+@Component
+public class DocumentFullTextIndex {
+
+    public static final String CONTENT = "content";
+    public static final String SENDER = "sender";
+    public static final String NOTE = "note";
+    public static final String NUMBER = "number";
+
+    private static final String KEY = "key";
+    private static final String KIND = "kind";
+    private static final String ID = "id";
+    private static final String GENERATION = "generation";
+    //ключ данных коммита: индекс закрыт без потери изменений
+    private static final String CLEAN_SHUTDOWN = "cleanShutdown";
+    private static final String[] TEXT_FIELDS = {CONTENT, SENDER, NOTE, NUMBER};
+    //совпадение в отправителе и номере важнее, чем в тексте
+    private static final Map<String, Float> BOOSTS = new HashMap<>();
+
+    static {
+        BOOSTS.put(NUMBER, 3f);
+        BOOSTS.put(SENDER, 2f);
+        BOOSTS.put(CONTENT, 1f);
+        BOOSTS.put(NOTE, 0.5f);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //пусто - индекс в памяти
+    @Value("${documentflow.fulltext.directory:}")
+    private String directoryPath;
+
+    @Value("${documentflow.fulltext.reindex-threads:4}")
+    private int reindexThreads;
+
+    @Value("${documentflow.fulltext.reindex-chunk:1000}")
+    private int reindexChunk;
+
+    //сколько совпадений фильтр реестра передает в запрос к базе; при большем числе фильтр ищет подстроку в базе
+    @Value("${documentflow.fulltext.filter-limit:1000}")
+    private int filterLimit;
+
+    //как часто изменения индекса сбрасываются на диск, 0 - только при остановке и после переиндексации
+    @Value("${documentflow.fulltext.commit-interval-seconds:30}")
+    private int commitIntervalSeconds;
+
+    @Value("${documentflow.fulltext.reindex-on-startup:true}")
+    private boolean reindexOnStartup;
+
+    private final Analyzer analyzer = new RussianAnalyzer();
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    //индекс полон: построен переиндексацией или закрыт без потери изменений
+    private volatile boolean ready;
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+    private ScheduledExecutorService committer;
+    //документы, измененные после начала переиндексации, пока она идет
+    private volatile ConcurrentMap<Term, Boolean> changedDuringReindex;
+    //начало переиндексации ждет изменений, которые ее не заметили
+    private final ReadWriteLock reindexStart = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = StringUtils.isBlank(directoryPath) ? new ByteBuffersDirectory() : FSDirectory.open(Paths.get(directoryPath));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        boolean closedCleanly = false;
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                closedCleanly |= CLEAN_SHUTDOWN.equals(entry.getKey()) && Boolean.parseBoolean(entry.getValue());
+            }
+        }
+        //пока индекс открыт, на диске нет метки чистой остановки
+        writer.setLiveCommitData(Collections.<String, String>emptyMap().entrySet());
+        writer.commit();
+        ready = closedCleanly && writer.getDocStats().numDocs > 0;
+        searcherManager = new SearcherManager(writer, null);
+        if (commitIntervalSeconds > 0) {
+            committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fulltext-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            committer.scheduleWithFixedDelay(this::commit, commitIntervalSeconds, commitIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (committer != null) {
+            committer.shutdown();
+        }
+        searcherManager.close();
+        if (ready) {
+            writer.setLiveCommitData(Collections.singletonMap(CLEAN_SHUTDOWN, Boolean.TRUE.toString()).entrySet());
+        }
+        //закрытие сохраняет несброшенные изменения
+        writer.close();
+        directory.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reindexIfNeeded() {
+        if (ready) {
+            return;
+        }
+        if (!reindexOnStartup) {
+            log.warn("Full-text index is empty or was not closed cleanly, registry filters search the database until it is rebuilt");
+            return;
+        }
+        startReindex();
+    }
+
+    /**
+     * Start {@link #reindex()} in a background thread
+     *
+     * @return false if a background reindex is already running
+     */
+    public boolean startReindex() {
+        if (!reindexing.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                reindex();
+            } catch (RuntimeException e) {
+                log.error("Full-text reindex failed", e);
+            } finally {
+                reindexing.set(false);
+            }
+        }, "fulltext-reindex");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Index the incoming document after the current transaction commits
+     *
+     * @param docIn saved document
+     */
+    public void index(DocIn docIn) {
+        Long id = docIn.getId();
+        String content = docIn.getContent();
+        String sender = docIn.getSender();
+        String note = docIn.getNote();
+        String number = docIn.getRegNumber();
+        TransactionUtils.afterCommit(() -> change(DocumentKind.DOC_IN, id, writer -> writer.updateDocument(key(DocumentKind.DOC_IN, id),
+                createDocument(DocumentKind.DOC_IN, id, content, sender, note, number, System.currentTimeMillis()))));
+    }
+
+    /**
+     * Index the outgoing document after the current transaction commits
+     *
+     * @param docOut saved document
+     */
+    public void index(DocOut docOut) {
+        Long id = docOut.getId();
+        String content = docOut.getContent();
+        String note = docOut.getNote();
+        String number = docOut.getNumber();
+        TransactionUtils.afterCommit(() -> change(DocumentKind.DOC_OUT, id, writer -> writer.updateDocument(key(DocumentKind.DOC_OUT, id),
+                createDocument(DocumentKind.DOC_OUT, id, content, null, note, number, System.currentTimeMillis()))));
+    }
+
+    /**
+     * Remove the document from the index after the current transaction commits
+     *
+     * @param kind kind of the document
+     * @param id   document id
+     */
+    public void remove(DocumentKind kind, Long id) {
+        TransactionUtils.afterCommit(() -> change(kind, id, writer -> writer.deleteDocuments(key(kind, id))));
+    }
+
+    /**
+     * Ranked search over all text fields
+     *
+     * @param kind  kind of documents, null for both
+     * @param query words in any form, Russian words are matched by stem
+     * @param page  zero-based page number
+     * @param size  page size
+     * @return hits of the page, best first; the total is exact up to 1000 hits
+     */
+    public FullTextPageDTO search(DocumentKind kind, String query, int page, int size) {
+        Query luceneQuery = parse(kind, query, TEXT_FIELDS);
+        if (luceneQuery == null || page < 0 || size <= 0) {
+            return new FullTextPageDTO(Collections.emptyList(), 0, page, size);
+        }
+        IndexSearcher searcher = acquire();
+        try {
+            TopDocs topDocs = searcher.search(luceneQuery, (page + 1) * size);
+            List<FullTextHitDTO> hits = new ArrayList<>();
+            for (int i = page * size; i < topDocs.scoreDocs.length; i++) {
+                Document document = searcher.doc(topDocs.scoreDocs[i].doc);
+                hits.add(new FullTextHitDTO(DocumentKind.valueOf(document.get(KIND)),
+                        document.getField(ID).numericValue().longValue(), topDocs.scoreDocs[i].score));
+            }
+            return new FullTextPageDTO(hits, topDocs.totalHits.value, page, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Ids of all matching documents for the registry filters. The index does not answer until it is rebuilt
+     * at startup, when more documents than the configured filter limit match or when the query has no words
+     * to search, then the filter has to search the database
+     *
+     * @param kind  kind of documents
+     * @param field field to search, one of the field constants, or null for all text fields
+     * @param query words in any form
+     * @return ids, best first, or empty if the index does not answer
+     */
+    public Optional<List<Long>> findIds(DocumentKind kind, String field, String query) {
+        Query luceneQuery = parse(kind, query, field != null ? new String[]{field} : TEXT_FIELDS);
+        if (!ready || luceneQuery == null) {
+            return Optional.empty();
+        }
+        IndexSearcher searcher = acquire();
+        try {
+            ScoreDoc[] scoreDocs = searcher.search(luceneQuery, filterLimit + 1).scoreDocs;
+            if (scoreDocs.length > filterLimit) {
+                return Optional.empty();
+            }
+            List<Long> ids = new ArrayList<>();
+            for (ScoreDoc scoreDoc : scoreDocs) {
+                ids.add(searcher.doc(scoreDoc.doc, Collections.singleton(ID)).getField(ID).numericValue().longValue());
+            }
+            return Optional.of(ids);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Rebuild the index from the database. Chunks of ids are read and indexed by several threads
+     *
+     * @return number of indexed documents
+     */
+    public synchronized long reindex() {
+        long started;
+        reindexStart.writeLock().lock();
+        try {
+            started = System.currentTimeMillis();
+            changedDuringReindex = new ConcurrentHashMap<>();
+        } finally {
+            reindexStart.writeLock().unlock();
+        }
+        AtomicLong indexed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, reindexThreads));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            submit(executor, futures, indexed, started, DocumentKind.DOC_IN,
+                    "SELECT id, content, sender, note, reg_number FROM doc_in WHERE id BETWEEN ? AND ?", "doc_in");
+            submit(executor, futures, indexed, started, DocumentKind.DOC_OUT,
+                    "SELECT id, content, NULL AS sender, note, number AS reg_number FROM doc_out WHERE id BETWEEN ? AND ?", "doc_out");
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            //строки, которых больше нет в таблицах
+            apply(writer -> writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, started - 1)));
+            commit();
+            ready = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Full-text reindex interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Full-text reindex failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            changedDuringReindex = null;
+        }
+        log.info("Full-text index rebuilt: {} documents in {} ms", indexed.get(), System.currentTimeMillis() - started);
+        return indexed.get();
+    }
+
+    private void submit(ExecutorService executor, List<Future<?>> futures, AtomicLong indexed, long generation,
+                        DocumentKind kind, String sql, String table) {
+        ConcurrentMap<Term, Boolean> changed = changedDuringReindex;
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM " + table);
+        if (range.get("min_id") == null) {
+            return;
+        }
+        long min = ((Number) range.get("min_id")).longValue();
+        long max = ((Number) range.get("max_id")).longValue();
+        for (long from = min; from <= max; from += reindexChunk) {
+            long to = Math.min(max, from + reindexChunk - 1);
+            long chunkFrom = from;
+            futures.add(executor.submit(() -> jdbcTemplate.query(sql, (RowCallbackHandler) resultSet -> {
+                long id = resultSet.getLong("id");
+                Document document = createDocument(kind, id, resultSet.getString("content"), resultSet.getString("sender"),
+                        resultSet.getString("note"), resultSet.getString("reg_number"), generation);
+                //строка могла быть прочитана до сохранения или удаления документа, которое уже попало в индекс
+                changed.compute(key(kind, id), (key, saved) -> {
+                    if (saved == null) {
+                        try {
+                            writer.updateDocument(key, document);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    return saved;
+                });
+                indexed.incrementAndGet();
+            }, chunkFrom, to)));
+        }
+    }
+
+    private Query parse(DocumentKind kind, String query, String[] fields) {
+        if (StringUtils.isBlank(query)) {
+            return null;
+        }
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, analyzer, BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        Query parsed;
+        try {
+            //запрос пользователя - просто слова, без синтаксиса Lucene
+            parsed = parser.parse(QueryParser.escape(query.trim()));
+        } catch (ParseException e) {
+            return null;
+        }
+        if (parsed instanceof BooleanQuery && ((BooleanQuery) parsed).clauses().isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(parsed, BooleanClause.Occur.MUST);
+        if (kind != null) {
+            builder.add(new TermQuery(new Term(KIND, kind.name())), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    private Document createDocument(DocumentKind kind, Long id, String content, String sender, String note,
+                                    String number, long generation) {
+        Document document = new Document();
+        document.add(new StringField(KEY, kind.name() + ":" + id, Field.Store.NO));
+        document.add(new StringField(KIND, kind.name(), Field.Store.YES));
+        document.add(new StoredField(ID, id));
+        document.add(new LongPoint(GENERATION, generation));
+        addText(document, CONTENT, content);
+        addText(document, SENDER, sender);
+        addText(document, NOTE, note);
+        addText(document, NUMBER, number);
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (StringUtils.isNotBlank(value)) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private Term key(DocumentKind kind, Long id) {
+        return new Term(KEY, kind.name() + ":" + id);
+    }
+
+    private void change(DocumentKind kind, Long id, IndexChange change) {
+        reindexStart.readLock().lock();
+        try {
+            ConcurrentMap<Term, Boolean> changed = changedDuringReindex;
+            if (changed == null) {
+                apply(change);
+                return;
+            }
+            //под блокировкой ключа, чтобы переиндексация не записала поверх прочитанную раньше строку
+            changed.compute(key(kind, id), (key, saved) -> {
+                apply(change);
+                return Boolean.TRUE;
+            });
+        } finally {
+            reindexStart.readLock().unlock();
+        }
+    }
+
+    private void apply(IndexChange change) {
+        try {
+            change.apply(writer);
+            //изменение видно поиску сразу, на диск оно попадет со следующим сбросом
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.error("Full-text index update failed", e);
+        }
+    }
+
+    private void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Full-text index commit failed", e);
+        }
+    }
+
+    private IndexSearcher acquire() {
+        try {
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Full-text searcher release failed", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexChange {
+        void apply(IndexWriter writer) throws IOException;
+    }
+}
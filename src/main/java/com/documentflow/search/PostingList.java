@@ -0,0 +1,52 @@
+package com.documentflow.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted growable array of ids. Ids mostly arrive in ascending order, so adding is usually an append.
+ */
+class PostingList {
+    private long[] ids = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int i) {
+        return ids[i];
+    }
+
+    int indexAfter(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    void add(long id) {
+        int position = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+
+    boolean remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+}
@@ -0,0 +1,200 @@
+package com.documentflow.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix tree that returns the top-K completions of a prefix ranked by weight.
+ * <p>
+ * Children are kept in sorted arrays instead of maps, and every node stores the maximum weight of its subtree,
+ * so completions are found best-first: the search stops as soon as K keys are found and never walks
+ * the whole subtree of a short prefix. The search also stops when the deadline passes and then returns
+ * what it has found so far. The trie is thread safe.
+ *
+ * @param <V> value stored with the key
+ */
+public class PrefixTrie<V> {
+
+    private static final int DEADLINE_CHECK_INTERVAL = 32;
+
+    private final Node<V> root = new Node<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * Change the weight of the key by delta, creating the key if needed. Keys with weight
+     * not greater than zero are not returned as completions
+     *
+     * @param key   key
+     * @param value value to store if the key is new or was not present
+     * @param delta weight change
+     */
+    public void adjust(String key, V value, long delta) {
+        lock.writeLock().lock();
+        try {
+            Deque<Node<V>> path = new ArrayDeque<>();
+            Node<V> node = root;
+            path.push(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                path.push(node);
+            }
+            boolean wasPresent = node.weight > 0;
+            if (!wasPresent && value != null) {
+                node.key = key;
+                node.value = value;
+            }
+            node.weight += delta;
+            if (node.weight > 0 && !wasPresent) {
+                size++;
+            } else if (node.weight <= 0 && wasPresent) {
+                size--;
+            }
+            while (!path.isEmpty()) {
+                path.pop().updateMaxWeight();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.labels = new char[0];
+            root.children = new Node[0];
+            root.maxWeight = 0;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of keys with positive weight
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the heaviest keys starting with the prefix
+     *
+     * @param prefix        prefix
+     * @param limit         maximum number of completions
+     * @param deadlineNanos value of {@link System#nanoTime()} after which the search stops
+     * @return completions ordered by weight descending
+     */
+    public List<Completion<V>> complete(String prefix, int limit, long deadlineNanos) {
+        lock.readLock().lock();
+        try {
+            Node<V> node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            if (node == null || node.maxWeight <= 0 || limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            List<Completion<V>> result = new ArrayList<>(limit);
+            //в очереди лежат узлы (с весом лучшего ключа поддерева) и найденные ключи (со своим весом)
+            PriorityQueue<Candidate<V>> queue = new PriorityQueue<>();
+            queue.add(new Candidate<>(node, node.maxWeight, false));
+            int steps = 0;
+            while (!queue.isEmpty() && result.size() < limit) {
+                if (++steps % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos) {
+                    break;
+                }
+                Candidate<V> candidate = queue.poll();
+                Node<V> current = candidate.node;
+                if (candidate.terminal) {
+                    result.add(new Completion<>(current.key, current.value, current.weight));
+                    continue;
+                }
+                if (current.weight > 0) {
+                    queue.add(new Candidate<>(current, current.weight, true));
+                }
+                for (Node<V> child : current.children) {
+                    if (child.maxWeight > 0) {
+                        queue.add(new Candidate<>(child, child.maxWeight, false));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Completion<V> {
+        private final String key;
+        private final V value;
+        private final long weight;
+    }
+
+    @AllArgsConstructor
+    private static class Candidate<V> implements Comparable<Candidate<V>> {
+        private final Node<V> node;
+        private final long priority;
+        private final boolean terminal;
+
+        @Override
+        public int compareTo(Candidate<V> other) {
+            return Long.compare(other.priority, priority);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static class Node<V> {
+        private char[] labels = new char[0];
+        private Node<V>[] children = new Node[0];
+        private String key;
+        private V value;
+        private long weight;
+        private long maxWeight;
+
+        Node<V> child(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            return position >= 0 ? children[position] : null;
+        }
+
+        Node<V> childOrCreate(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            if (position >= 0) {
+                return children[position];
+            }
+            position = -position - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node<V>[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(labels, position, newLabels, position + 1, labels.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            Node<V> node = new Node<>();
+            newLabels[position] = label;
+            newChildren[position] = node;
+            labels = newLabels;
+            children = newChildren;
+            return node;
+        }
+
+        void updateMaxWeight() {
+            long max = weight;
+            for (Node<V> child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.documentflow.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holder of the state of an in-memory index that is rebuilt off to the side. A reload reads the new state
+ * without blocking searches and changes; changes applied meanwhile are repeated on the new state,
+ * which then replaces the current one at once, so searches never see an empty or partial index
+ * and no change is lost. Changes must be idempotent: the reloaded data may already contain them.
+ *
+ * @param <S> state of the index, not thread safe by itself
+ */
+class ReloadableIndex<S> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadLock = new Object();
+    private S state;
+    //изменения, примененные во время перезагрузки
+    private List<Consumer<S>> changesDuringLoad;
+
+    ReloadableIndex(S state) {
+        this.state = state;
+    }
+
+    /**
+     * Read the current state
+     *
+     * @param reader search over the state
+     * @param <R>    result type
+     * @return result of the reader
+     */
+    <R> R read(Function<S, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply the change to the current state and to the state being loaded
+     *
+     * @param change idempotent change
+     */
+    void apply(Consumer<S> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Build a new state and replace the current one with it. Loads run one at a time
+     *
+     * @param loader reads the new state from the database
+     */
+    void load(Supplier<S> loader) {
+        synchronized (loadLock) {
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                S loaded = loader.get();
+                lock.writeLock().lock();
+                try {
+                    changesDuringLoad.forEach(change -> change.accept(loaded));
+                    state = loaded;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    changesDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+}
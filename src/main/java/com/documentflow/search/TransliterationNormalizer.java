@@ -0,0 +1,66 @@
+package com.documentflow.search;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reduces Cyrillic and Latin spellings of a name to one Latin skeleton, so that "Щукин", "Shchukin"
+ * and "Schukin" or "Ёлкин" and "Елкин" give the same string. Cyrillic letters are transliterated first,
+ * then spellings that differ between transliteration systems are folded together, doubled letters are
+ * collapsed and everything except letters and digits is dropped.
+ */
+@UtilityClass
+public class TransliterationNormalizer {
+
+    private static final Map<Character, String> CYRILLIC = new HashMap<>();
+
+    //порядок важен: длинные сочетания заменяются раньше входящих в них букв
+    private static final String[][] FOLDING = {
+            {"SHCH", "SH"}, {"SCH", "SH"}, {"KH", "H"}, {"TS", "C"}, {"TZ", "C"}, {"PH", "F"},
+            {"YU", "IU"}, {"JU", "IU"}, {"YA", "IA"}, {"JA", "IA"}, {"YO", "E"}, {"JO", "E"}, {"YE", "E"},
+            {"W", "V"}, {"X", "KS"}, {"Q", "K"}, {"Y", "I"}, {"J", "I"}
+    };
+
+    static {
+        String[] letters = {
+                "А", "A", "Б", "B", "В", "V", "Г", "G", "Д", "D", "Е", "E", "Ё", "E", "Ж", "ZH", "З", "Z",
+                "И", "I", "Й", "Y", "К", "K", "Л", "L", "М", "M", "Н", "N", "О", "O", "П", "P", "Р", "R",
+                "С", "S", "Т", "T", "У", "U", "Ф", "F", "Х", "KH", "Ц", "TS", "Ч", "CH", "Ш", "SH", "Щ", "SHCH",
+                "Ъ", "", "Ы", "Y", "Ь", "", "Э", "E", "Ю", "YU", "Я", "YA"
+        };
+        for (int i = 0; i < letters.length; i += 2) {
+            CYRILLIC.put(letters[i].charAt(0), letters[i + 1]);
+        }
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder latin = new StringBuilder(value.length() + 8);
+        for (char c : value.toUpperCase().toCharArray()) {
+            String transliterated = CYRILLIC.get(c);
+            if (transliterated != null) {
+                latin.append(transliterated);
+            } else if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                latin.append(c);
+            }
+        }
+
+        String folded = latin.toString();
+        for (String[] rule : FOLDING) {
+            folded = folded.replace(rule[0], rule[1]);
+        }
+
+        StringBuilder result = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (result.length() == 0 || result.charAt(result.length() - 1) != c) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
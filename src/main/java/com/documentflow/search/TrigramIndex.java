@@ -0,0 +1,166 @@
+package com.documentflow.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of character trigrams. Answers substring queries over the indexed values
+ * without scanning them: candidates are taken from the intersection of the posting lists of all query
+ * trigrams and then verified with {@link String#contains(CharSequence)}.
+ * <p>
+ * Ids are returned in ascending order. The index is thread safe.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    private final TreeMap<Long, String> values = new TreeMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace the value of the record
+     *
+     * @param id    record id
+     * @param value indexed value
+     */
+    public void put(long id, String value) {
+        lock.writeLock().lock();
+        try {
+            String oldValue = values.put(id, value);
+            if (oldValue != null) {
+                trigrams(oldValue).forEach(key -> removePosting(key, id));
+            }
+            trigrams(value).forEach(key -> postings.computeIfAbsent(key, k -> new PostingList()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the record from the index
+     *
+     * @param id record id
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String oldValue = values.remove(id);
+            if (oldValue != null) {
+                trigrams(oldValue).forEach(key -> removePosting(key, id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all records from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            values.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find records whose value contains the substring
+     *
+     * @param query substring to search for
+     * @param limit maximum number of ids to return
+     * @return ids in ascending order
+     */
+    public List<Long> search(String query, int limit) {
+        return search(query, Long.MIN_VALUE, limit);
+    }
+
+    /**
+     * Find records whose value contains the substring, starting after the given id (keyset cursor)
+     *
+     * @param query   substring to search for
+     * @param afterId only ids greater than this one are returned
+     * @param limit   maximum number of ids to return
+     * @return ids in ascending order
+     */
+    public List<Long> search(String query, long afterId, int limit) {
+        if (query == null || query.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return query.length() < GRAM ? scan(query, afterId, limit) : lookup(query, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //запрос короче триграммы: проверяем значения в памяти, к БД не обращаемся
+    private List<Long> scan(String query, long afterId, int limit) {
+        List<Long> result = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : values.tailMap(afterId, false).entrySet()) {
+            if (entry.getValue().contains(query)) {
+                result.add(entry.getKey());
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<Long> lookup(String query, long afterId, int limit) {
+        List<PostingList> lists = new ArrayList<>();
+        for (Long key : trigrams(query)) {
+            PostingList list = postings.get(key);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        PostingList smallest = lists.get(0);
+        List<Long> result = new ArrayList<>();
+        for (int i = smallest.indexAfter(afterId); i < smallest.size() && result.size() < limit; i++) {
+            long id = smallest.get(i);
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            //пересечение триграмм не гарантирует вхождения подстроки целиком
+            if (inAll && values.get(id).contains(query)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void removePosting(Long key, long id) {
+        PostingList list = postings.get(key);
+        if (list != null && list.remove(id) && list.size() == 0) {
+            postings.remove(key);
+        }
+    }
+
+    private static Set<Long> trigrams(String value) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            result.add(((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2));
+        }
+        return result;
+    }
+}
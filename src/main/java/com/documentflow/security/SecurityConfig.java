@@ -5,6 +5,7 @@ import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -41,8 +42,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter implements WebM
                 .authorizeRequests()
                 .antMatchers("/docs/in/**").hasAnyRole("DOC_IN_READ")
                 .antMatchers("/docs/out/**").hasAnyRole("DOC_OUT_READ")
+                .antMatchers("/docs/search/**").hasAnyRole("DOC_IN_READ", "DOC_OUT_READ")
                 .antMatchers("/tasks/**").hasRole("TASKS_READ")
                 .antMatchers("/sys/**").hasRole("SYS_READ")
+                .antMatchers(HttpMethod.POST, "/contragent/import").hasRole("SYS_EDIT")
+                .antMatchers("/contragent/export/**").hasRole("SYS_READ")
+                .antMatchers("/contragent/**").hasAnyRole("DOC_IN_READ", "DOC_OUT_READ", "SYS_READ")
                 .antMatchers("/profile/**").authenticated()
                 .and()
                 .formLogin()
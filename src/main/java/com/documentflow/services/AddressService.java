@@ -24,7 +24,16 @@ public interface AddressService {
     Address save(Address address);
 
     /**
-     * We search for all addresses who meet the search conditions
+     * Find the addresses in the database and add the missing ones.
+     * Uses one lookup by canonical keys and one insert of all missing addresses
+     *
+     * @param addresses array of addresses wrapped in DTO
+     * @return list of distinct addresses in the order of the array
+     */
+    List<Address> findOrCreate(ContragentDtoAddress[] addresses);
+
+    /**
+     * Search for a page of addresses who meet the search conditions and belong to a contragent that is not deleted
      *
      * @param postIndex        post index
      * @param country          country
@@ -32,9 +41,12 @@ public interface AddressService {
      * @param street           street
      * @param houseNumber      house number
      * @param apartrmentNumber apartrment number
-     * @return list of address
+     * @param afterId          id of the last address of the previous page, null for the first page
+     * @param limit            maximum number of addresses
+     * @return addresses ordered by id
      */
-    List<Address> findAll(String postIndex, String country, String city, String street, String houseNumber, String apartrmentNumber);
+    List<Address> findAll(String postIndex, String country, String city, String street, String houseNumber, String apartrmentNumber,
+                          Long afterId, int limit);
 
     /**
      * We search for address who meet the search conditions. Strict search. If the field value is
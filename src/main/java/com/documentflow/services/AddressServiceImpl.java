@@ -5,30 +5,45 @@ import com.documentflow.entities.dto.ContragentDtoAddress;
 import com.documentflow.exceptions.NotFoundAddressException;
 import com.documentflow.exceptions.NotFoundIdException;
 import com.documentflow.repositories.AddressRepository;
+import com.documentflow.repositories.ContragentJdbcRepository;
+import com.documentflow.repositories.KeysetRepository;
 import com.documentflow.repositories.specifications.AddressSpecifications;
 import com.documentflow.utils.ContragentUtils;
 import lombok.NonNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class AddressServiceImpl implements AddressService {
 
+    private static final int MAX_FIND_LIMIT = 500;
+
     @Autowired
     private AddressRepository addressRepository;
 
     @Autowired
     private ContragentService contragentService;
 
+    @Autowired
+    private ContragentJdbcRepository contragentJdbcRepository;
+
+    @Autowired
+    private KeysetRepository keysetRepository;
+
     @Override
     public List<Address> save(@NonNull ContragentDtoAddress[] addressesDto) {
 
@@ -44,14 +59,54 @@ public class AddressServiceImpl implements AddressService {
         return addressRepository.saveAll(addresses);
     }
 
+    @Override
+    public List<Address> findOrCreate(@NonNull ContragentDtoAddress[] addressesDto) {
+
+        if (ContragentUtils.isEmpty(addressesDto)) {
+            throw new NotFoundAddressException();
+        }
+
+        //ключ - нормализованный адрес, повторы схлопываются
+        Map<String, Address> candidates = new LinkedHashMap<>();
+        Arrays.stream(addressesDto)
+                .map(Address::new)
+                .filter(ContragentUtils::isNotEmpty)
+                .forEach(address -> candidates.putIfAbsent(ContragentUtils.createCanonicalString(address), address));
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Address> addresses = new HashMap<>();
+        List<String> keys = candidates.values().stream()
+                .peek(Address::updateCanonicalKey)
+                .map(Address::getCanonicalKey)
+                .collect(Collectors.toList());
+        addressRepository.findAllByCanonicalKeyInOrderById(keys)
+                .forEach(address -> addresses.putIfAbsent(ContragentUtils.createCanonicalString(address), address));
+
+        List<Address> missing = candidates.entrySet().stream()
+                .filter(entry -> !addresses.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            addressRepository.findAllById(contragentJdbcRepository.insertAddresses(missing).values())
+                    .forEach(address -> addresses.put(ContragentUtils.createCanonicalString(address), address));
+        }
+
+        return candidates.keySet().stream()
+                .map(addresses::get)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Address save(@NonNull Address address) {
         return addressRepository.save(ContragentUtils.normalizeAddress(address));
     }
 
     @Override
-    public List<Address> findAll(String postIndex, String country, String city, String street, String houseNumber, String apartrmentNumber) {
-        Specification<Address> spec = Specification.where(null);
+    public List<Address> findAll(String postIndex, String country, String city, String street, String houseNumber, String apartrmentNumber,
+                                 Long afterId, int limit) {
+        Specification<Address> spec = Specification.where(AddressSpecifications.hasNotDeletedContragent());
         if (!ObjectUtils.isEmpty(postIndex)) {
             spec = spec.and(AddressSpecifications.postIndexEq(postIndex));
         }
@@ -70,43 +125,23 @@ public class AddressServiceImpl implements AddressService {
         if (!ObjectUtils.isEmpty(apartrmentNumber)) {
             spec = spec.and(AddressSpecifications.apartmentNumberEq(apartrmentNumber));
         }
-        return addressRepository.findAll(spec).stream()
-                .filter(organization -> {
-                    return organization.getContragents().stream()
-                            .anyMatch(contragent -> !contragent.getIsDeleted());
-                })
-                .collect(Collectors.toList());
+        if (afterId != null) {
+            spec = spec.and(AddressSpecifications.idGreaterThan(afterId));
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_FIND_LIMIT));
+        //страница без COUNT(*): курсор следующей страницы - id последней записи
+        return keysetRepository.find(Address.class, spec, Sort.by("id"), pageSize);
     }
 
     @Override
     public Address strongFind(Address address) {
-        Specification<Address> spec = Specification.where(null);
-        if (!ObjectUtils.isEmpty(address.getIndex())) {
-            spec = spec.and(AddressSpecifications.postIndexEq(address.getIndex().toString()));
-        } else {
-            spec = spec.and(AddressSpecifications.postIndexIsNull());
-        }
-        if (!StringUtils.isEmpty(address.getCountry())) {
-            spec = spec.and(AddressSpecifications.countryEq(address.getCountry().toUpperCase()));
-        }
-        if (!StringUtils.isEmpty(address.getCity())) {
-            spec = spec.and(AddressSpecifications.cityEq(address.getCity().toUpperCase()));
-        }
-        if (!StringUtils.isEmpty(address.getStreet())) {
-            spec = spec.and(AddressSpecifications.streetEq(address.getStreet().toUpperCase()));
-        }
-        if (!ObjectUtils.isEmpty(address.getHouseNumber())) {
-            spec = spec.and(AddressSpecifications.houseNumberEq(address.getHouseNumber()));
-        } else {
-            spec = spec.and(AddressSpecifications.houseNumberIsNull());
-        }
-        if (!ObjectUtils.isEmpty(address.getApartmentNumber())) {
-            spec = spec.and(AddressSpecifications.apartmentNumberEq(address.getApartmentNumber()));
-        } else {
-            spec = spec.and(AddressSpecifications.apartmentNumberIsNull());
-        }
-
-        return addressRepository.findOne(spec).orElse(null);
+        //точечный поиск по индексу хеша, совпадение хеша проверяем сравнением нормализованных адресов
+        String canonicalString = ContragentUtils.createCanonicalString(address);
+        return addressRepository.findAllByCanonicalKeyOrderById(ContragentUtils.createCanonicalKey(canonicalString)).stream()
+                .filter(found -> canonicalString.equals(ContragentUtils.createCanonicalString(found)))
+                .findFirst()
+                .orElse(null);
     }
 
     @Override
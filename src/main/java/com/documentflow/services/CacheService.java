@@ -0,0 +1,69 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.dto.CacheRegionDto;
+import com.documentflow.exceptions.BadArgumentException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Statistics and eviction of the Hibernate second-level and query cache regions.
+ * Reference entities are cached for the TTL configured in ehcache.xml, eviction makes changes
+ * made past Hibernate (migrations, manual SQL) visible right away.
+ */
+@Service
+public class CacheService {
+
+    private SessionFactory sessionFactory;
+    private ReferenceRegistry referenceRegistry;
+
+    @Autowired
+    public void setReferenceRegistry(ReferenceRegistry referenceRegistry) {
+        this.referenceRegistry = referenceRegistry;
+    }
+
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<CacheRegionDto> getStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+                    return regionStatistics == null ? null : new CacheRegionDto(region, regionStatistics.getHitCount(),
+                            regionStatistics.getMissCount(), regionStatistics.getPutCount(),
+                            regionStatistics.getElementCountInMemory());
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Evict the cache region or all regions
+     *
+     * @param region region name, null to evict all regions
+     */
+    public void evict(String region) {
+        if (region == null) {
+            sessionFactory.getCache().evictAllRegions();
+            referenceRegistry.refresh();
+            return;
+        }
+        if (!Arrays.asList(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).contains(region)) {
+            throw new BadArgumentException("Unknown cache region: " + region);
+        }
+        sessionFactory.getCache().evictRegion(region);
+        referenceRegistry.refresh();
+    }
+}
@@ -0,0 +1,75 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.Address;
+import com.documentflow.entities.Person;
+import com.documentflow.repositories.AddressRepository;
+import com.documentflow.repositories.PersonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fills canonical_key of persons and addresses saved before the column was added.
+ * Runs once the application is started, in chunks with a transaction per chunk; new and updated
+ * rows get the key from the entity callbacks.
+ */
+@Slf4j
+@Component
+public class CanonicalKeyBackfillJob {
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${documentflow.contragent.canonical-key.backfill-enabled:true}")
+    private boolean enabled;
+
+    @Value("${documentflow.contragent.canonical-key.backfill-chunk:500}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long persons = backfill(personRepository::findAllByCanonicalKeyIsNull, Person::updateCanonicalKey);
+        long addresses = backfill(addressRepository::findAllByCanonicalKeyIsNull, Address::updateCanonicalKey);
+        if (persons + addresses > 0) {
+            log.info("Canonical keys filled: {} persons, {} addresses", persons, addresses);
+        }
+    }
+
+    private <T> long backfill(Function<PageRequest, List<T>> findWithoutKey, Consumer<T> updateKey) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        PageRequest firstChunk = PageRequest.of(0, chunkSize, Sort.by("id"));
+        long total = 0;
+        while (true) {
+            //заполненные строки выпадают из выборки, поэтому всегда читаем первую порцию
+            Integer updated = transactionTemplate.execute(status -> {
+                List<T> chunk = findWithoutKey.apply(firstChunk);
+                chunk.forEach(updateKey);
+                return chunk.size();
+            });
+            if (updated == null || updated == 0) {
+                return total;
+            }
+            total += updated;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.dto.ContragentDtoImportStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface ContragentImportService {
+
+    /**
+     * Import contragents from NDJSON: one {@link com.documentflow.entities.dto.ContragentDto} per line.
+     * The input is read incrementally and saved in chunks, a transaction per chunk. Persons, addresses and
+     * organizations that already exist are reused. Rows that can not be parsed or saved are reported and skipped
+     *
+     * @param input    NDJSON in UTF-8
+     * @param listener receives progress after every chunk, an error for every rejected row and the final totals
+     * @return final totals
+     */
+    ContragentDtoImportStatus importContragents(InputStream input, Consumer<ContragentDtoImportStatus> listener) throws IOException;
+}
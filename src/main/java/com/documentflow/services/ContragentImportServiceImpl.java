@@ -0,0 +1,290 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.Address;
+import com.documentflow.entities.Contragent;
+import com.documentflow.entities.Organization;
+import com.documentflow.entities.Person;
+import com.documentflow.entities.dto.ContragentDto;
+import com.documentflow.entities.dto.ContragentDtoEmployee;
+import com.documentflow.entities.dto.ContragentDtoImportStatus;
+import com.documentflow.exceptions.BadArgumentException;
+import com.documentflow.repositories.ContragentJdbcRepository;
+import com.documentflow.search.ContragentFuzzyIndex;
+import com.documentflow.search.ContragentSearchIndex;
+import com.documentflow.search.ContragentSuggestIndex;
+import com.documentflow.utils.ContragentUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ContragentImportServiceImpl implements ContragentImportService {
+
+    private static final String PERSON = "person";
+    private static final String COMPANY = "company";
+
+    @Autowired
+    private ContragentJdbcRepository contragentJdbcRepository;
+
+    @Autowired
+    private ContragentSearchIndex contragentSearchIndex;
+
+    @Autowired
+    private ContragentSuggestIndex contragentSuggestIndex;
+
+    @Autowired
+    private ContragentFuzzyIndex contragentFuzzyIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${documentflow.contragent.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public ContragentDtoImportStatus importContragents(@NonNull InputStream input,
+                                                       @NonNull Consumer<ContragentDtoImportStatus> listener) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ContragentDto.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Counters counters = new Counters();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long number = 0;
+            while ((line = lines.readLine()) != null) {
+                number++;
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                counters.processed++;
+                try {
+                    ContragentDto contragentDto = reader.readValue(line);
+                    chunk.add(new Row(number, createDrafts(contragentDto)));
+                } catch (IOException | RuntimeException e) {
+                    counters.failed++;
+                    listener.accept(ContragentDtoImportStatus.error(number, e.getMessage(), counters.processed, counters.imported, counters.failed));
+                }
+                if (chunk.size() == chunkSize) {
+                    save(chunk, transactionTemplate, counters, listener);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            save(chunk, transactionTemplate, counters, listener);
+        }
+
+        if (counters.imported > 0) {
+            //индексы в памяти перестраиваются один раз, а не на каждого контрагента
+            contragentSearchIndex.load();
+            contragentSuggestIndex.load();
+            contragentFuzzyIndex.load();
+        }
+        log.info("Contragent import finished: {} rows, {} contragents saved, {} rows rejected",
+                counters.processed, counters.imported, counters.failed);
+        ContragentDtoImportStatus done = ContragentDtoImportStatus.done(counters.processed, counters.imported, counters.failed);
+        listener.accept(done);
+        return done;
+    }
+
+    private void save(List<Row> chunk, TransactionTemplate transactionTemplate, Counters counters,
+                      Consumer<ContragentDtoImportStatus> listener) {
+        try {
+            Integer saved = transactionTemplate.execute(status -> insert(chunk));
+            counters.imported += saved != null ? saved : 0;
+        } catch (RuntimeException chunkException) {
+            //порция откатилась целиком: сохраняем строки по одной, чтобы отклонить только ошибочные
+            for (Row row : chunk) {
+                try {
+                    Integer saved = transactionTemplate.execute(status -> insert(Collections.singletonList(row)));
+                    counters.imported += saved != null ? saved : 0;
+                } catch (RuntimeException e) {
+                    counters.failed++;
+                    listener.accept(ContragentDtoImportStatus.error(row.line, e.getMessage(), counters.processed, counters.imported, counters.failed));
+                }
+            }
+        }
+        listener.accept(ContragentDtoImportStatus.progress(counters.processed, counters.imported, counters.failed));
+    }
+
+    //все персоны, адреса и организации порции ищутся и вставляются несколькими запросами, контрагенты - пакетом
+    private int insert(List<Row> rows) {
+        Map<String, Person> persons = new LinkedHashMap<>();
+        Map<String, Address> addresses = new LinkedHashMap<>();
+        Set<String> organizations = new LinkedHashSet<>();
+        rows.forEach(row -> row.drafts.forEach(draft -> {
+            if (draft.person != null) {
+                persons.putIfAbsent(ContragentUtils.createCanonicalString(draft.person), draft.person);
+            }
+            addresses.putIfAbsent(ContragentUtils.createCanonicalString(draft.address), draft.address);
+            if (draft.organization != null) {
+                organizations.add(draft.organization);
+            }
+        }));
+
+        Map<String, Long> personIds = findOrInsertPersons(persons);
+        Map<String, Long> addressIds = findOrInsertAddresses(addresses);
+        Map<String, Long> organizationIds = findOrInsertOrganizations(organizations);
+
+        List<Contragent> contragents = rows.stream()
+                .flatMap(row -> row.drafts.stream())
+                .map(draft -> new Contragent.Builder()
+                        .searchName(draft.searchName)
+                        .personPosition(draft.position)
+                        .isDeleted(false)
+                        .address(new Address(addressIds.get(ContragentUtils.createCanonicalString(draft.address)),
+                                null, null, null, null, null, null))
+                        .person(draft.person != null
+                                ? new Person(personIds.get(ContragentUtils.createCanonicalString(draft.person)), null, null, null)
+                                : null)
+                        .organization(draft.organization != null
+                                ? new Organization(organizationIds.get(draft.organization), draft.organization)
+                                : null)
+                        .build())
+                .collect(Collectors.toList());
+        contragentJdbcRepository.insertContragents(contragents);
+        return contragents.size();
+    }
+
+    private Map<String, Long> findOrInsertPersons(Map<String, Person> candidates) {
+        Map<String, Long> ids = new HashMap<>();
+        if (candidates.isEmpty()) {
+            return ids;
+        }
+        List<String> keys = candidates.values().stream()
+                .peek(Person::updateCanonicalKey)
+                .map(Person::getCanonicalKey)
+                .collect(Collectors.toList());
+        contragentJdbcRepository.findPersonsByCanonicalKeys(keys)
+                .forEach(person -> ids.putIfAbsent(ContragentUtils.createCanonicalString(person), person.getId()));
+
+        List<Person> missing = candidates.entrySet().stream()
+                .filter(entry -> !ids.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        Map<String, Long> inserted = contragentJdbcRepository.insertPersons(missing);
+        missing.forEach(person -> ids.put(ContragentUtils.createCanonicalString(person), inserted.get(person.getCanonicalKey())));
+        return ids;
+    }
+
+    private Map<String, Long> findOrInsertAddresses(Map<String, Address> candidates) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> keys = candidates.values().stream()
+                .peek(Address::updateCanonicalKey)
+                .map(Address::getCanonicalKey)
+                .collect(Collectors.toList());
+        contragentJdbcRepository.findAddressesByCanonicalKeys(keys)
+                .forEach(address -> ids.putIfAbsent(ContragentUtils.createCanonicalString(address), address.getId()));
+
+        List<Address> missing = candidates.entrySet().stream()
+                .filter(entry -> !ids.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        Map<String, Long> inserted = contragentJdbcRepository.insertAddresses(missing);
+        missing.forEach(address -> ids.put(ContragentUtils.createCanonicalString(address), inserted.get(address.getCanonicalKey())));
+        return ids;
+    }
+
+    private Map<String, Long> findOrInsertOrganizations(Set<String> names) {
+        if (names.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<String, Long> ids = contragentJdbcRepository.findOrganizationIds(names);
+        List<String> missing = names.stream()
+                .filter(name -> !ids.containsKey(name))
+                .collect(Collectors.toList());
+        ids.putAll(contragentJdbcRepository.insertOrganizations(missing));
+        return ids;
+    }
+
+    //строки контрагентов так же, как при сохранении через форму: по одной на адрес, у организации - на адрес и сотрудника
+    private List<Draft> createDrafts(ContragentDto contragentDto) {
+        if (contragentDto.getParameters() == null || ContragentUtils.isEmpty(contragentDto.getParameters())) {
+            throw new BadArgumentException("Не заполнены основные параметры контрагента");
+        }
+        if (contragentDto.getAddress() == null || ContragentUtils.isEmpty(contragentDto.getAddress())) {
+            throw new BadArgumentException("Address is empty");
+        }
+        List<Address> addresses = Arrays.stream(ContragentUtils.deleteDuplicate(contragentDto.getAddress()))
+                .map(Address::new)
+                .collect(Collectors.toList());
+
+        List<Draft> drafts = new ArrayList<>();
+        if (PERSON.equals(contragentDto.getTypePerson())) {
+            String lastName = contragentDto.getParameters().getLastName();
+            if (StringUtils.isBlank(lastName)) {
+                throw new BadArgumentException("Last name is empty");
+            }
+            Person person = new Person(contragentDto.getParameters().getFirstName(), contragentDto.getParameters().getMiddleName(), lastName);
+            String searchName = ContragentUtils.createSearchName(person.getFirstName(), person.getMiddleName(), person.getLastName());
+            addresses.forEach(address -> drafts.add(new Draft(person, address, null, null, searchName)));
+        } else if (COMPANY.equals(contragentDto.getTypePerson())) {
+            String name = contragentDto.getParameters().getNameCompany();
+            if (StringUtils.isBlank(name)) {
+                throw new BadArgumentException("Company name is empty");
+            }
+            List<ContragentDtoEmployee> employees = contragentDto.getEmployee() == null
+                    ? Collections.emptyList()
+                    : Arrays.stream(ContragentUtils.deleteDuplicate(contragentDto.getEmployee()))
+                    .filter(ContragentUtils::isNotEmpty)
+                    .collect(Collectors.toList());
+            for (Address address : addresses) {
+                if (employees.isEmpty()) {
+                    drafts.add(new Draft(null, address, name, null, ContragentUtils.createSearchName(name)));
+                }
+                for (ContragentDtoEmployee employee : employees) {
+                    Person person = new Person(employee.getFirstName(), employee.getMiddleName(), employee.getLastName());
+                    String searchName = ContragentUtils.createSearchName(person.getFirstName(), person.getMiddleName(),
+                            person.getLastName(), employee.getPersonPosition(), name);
+                    drafts.add(new Draft(person, address, name, ContragentUtils.toUpperCase(employee.getPersonPosition()), searchName));
+                }
+            }
+        } else {
+            throw new BadArgumentException("Unknown type_person: " + contragentDto.getTypePerson());
+        }
+        return drafts;
+    }
+
+    @AllArgsConstructor
+    private static class Row {
+        private final long line;
+        private final List<Draft> drafts;
+    }
+
+    @AllArgsConstructor
+    private static class Draft {
+        private final Person person;
+        private final Address address;
+        private final String organization;
+        private final String position;
+        private final String searchName;
+    }
+
+    private static class Counters {
+        private long processed;
+        private long imported;
+        private long failed;
+    }
+}
@@ -5,11 +5,19 @@ import com.documentflow.entities.Contragent;
 import com.documentflow.entities.dto.ContragentDto;
 import com.documentflow.entities.dto.ContragentDtoBindAddressAndEmployee;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
+import com.documentflow.model.enums.ContragentType;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface ContragentService {
 
+    /**
+     * Largest page of the contragent searches, a bigger limit is reduced to it
+     */
+    int MAX_SEARCH_LIMIT = 500;
+
     /**
      * Search for a contragents that meets the search condition
      *
@@ -18,6 +26,38 @@ public interface ContragentService {
      */
     List<Contragent> searchContragents(String searchName);
 
+    /**
+     * Search for a page of contragents that meets the search condition. Deleted records are skipped
+     *
+     * @param searchName search string (can include the person's full name or company name, or position)
+     * @param type       kind of records to return
+     * @param afterId    id of the last record of the previous page, null for the first page
+     * @param limit      maximum number of records
+     * @return contragents ordered by id
+     */
+    List<Contragent> searchContragents(String searchName, ContragentType type, Long afterId, int limit);
+
+    /**
+     * Search for contragents whose names are similar to the query: tolerates typos, Ё/Е and Latin transliteration.
+     * Deleted records are skipped
+     *
+     * @param query words of the person's full name or company name
+     * @param type  kind of records to return
+     * @param limit maximum number of records
+     * @return contragents, closest matches first
+     */
+    List<Contragent> searchSimilarContragents(String query, ContragentType type, int limit);
+
+    /**
+     * Write all contragents that are not deleted as CSV with {@link com.documentflow.utils.RegistryWriter}:
+     * id, person, organization, position and address.
+     * Records are streamed from the database and released as they are written, memory use does not depend on
+     * the number of records
+     *
+     * @param output destination of the CSV, left open
+     */
+    void exportContragents(OutputStream output) throws IOException;
+
     /**
      * We record the counterparty and related entities (address, employee, organization, or individual) in the database)
      *
@@ -42,6 +82,24 @@ public interface ContragentService {
      */
     Contragent save(Contragent contragent);
 
+    /**
+     * Rewrite the search names of all contragents of the person with one statement
+     *
+     * @param personId id of the renamed person
+     * @param oldPart  part of the search name built from the old full name
+     * @param newPart  part of the search name built from the new full name
+     */
+    void replacePersonSearchName(Long personId, String oldPart, String newPart);
+
+    /**
+     * Rewrite the search names of all contragents of the organization with one statement
+     *
+     * @param organizationId id of the renamed organization
+     * @param oldPart        part of the search name built from the old name
+     * @param newPart        part of the search name built from the new name
+     */
+    void replaceOrganizationSearchName(Long organizationId, String oldPart, String newPart);
+
     /**
      * Assign the archive attribute to the record
      *
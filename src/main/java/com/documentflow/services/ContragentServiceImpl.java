@@ -8,24 +8,40 @@ import com.documentflow.entities.dto.ContragentDto;
 import com.documentflow.entities.dto.ContragentDtoAddress;
 import com.documentflow.entities.dto.ContragentDtoBindAddressAndEmployee;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
+import com.documentflow.entities.dto.ContragentDtoNames;
 import com.documentflow.exceptions.NotFoundAddressException;
 import com.documentflow.exceptions.NotFoundEmployeeException;
+import com.documentflow.model.enums.ContragentType;
+import com.documentflow.model.enums.ExportFormat;
 import com.documentflow.repositories.ContragentRepository;
 import com.documentflow.repositories.specifications.ContragentSpecifications;
+import com.documentflow.search.ContragentFuzzyIndex;
+import com.documentflow.search.ContragentSearchIndex;
+import com.documentflow.search.ContragentSuggestIndex;
 import com.documentflow.utils.ContragentUtils;
+import com.documentflow.utils.RegistryWriter;
 import lombok.NonNull;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -33,6 +49,15 @@ public class ContragentServiceImpl implements ContragentService {
 
     private static final String PERSON = "person";
     private static final String COMPANY = "company";
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+    private static final int MIN_SEARCH_CHUNK = 50;
+    //через столько записей выгрузки контекст персистентности очищается
+    private static final int EXPORT_CHUNK = 1000;
+    private static final String[] EXPORT_HEADER = {"id", "last_name", "first_name", "middle_name", "name_company", "position",
+            "post_index", "country", "city", "street", "house_number", "apartment_number"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     private ContragentRepository contragentRepository;
@@ -46,18 +71,112 @@ public class ContragentServiceImpl implements ContragentService {
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private ContragentSearchIndex contragentSearchIndex;
+
+    @Autowired
+    private ContragentSuggestIndex contragentSuggestIndex;
+
+    @Autowired
+    private ContragentFuzzyIndex contragentFuzzyIndex;
+
     @Override
     @Transactional(readOnly = true)
     public List<Contragent> searchContragents(@NonNull String searchName) {
+        return searchContragents(searchName, ContragentType.ANY, null, DEFAULT_SEARCH_LIMIT);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Contragent> searchContragents(@NonNull String searchName, @NonNull ContragentType type, Long afterId, int limit) {
 
-        Specification<Contragent> spec = Specification.where(null);
-        spec = spec.and(ContragentSpecifications.searchNameLike(searchName.toUpperCase()));
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        int chunkSize = Math.max(MIN_SEARCH_CHUNK, pageSize * 2);
 
-        return contragentRepository.findAll(spec).stream()
-                .filter(item -> !item.getIsDeleted())
+        Specification<Contragent> filter = createFilter(type);
+
+        //подстроку ищем в индексе триграмм, признак удаления и тип записи проверяет БД.
+        //Кандидатов читаем порциями по первичному ключу, пока не наберем страницу
+        List<Contragent> contragents = new ArrayList<>();
+        Long cursor = afterId;
+        while (contragents.size() < pageSize) {
+            List<Long> ids = contragentSearchIndex.search(searchName, cursor, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Contragent> chunk = contragentRepository.findAll(
+                    filter.and(ContragentSpecifications.idIn(ids)), Sort.by("id"));
+            contragents.addAll(chunk.subList(0, Math.min(chunk.size(), pageSize - contragents.size())));
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            cursor = ids.get(ids.size() - 1);
+        }
+        return contragents;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Contragent> searchSimilarContragents(@NonNull String query, @NonNull ContragentType type, int limit) {
+
+        List<Long> ids = contragentFuzzyIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Contragent> contragents = contragentRepository.findAll(createFilter(type).and(ContragentSpecifications.idIn(ids))).stream()
+                .collect(Collectors.toMap(Contragent::getId, Function.identity()));
+        //сохраняем порядок индекса: сначала самые похожие
+        return ids.stream()
+                .map(contragents::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportContragents(@NonNull OutputStream output) throws IOException {
+
+        try (RegistryWriter writer = RegistryWriter.create(ExportFormat.CSV, output);
+             Stream<Contragent> contragents = contragentRepository.streamAllNotDeleted()) {
+            writer.writeRow((Object[]) EXPORT_HEADER);
+            Iterator<Contragent> iterator = contragents.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                Contragent contragent = iterator.next();
+                Person person = contragent.getPerson();
+                Organization organization = contragent.getOrganization();
+                Address address = contragent.getAddress();
+                writer.writeRow(
+                        contragent.getId(),
+                        person != null ? person.getLastName() : null,
+                        person != null ? person.getFirstName() : null,
+                        person != null ? person.getMiddleName() : null,
+                        organization != null ? organization.getName() : null,
+                        contragent.getPersonPosition(),
+                        address != null ? address.getIndex() : null,
+                        address != null ? address.getCountry() : null,
+                        address != null ? address.getCity() : null,
+                        address != null ? address.getStreet() : null,
+                        address != null ? address.getHouseNumber() : null,
+                        address != null ? address.getApartmentNumber() : null);
+                if (++count % EXPORT_CHUNK == 0) {
+                    //записанные сущности больше не нужны, иначе контекст растет вместе с таблицей
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private Specification<Contragent> createFilter(ContragentType type) {
+        Specification<Contragent> filter = Specification.where(ContragentSpecifications.fetchRelations());
+        if (type == ContragentType.PERSON) {
+            filter = filter.and(ContragentSpecifications.organizationIsNull());
+        } else if (type == ContragentType.COMPANY) {
+            filter = filter.and(ContragentSpecifications.organizationIsNotNull());
+        }
+        return filter;
+    }
+
     public static void main(String[] args) {
         List<String> list = new ArrayList<>();
         System.out.println(ObjectUtils.isEmpty(list));
@@ -71,7 +190,7 @@ public class ContragentServiceImpl implements ContragentService {
         switch (contragentDto.getTypePerson()) {
             case PERSON:
                 Person person = personService.save(contragentDto.getParameters());
-                List<Address> addressesPerson = addressService.save(ContragentUtils.deleteDuplicate(contragentDto.getAddress()));
+                List<Address> addressesPerson = addressService.findOrCreate(ContragentUtils.deleteDuplicate(contragentDto.getAddress()));
                 String searchStringPerson = ContragentUtils.createSearchName(person.getFirstName(), person.getMiddleName(), person.getLastName());
                 List<Contragent> contragentsPerson = addressesPerson.stream()
                         .map(address -> {
@@ -90,8 +209,8 @@ public class ContragentServiceImpl implements ContragentService {
                 break;
             case COMPANY:
                 Organization organization = organizationService.save(contragentDto.getParameters());
-                List<Address> addressesOrganization = addressService.save(ContragentUtils.deleteDuplicate(contragentDto.getAddress()));
-                Map<Person, String> employees = personService.save(ContragentUtils.deleteDuplicate(contragentDto.getEmployee()));
+                List<Address> addressesOrganization = addressService.findOrCreate(ContragentUtils.deleteDuplicate(contragentDto.getAddress()));
+                Map<Person, String> employees = personService.findOrCreate(ContragentUtils.deleteDuplicate(contragentDto.getEmployee()));
                 List<Contragent> contragentsOrganization = new ArrayList<>();
                 if (ObjectUtils.isEmpty(addressesOrganization)) {
                     throw new NotFoundAddressException();
@@ -133,6 +252,7 @@ public class ContragentServiceImpl implements ContragentService {
                 break;
             default:
         }
+        contragents.forEach(this::index);
         return contragents;
     }
 
@@ -168,12 +288,43 @@ public class ContragentServiceImpl implements ContragentService {
         person.setMiddleName(employee.getMiddleName());
         person.setLastName(employee.getLastName());
         contragent.setPerson(person);
-        return contragentRepository.save(contragent);
+        return save(contragent);
     }
 
     @Override
     public Contragent save(Contragent contragent) {
-        return contragentRepository.save(contragent);
+        Contragent savedContragent = contragentRepository.save(contragent);
+        index(savedContragent);
+        return savedContragent;
+    }
+
+    @Override
+    public void replacePersonSearchName(@NonNull Long personId, @NonNull String oldPart, @NonNull String newPart) {
+        if (!oldPart.equals(newPart)) {
+            contragentRepository.replaceSearchNamePartByPersonId(personId, oldPart, newPart);
+            contragentRepository.findAllNamesByPersonId(personId).forEach(this::index);
+        }
+    }
+
+    @Override
+    public void replaceOrganizationSearchName(@NonNull Long organizationId, @NonNull String oldPart, @NonNull String newPart) {
+        if (!oldPart.equals(newPart)) {
+            contragentRepository.replaceSearchNamePartByOrganizationId(organizationId, oldPart, newPart);
+            contragentRepository.findAllNamesByOrganizationId(organizationId).forEach(this::index);
+        }
+    }
+
+    //индексы в памяти обновляются после фиксации транзакции
+    private void index(ContragentDtoNames names) {
+        contragentSearchIndex.index(names);
+        contragentSuggestIndex.index(names);
+        contragentFuzzyIndex.index(names);
+    }
+
+    private void index(Contragent contragent) {
+        contragentSearchIndex.index(contragent);
+        contragentSuggestIndex.index(contragent);
+        contragentFuzzyIndex.index(contragent);
     }
 
     @Override
@@ -184,7 +335,7 @@ public class ContragentServiceImpl implements ContragentService {
         }
         Contragent contragent = optionalContragent.get();
         contragent.setIsDeleted(true);
-        contragentRepository.save(contragent);
+        save(contragent);
     }
 
     @Override
@@ -200,7 +351,7 @@ public class ContragentServiceImpl implements ContragentService {
                 .searchName(searchName)
                 .isDeleted(false)
                 .build();
-        contragent = contragentRepository.save(contragent);
+        contragent = save(contragent);
 
         return Address.builder()
                 //ВНИМАНИЕ. Добавляем ID контрагента для комфортного удаления записи на фронте
@@ -227,7 +378,7 @@ public class ContragentServiceImpl implements ContragentService {
                 .searchName(searchName)
                 .isDeleted(false)
                 .build();
-        contragent = contragentRepository.save(contragent);
+        contragent = save(contragent);
 
         return Address.builder()
                 //ВНИМАНИЕ. Добавляем ID контрагента для комфортного удаления записи на фронте
@@ -261,7 +412,7 @@ public class ContragentServiceImpl implements ContragentService {
                 .searchName(searchName)
                 .isDeleted(false)
                 .build();
-        contragent = contragentRepository.save(contragent);
+        contragent = save(contragent);
 
         return ContragentDtoEmployee.builder()
                 //ВНИМАНИЕ. Добавляем ID контрагента для комфортного удаления записи на фронте
@@ -320,7 +471,7 @@ public class ContragentServiceImpl implements ContragentService {
                 .address(address)
                 .organization(organization)
                 .build();
-        contragent = contragentRepository.save(contragent);
+        contragent = save(contragent);
 
         return new ContragentDtoBindAddressAndEmployee(
                 null,
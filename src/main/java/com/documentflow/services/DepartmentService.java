@@ -18,7 +18,7 @@ public class DepartmentService {
     }
 
     public Department getDepartmentById (int id) {
-        return departmentRepository.findOneById(id);
+        return departmentRepository.findById(id).orElse(null);
     }
 
     public List<Department> findAllDepartments() {
@@ -1,18 +1,25 @@
 package com.documentflow.services;
 
-import com.documentflow.entities.DocIn;
-import com.documentflow.entities.DocOut;
-import com.documentflow.entities.State;
-import com.documentflow.entities.Task;
+import com.documentflow.entities.*;
 import com.documentflow.model.enums.BusinessKeyState;
+import com.documentflow.entities.DTO.KeysetPage;
+import com.documentflow.entities.dto.DocInDto;
 import com.documentflow.repositories.DocInRepository;
+import com.documentflow.repositories.KeysetRepository;
+import com.documentflow.search.DocumentFullTextIndex;
+import com.documentflow.utils.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -21,10 +28,15 @@ import java.util.List;
 public class DocInService {
 
     private DocInRepository docInRepository;
+    private KeysetRepository keysetRepository;
+    private DocumentFullTextIndex fullTextIndex;
 
     @Autowired
-    public DocInService(DocInRepository docInRepository) {
+    public DocInService(DocInRepository docInRepository, KeysetRepository keysetRepository,
+                        DocumentFullTextIndex fullTextIndex) {
         this.docInRepository = docInRepository;
+        this.keysetRepository = keysetRepository;
+        this.fullTextIndex = fullTextIndex;
     }
 
     public DocIn findById(Long id) {
@@ -40,19 +52,42 @@ public class DocInService {
     }
 
     public <S extends DocIn> S save(S s) {
-        return docInRepository.save(s);
+        S saved = docInRepository.save(s);
+        fullTextIndex.index(saved);
+        return saved;
     }
 
     public DocIn findByTask(Task task) {
         return docInRepository.findByTask(task);
     }
 
-    public DocIn findFirstByOrderByIdDesc() {
-        return docInRepository.findFirstByOrderByIdDesc();
-    }
-
-    public Page<DocIn> findAllByPagingAndFiltering(Specification<DocIn> specification, Pageable pageable) {
-        return docInRepository.findAll(specification, pageable);
+    /**
+     * Page of the registry, the rows are read by one statement without loading the associated entities
+     *
+     * @param specification filter
+     * @param cursor        position to read from, null for the first page
+     * @param size          page size
+     * @return rows ordered by registration date
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<DocInDto> findPage(Specification<DocIn> specification, KeysetCursor<LocalDateTime> cursor, int size) {
+        return keysetRepository.findPage(DocIn.class, specification, "regDate",
+                dto -> ((Timestamp) dto.getRegDate()).toLocalDateTime(), DocInDto::getId,
+                Sort.Direction.ASC, cursor, size, DocInDto.class, (root, criteriaBuilder) -> {
+                    Join<DocIn, User> user = root.join("user", JoinType.LEFT);
+                    Join<DocIn, DocType> docType = root.join("docType", JoinType.LEFT);
+                    Join<DocIn, Department> department = root.join("department", JoinType.LEFT);
+                    Join<DocIn, State> state = root.join("state", JoinType.LEFT);
+                    Join<DocIn, DocOut> docOut = root.join("docOut", JoinType.LEFT);
+                    Join<DocIn, Task> task = root.join("task", JoinType.LEFT);
+                    return criteriaBuilder.construct(DocInDto.class,
+                            root.get("id"), root.get("regNumber"), root.get("regDate"),
+                            user.get("id"), user.get("lastName"), user.get("firstName"), user.get("middleName"),
+                            docType.get("id"), docType.get("name"), department.get("id"),
+                            root.get("sender"), root.get("outgoingNumber"), root.get("outgoingDate"),
+                            root.get("content"), root.get("pages"), root.get("appendix"), root.get("note"),
+                            state.get("name"), state.get("id"), docOut.get("id"), docOut.get("number"), task.get("id"));
+                });
     }
 
     public DocIn findByRegNumber(String regNumber) {
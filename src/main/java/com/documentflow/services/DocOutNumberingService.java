@@ -0,0 +1,87 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.DocOut;
+import com.documentflow.entities.State;
+import com.documentflow.model.enums.BusinessKeyState;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Numbers of outgoing documents. A document gets its number once, when it is saved as approved or sent.
+ * The number comes from the counter of its journal and is formatted by the template of the document type:
+ * {@code documentflow.doc-out.numbering.template.<DOC_TYPE_KEY>} or the default template.
+ * Placeholders: {n} - number, {yy} and {yyyy} - year.
+ * Types with their own template have their own journal, the others share one.
+ */
+@Service
+public class DocOutNumberingService {
+
+    public static final String NO_NUMBER = "б/н";
+
+    private static final String JOURNAL = "DOC_OUT";
+    private static final String TEMPLATE_PROPERTY = "documentflow.doc-out.numbering.template.";
+    private static final Set<BusinessKeyState> NUMBERED_STATES = EnumSet.of(BusinessKeyState.APPROVED, BusinessKeyState.SENT);
+
+    private RegNumberAllocator regNumberAllocator;
+    private ReferenceRegistry referenceRegistry;
+    private Environment environment;
+
+    @Value("${documentflow.doc-out.numbering.default-template:ИСХ-{n}/{yy}}")
+    private String defaultTemplate;
+
+    @Autowired
+    public void setRegNumberAllocator(RegNumberAllocator regNumberAllocator) {
+        this.regNumberAllocator = regNumberAllocator;
+    }
+
+    @Autowired
+    public void setReferenceRegistry(ReferenceRegistry referenceRegistry) {
+        this.referenceRegistry = referenceRegistry;
+    }
+
+    @Autowired
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Give the document the next number of its journal if it is approved or sent and has no number yet
+     *
+     * @param docOut document to be saved
+     */
+    public void assignNumber(DocOut docOut) {
+        if (hasNumber(docOut) || !isNumbered(docOut.getState())) {
+            return;
+        }
+        String businessKey = docOut.getDocType() != null ? docOut.getDocType().getBusinessKey() : null;
+        String template = businessKey != null ? environment.getProperty(TEMPLATE_PROPERTY + businessKey) : null;
+        String journal = template != null ? JOURNAL + "_" + businessKey : JOURNAL;
+        LocalDate date = LocalDate.now();
+        docOut.setNumber(format(template != null ? template : defaultTemplate,
+                regNumberAllocator.next(journal, date.getYear()), date));
+    }
+
+    static String format(String template, long number, LocalDate date) {
+        return template
+                .replace("{n}", String.valueOf(number))
+                .replace("{yyyy}", String.valueOf(date.getYear()))
+                .replace("{yy}", String.format("%02d", date.getYear() % 100));
+    }
+
+    private boolean hasNumber(DocOut docOut) {
+        return StringUtils.isNotBlank(docOut.getNumber()) && !NO_NUMBER.equals(docOut.getNumber());
+    }
+
+    private boolean isNumbered(State state) {
+        return state != null && NUMBERED_STATES.stream()
+                .map(referenceRegistry::getState)
+                .anyMatch(numbered -> numbered != null && numbered.getId().equals(state.getId()));
+    }
+}
@@ -2,14 +2,21 @@ package com.documentflow.services;
 
 import com.documentflow.entities.DocOut;
 import com.documentflow.entities.User;
+import com.documentflow.entities.DTO.KeysetPage;
+import com.documentflow.model.enums.DocumentKind;
 import com.documentflow.repositories.DocOutRepository;
+import com.documentflow.repositories.KeysetRepository;
+import com.documentflow.search.DocumentFullTextIndex;
+import com.documentflow.utils.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -18,12 +25,30 @@ import java.util.List;
 public class DocOutService {
 
     private DocOutRepository docOutRepository;
+    private DocOutNumberingService docOutNumberingService;
+    private KeysetRepository keysetRepository;
+    private DocumentFullTextIndex fullTextIndex;
 
     @Autowired
     public void setDocOutRepository(DocOutRepository docOutRepository) {
         this.docOutRepository = docOutRepository;
     }
 
+    @Autowired
+    public void setKeysetRepository(KeysetRepository keysetRepository) {
+        this.keysetRepository = keysetRepository;
+    }
+
+    @Autowired
+    public void setDocOutNumberingService(DocOutNumberingService docOutNumberingService) {
+        this.docOutNumberingService = docOutNumberingService;
+    }
+
+    @Autowired
+    public void setFullTextIndex(DocumentFullTextIndex fullTextIndex) {
+        this.fullTextIndex = fullTextIndex;
+    }
+
     public DocOut findOneById(Long id) {
         return docOutRepository.findOneById(id);
     }
@@ -40,12 +65,16 @@ public class DocOutService {
         return docOutRepository.getByCreator(user);
     }
 
-    public Page<DocOut> findAllByPagingAndFiltering(Specification<DocOut> specification, Pageable pageable) {
-        return docOutRepository.findAll(specification, pageable);
+    public KeysetPage<DocOut> findPage(Specification<DocOut> specification, KeysetCursor<LocalDate> cursor, int size) {
+        return keysetRepository.findPage(DocOut.class, specification, "createDate", DocOut::getCreateDate,
+                Sort.Direction.DESC, cursor, size, "creator", "signer", "docType", "state", "task");
     }
 
     public <S extends DocOut> S save(S s) {
-        return docOutRepository.save(s);
+        docOutNumberingService.assignNumber(s);
+        S saved = docOutRepository.save(s);
+        fullTextIndex.index(saved);
+        return saved;
     }
 
 //    public Page<DocOut> findAllByCreator(User creator, Pageable pageable){
@@ -120,10 +149,12 @@ public class DocOutService {
 
     public void deleteById (Long id){
         docOutRepository.deleteById(id);
+        fullTextIndex.remove(DocumentKind.DOC_OUT, id);
     }
 
     public void delete(DocOut docOut){
         docOutRepository.delete(docOut);
+        fullTextIndex.remove(DocumentKind.DOC_OUT, docOut.getId());
     }
 
 //    public DocOut update(DocOutDTO docOutDTO){
@@ -2,6 +2,7 @@ package com.documentflow.services;
 
 import com.documentflow.entities.DocType;
 import com.documentflow.entities.State;
+import com.documentflow.model.enums.BusinessKeyDoc;
 import com.documentflow.repositories.DocTypeRepository;
 import com.documentflow.repositories.StateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,18 +14,24 @@ import java.util.List;
 public class DocTypeService {
 
     private DocTypeRepository docTypeRepository;
+    private ReferenceRegistry referenceRegistry;
 
     @Autowired
     public void setDocTypeRepository(DocTypeRepository docTypeRepository) {
         this.docTypeRepository = docTypeRepository;
     }
 
+    @Autowired
+    public void setReferenceRegistry(ReferenceRegistry referenceRegistry) {
+        this.referenceRegistry = referenceRegistry;
+    }
+
     public DocType getDocTypeById (int id) {
-        return docTypeRepository.findOneById(id);
+        return docTypeRepository.findById(id).orElse(null);
     }
 
-    public DocType getDocTypeByBusinessKey (String business_key) {
-        return docTypeRepository.findOneByBusinessKey(business_key);
+    public DocType getDocTypeByBusinessKey (BusinessKeyDoc businessKey) {
+        return referenceRegistry.getDocType(businessKey);
     }
 
     public List<DocType> findAllDocTypes() {
@@ -0,0 +1,69 @@
+package com.documentflow.services;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Open tasks of one user by due date. Keeps the number of overdue tasks as a sum and the rest by date;
+ * when the day changes, the dates that became past are added to the sum once,
+ * so every read and update costs O(1) amortized.
+ */
+class DueDateCounter {
+
+    private long open;
+    private long overdue;
+    //сроки не раньше asOf
+    private final TreeMap<LocalDate, Long> upcoming = new TreeMap<>();
+    private LocalDate asOf;
+
+    DueDateCounter(LocalDate today) {
+        asOf = today;
+    }
+
+    /**
+     * Count a task in or out
+     *
+     * @param endDate due date of the task, null if there is none
+     * @param delta   1 for a new open task, -1 for a task that is closed, reassigned or moved to another date
+     * @param today   current date
+     */
+    synchronized void add(LocalDate endDate, long delta, LocalDate today) {
+        roll(today);
+        open += delta;
+        if (endDate == null) {
+            return;
+        }
+        if (endDate.isBefore(asOf)) {
+            overdue += delta;
+        } else {
+            upcoming.merge(endDate, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    synchronized long getOpen() {
+        return open;
+    }
+
+    synchronized long getOverdue(LocalDate today) {
+        roll(today);
+        return overdue;
+    }
+
+    synchronized long getDueToday(LocalDate today) {
+        roll(today);
+        return upcoming.getOrDefault(today, 0L);
+    }
+
+    private void roll(LocalDate today) {
+        if (!today.isAfter(asOf)) {
+            return;
+        }
+        Map.Entry<LocalDate, Long> first;
+        while ((first = upcoming.firstEntry()) != null && first.getKey().isBefore(today)) {
+            overdue += first.getValue();
+            upcoming.pollFirstEntry();
+        }
+        asOf = today;
+    }
+}
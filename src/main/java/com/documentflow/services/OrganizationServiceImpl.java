@@ -1,24 +1,24 @@
 package com.documentflow.services;
 
 import com.documentflow.entities.Address;
-import com.documentflow.entities.Contragent;
 import com.documentflow.entities.Organization;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
 import com.documentflow.entities.dto.ContragentDtoParameters;
 import com.documentflow.exceptions.NotFoundIdException;
 import com.documentflow.exceptions.NotFoundOrganizationException;
+import com.documentflow.repositories.ContragentRepository;
 import com.documentflow.repositories.OrganizationRepository;
 import com.documentflow.repositories.specifications.OrganizationSpecifications;
 import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -27,6 +27,9 @@ public class OrganizationServiceImpl implements OrganizationService {
     @Autowired
     private OrganizationRepository organizationRepository;
 
+    @Autowired
+    private ContragentRepository contragentRepository;
+
     @Autowired
     private ContragentService contragentService;
 
@@ -41,16 +44,11 @@ public class OrganizationServiceImpl implements OrganizationService {
     @Override
     @Transactional(readOnly = true)
     public List<Organization> findAll(String nameCompany) {
-        Specification<Organization> spec = Specification.where(null);
+        Specification<Organization> spec = Specification.where(OrganizationSpecifications.hasNotDeletedContragent());
         if (StringUtils.isNotEmpty(nameCompany)) {
             spec = spec.and(OrganizationSpecifications.nameCompanyLike(nameCompany));
         }
-        return organizationRepository.findAll(spec).stream()
-                .filter(organization -> {
-                    return organization.getContragents().stream()
-                            .anyMatch(contragent -> !contragent.getIsDeleted());
-                })
-                .collect(Collectors.toList());
+        return organizationRepository.findAll(spec, Sort.by("id"));
     }
 
     @Override
@@ -81,15 +79,11 @@ public class OrganizationServiceImpl implements OrganizationService {
         String newNameOrganization = org.getName().toUpperCase().replace(" ", "");
 
         organization.setName(org.getName());
+        Organization savedOrganization = organizationRepository.save(organization);
 
-        organization.getContragents().forEach(contragent -> {
-            String oldSearchName = contragent.getSearchName();
-            String newSearchName = oldSearchName.replace(oldNameOrganization, newNameOrganization);
-            contragent.setSearchName(newSearchName);
-            contragentService.save(contragent);
-        });
-
-        return organizationRepository.save(organization);
+        //поисковые строки всех записей организации переписываются одним запросом, без загрузки контрагентов
+        contragentService.replaceOrganizationSearchName(savedOrganization.getId(), oldNameOrganization, newNameOrganization);
+        return savedOrganization;
     }
 
     @Override
@@ -108,54 +102,26 @@ public class OrganizationServiceImpl implements OrganizationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Address> getAddresses(Long id) {
 
-        Optional<Organization> optionalOrganization = organizationRepository.findById(id);
-        if (!optionalOrganization.isPresent()) {
+        List<Address> addresses = contragentRepository.findAllAddressesByOrganizationId(id);
+        //наличие организации проверяем, только если адресов нет
+        if (addresses.isEmpty() && !organizationRepository.existsById(id)) {
             throw new NotFoundOrganizationException();
         }
-
-        Organization organization = optionalOrganization.get();
-
-        //берем список записей, которые не помечены как удаленные
-        List<Contragent> contragents = organization.getContragents().stream()
-                .filter(contragent -> !contragent.getIsDeleted() && contragent.getAddress() != null)
-                .collect(Collectors.toList());
-        return contragents.stream()
-                //меняем ID адреса на ID контрагента, чтобы на фронте можно было удалить запись
-                .map(contragent -> new Address(contragent.getId(),
-                        contragent.getAddress().getIndex(),
-                        contragent.getAddress().getCountry(),
-                        contragent.getAddress().getCity(),
-                        contragent.getAddress().getStreet(),
-                        contragent.getAddress().getHouseNumber(),
-                        contragent.getAddress().getApartmentNumber()
-                ))
-                .collect(Collectors.toList());
+        return addresses;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ContragentDtoEmployee> getEmployees(Long id) {
 
-        Optional<Organization> optionalOrganization = organizationRepository.findById(id);
-        if (!optionalOrganization.isPresent()) {
+        List<ContragentDtoEmployee> employees = contragentRepository.findAllEmployeesByOrganizationId(id);
+        //наличие организации проверяем, только если сотрудников нет
+        if (employees.isEmpty() && !organizationRepository.existsById(id)) {
             throw new NotFoundOrganizationException();
         }
-
-        Organization organization = optionalOrganization.get();
-
-        //берем список записей, которые не помечены как удаленные и в которых присутствует сущность персоны
-        List<Contragent> contragents = organization.getContragents().stream()
-                .filter(contragent -> !contragent.getIsDeleted())
-                .filter(contragent -> contragent.getPerson() != null)
-                .collect(Collectors.toList());
-        return contragents.stream()
-                .map(contragent -> new ContragentDtoEmployee(contragent.getId().toString(),
-                        contragent.getPerson().getFirstName(),
-                        contragent.getPerson().getMiddleName(),
-                        contragent.getPerson().getLastName(),
-                        contragent.getPersonPosition())
-                )
-                .collect(Collectors.toList());
+        return employees;
     }
 }
@@ -35,14 +35,25 @@ public interface PersonService {
     Map<Person, String> save(ContragentDtoEmployee[] person);
 
     /**
-     * We search for all persons who meet the search conditions
+     * Find the contact persons of the organization in the database and add the missing ones.
+     * Uses one lookup by canonical keys and one insert of all missing persons
+     *
+     * @param employees contact persons of the organization
+     * @return map where key is person and value is position in company; the first position is kept for repeated persons
+     */
+    Map<Person, String> findOrCreate(ContragentDtoEmployee[] employees);
+
+    /**
+     * Search for a page of persons who meet the search conditions and have a contragent of their own that is not deleted
      *
      * @param firstName  first name
      * @param middleName middle name
      * @param lastName   last name
-     * @return list of persons
+     * @param afterId    id of the last person of the previous page, null for the first page
+     * @param limit      maximum number of persons
+     * @return persons ordered by id
      */
-    List<Person> findAll(String firstName, String middleName, String lastName);
+    List<Person> findAll(String firstName, String middleName, String lastName, Long afterId, int limit);
 
     /**
      * We search person who meet the search conditions. Strict search. If the field value is
@@ -1,23 +1,28 @@
 package com.documentflow.services;
 
 import com.documentflow.entities.Address;
-import com.documentflow.entities.Contragent;
 import com.documentflow.entities.Person;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
 import com.documentflow.entities.dto.ContragentDtoParameters;
 import com.documentflow.exceptions.NotFoundIdException;
 import com.documentflow.exceptions.NotFoundPersonException;
+import com.documentflow.repositories.ContragentJdbcRepository;
+import com.documentflow.repositories.KeysetRepository;
+import com.documentflow.repositories.ContragentRepository;
 import com.documentflow.repositories.PersonRepository;
 import com.documentflow.repositories.specifications.PersonSpecifications;
 import com.documentflow.utils.ContragentUtils;
 import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,12 +32,23 @@ import java.util.stream.Collectors;
 @Transactional
 public class PersonServiceImpl implements PersonService {
 
+    private static final int MAX_FIND_LIMIT = 500;
+
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private ContragentRepository contragentRepository;
+
     @Autowired
     private ContragentService contragentService;
 
+    @Autowired
+    private ContragentJdbcRepository contragentJdbcRepository;
+
+    @Autowired
+    private KeysetRepository keysetRepository;
+
     @Override
     public Person save(@NonNull ContragentDtoParameters contragentDto) {
 
@@ -63,6 +79,46 @@ public class PersonServiceImpl implements PersonService {
                 ));
     }
 
+    @Override
+    public Map<Person, String> findOrCreate(@NonNull ContragentDtoEmployee[] employees) {
+
+        //ключ - нормализованное ФИО, повторы схлопываются
+        Map<String, Person> candidates = new LinkedHashMap<>();
+        Map<String, String> positions = new HashMap<>();
+        Arrays.stream(employees)
+                .filter(ContragentUtils::isNotEmpty)
+                .forEach(employee -> {
+                    Person person = new Person(employee.getFirstName(), employee.getMiddleName(), employee.getLastName());
+                    String canonicalString = ContragentUtils.createCanonicalString(person);
+                    candidates.putIfAbsent(canonicalString, person);
+                    positions.putIfAbsent(canonicalString, employee.getPersonPosition());
+                });
+        if (candidates.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        Map<String, Person> persons = new HashMap<>();
+        List<String> keys = candidates.values().stream()
+                .peek(Person::updateCanonicalKey)
+                .map(Person::getCanonicalKey)
+                .collect(Collectors.toList());
+        personRepository.findAllByCanonicalKeyInOrderById(keys)
+                .forEach(person -> persons.putIfAbsent(ContragentUtils.createCanonicalString(person), person));
+
+        List<Person> missing = candidates.entrySet().stream()
+                .filter(entry -> !persons.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            personRepository.findAllById(contragentJdbcRepository.insertPersons(missing).values())
+                    .forEach(person -> persons.put(ContragentUtils.createCanonicalString(person), person));
+        }
+
+        Map<Person, String> result = new LinkedHashMap<>();
+        candidates.keySet().forEach(canonicalString -> result.put(persons.get(canonicalString), positions.get(canonicalString)));
+        return result;
+    }
+
     @Override
     public Person find(Long id) {
         Optional<Person> optionalPerson = personRepository.findById(id);
@@ -74,8 +130,8 @@ public class PersonServiceImpl implements PersonService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Person> findAll(String firstName, String middleName, String lastName) {
-        Specification<Person> spec = Specification.where(null);
+    public List<Person> findAll(String firstName, String middleName, String lastName, Long afterId, int limit) {
+        Specification<Person> spec = Specification.where(PersonSpecifications.hasNotDeletedOwnContragent());
         if (StringUtils.isNotEmpty(firstName)) {
             spec = spec.and(PersonSpecifications.firstNameEq(firstName.toUpperCase()));
         }
@@ -85,32 +141,23 @@ public class PersonServiceImpl implements PersonService {
         if (StringUtils.isNotEmpty(lastName)) {
             spec = spec.and(PersonSpecifications.lastNameEq(lastName.toUpperCase()));
         }
+        if (afterId != null) {
+            spec = spec.and(PersonSpecifications.idGreaterThan(afterId));
+        }
 
-        return personRepository.findAll(spec).stream()
-                .filter(person -> {
-                    return person.getContragents().stream()
-                            .anyMatch(c -> c.getOrganization() == null && !c.getIsDeleted());
-                })
-                .collect(Collectors.toList());
+        int pageSize = Math.max(1, Math.min(limit, MAX_FIND_LIMIT));
+        //страница без COUNT(*): курсор следующей страницы - id последней записи
+        return keysetRepository.find(Person.class, spec, Sort.by("id"), pageSize);
     }
 
     @Override
     public Person strongFind(Person person) {
-        Specification<Person> spec = Specification.where(null);
-        if (StringUtils.isNotEmpty(person.getFirstName())) {
-            spec = spec.and(PersonSpecifications.firstNameEq(person.getFirstName().toUpperCase()));
-        } else {
-            spec = spec.and(PersonSpecifications.firstNameIsNull());
-        }
-        if (StringUtils.isNotEmpty(person.getMiddleName())) {
-            spec = spec.and(PersonSpecifications.middleNameEq(person.getMiddleName().toUpperCase()));
-        } else {
-            spec = spec.and(PersonSpecifications.middleNameIsNull());
-        }
-        if (StringUtils.isNotEmpty(person.getLastName())) {
-            spec = spec.and(PersonSpecifications.lastNameEq(person.getLastName().toUpperCase()));
-        }
-        return personRepository.findOne(spec).orElse(null);
+        //точечный поиск по индексу хеша, совпадение хеша проверяем сравнением нормализованных ФИО
+        String canonicalString = ContragentUtils.createCanonicalString(person);
+        return personRepository.findAllByCanonicalKeyOrderById(ContragentUtils.createCanonicalKey(canonicalString)).stream()
+                .filter(found -> canonicalString.equals(ContragentUtils.createCanonicalString(found)))
+                .findFirst()
+                .orElse(null);
     }
 
     @Override
@@ -134,22 +181,17 @@ public class PersonServiceImpl implements PersonService {
         String newMiddleName = ContragentUtils.toUpperCase(per.getMiddleName());
         String newLastName = ContragentUtils.toUpperCase(per.getLastName());
 
-        String oldFIO = oldFirstName + oldMiddleName + oldLastName;
-        String newFIO = newFirstName + newMiddleName + newLastName;
+        String oldFIO = ContragentUtils.createSearchName(oldFirstName, oldMiddleName, oldLastName);
+        String newFIO = ContragentUtils.createSearchName(newFirstName, newMiddleName, newLastName);
 
         person.setFirstName(newFirstName);
         person.setMiddleName(newMiddleName);
         person.setLastName(newLastName);
+        Person savedPerson = personRepository.save(person);
 
-        person.getContragents().forEach(
-                contragent -> {
-                    String oldSearchName = contragent.getSearchName();
-                    String newSearchName = oldSearchName.replace(oldFIO, newFIO);
-                    contragent.setSearchName(newSearchName);
-                    contragentService.save(contragent);
-                }
-        );
-        return personRepository.save(person);
+        //поисковые строки всех записей персоны переписываются одним запросом, без загрузки контрагентов
+        contragentService.replacePersonSearchName(savedPerson.getId(), oldFIO, newFIO);
+        return savedPerson;
     }
 
     @Override
@@ -168,29 +210,14 @@ public class PersonServiceImpl implements PersonService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Address> getAddresses(Long id) {
 
-        Optional<Person> optionalPerson = personRepository.findById(id);
-        if (!optionalPerson.isPresent()) {
+        List<Address> addresses = contragentRepository.findAllAddressesByPersonId(id);
+        //наличие персоны проверяем, только если адресов нет
+        if (addresses.isEmpty() && !personRepository.existsById(id)) {
             throw new NotFoundPersonException();
         }
-
-        Person person = optionalPerson.get();
-
-        //берем список записей, которые не помечены как удаленные
-        List<Contragent> contragents = person.getContragents().stream()
-                .filter(contragent -> !contragent.getIsDeleted())
-                .collect(Collectors.toList());
-        return contragents.stream()
-                //меняем ID адреса на ID контрагента, чтобы на фронте можно было удалить запись
-                .map(contragent -> new Address(contragent.getId(),
-                        contragent.getAddress().getIndex(),
-                        contragent.getAddress().getCountry(),
-                        contragent.getAddress().getCity(),
-                        contragent.getAddress().getStreet(),
-                        contragent.getAddress().getHouseNumber(),
-                        contragent.getAddress().getApartmentNumber()
-                ))
-                .collect(Collectors.toList());
+        return addresses;
     }
 }
@@ -0,0 +1,106 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.DocType;
+import com.documentflow.entities.State;
+import com.documentflow.entities.TaskType;
+import com.documentflow.model.enums.BusinessKeyDoc;
+import com.documentflow.model.enums.BusinessKeyState;
+import com.documentflow.model.enums.BusinessKeyTask;
+import com.documentflow.repositories.DocTypeRepository;
+import com.documentflow.repositories.StateRepository;
+import com.documentflow.repositories.TaskTypeRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * States, task types and document types by their business key enums. The rows are loaded at startup
+ * and after the cache is evicted; the startup fails if an enum constant has no row.
+ * The returned entities are detached and shared, they must not be modified.
+ */
+@Slf4j
+@Component
+public class ReferenceRegistry {
+
+    private StateRepository stateRepository;
+    private TaskTypeRepository taskTypeRepository;
+    private DocTypeRepository docTypeRepository;
+
+    @Value("${documentflow.reference.fail-on-missing:true}")
+    private boolean failOnMissing;
+
+    //подменяется целиком, чтобы читатели всегда видели согласованный набор
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public void setStateRepository(StateRepository stateRepository) {
+        this.stateRepository = stateRepository;
+    }
+
+    @Autowired
+    public void setTaskTypeRepository(TaskTypeRepository taskTypeRepository) {
+        this.taskTypeRepository = taskTypeRepository;
+    }
+
+    @Autowired
+    public void setDocTypeRepository(DocTypeRepository docTypeRepository) {
+        this.docTypeRepository = docTypeRepository;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        snapshot = new Snapshot(
+                load(BusinessKeyState.class, stateRepository.findAll(), State::getBusinessKey),
+                load(BusinessKeyTask.class, taskTypeRepository.findAll(), TaskType::getBusinessKey),
+                load(BusinessKeyDoc.class, docTypeRepository.findAll(), DocType::getBusinessKey));
+    }
+
+    public State getState(BusinessKeyState key) {
+        return snapshot.states.get(key);
+    }
+
+    public TaskType getTaskType(BusinessKeyTask key) {
+        return snapshot.taskTypes.get(key);
+    }
+
+    public DocType getDocType(BusinessKeyDoc key) {
+        return snapshot.docTypes.get(key);
+    }
+
+    private <K extends Enum<K>, V> Map<K, V> load(Class<K> type, List<V> rows, Function<V, String> businessKey) {
+        Map<String, V> byBusinessKey = new HashMap<>();
+        rows.forEach(row -> byBusinessKey.put(businessKey.apply(row), row));
+
+        Map<K, V> values = new EnumMap<>(type);
+        List<K> missing = new ArrayList<>();
+        for (K key : type.getEnumConstants()) {
+            V row = byBusinessKey.get(key.name());
+            if (row != null) {
+                values.put(key, row);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            String message = "No rows for " + type.getSimpleName() + " business keys " + missing;
+            if (failOnMissing) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final Map<BusinessKeyState, State> states;
+        private final Map<BusinessKeyTask, TaskType> taskTypes;
+        private final Map<BusinessKeyDoc, DocType> docTypes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.documentflow.services;
+
+import com.documentflow.repositories.RegNumberCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out registration numbers that are unique within a journal and a year. A new year starts a new counter from 1.
+ * <p>
+ * With block size 1 every number is reserved in the caller's transaction: a registration that rolls back
+ * returns its number, so the journal has no gaps, and the counter row stays locked until the caller commits.
+ * With a bigger block size numbers are reserved in blocks (hi/lo) in a separate transaction and most calls
+ * are served from memory; numbers of failed registrations and numbers left in a block when the application
+ * stops are lost, so the journal may have gaps.
+ */
+@Component
+public class RegNumberAllocator {
+
+    private RegNumberCounterRepository counterRepository;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate blockTransactionTemplate;
+
+    @Value("${documentflow.reg-number.block-size:1}")
+    private int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public void setCounterRepository(RegNumberCounterRepository counterRepository) {
+        this.counterRepository = counterRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        //одиночный номер - в транзакции регистрации, чтобы откатиться вместе с ней
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        //блок резервируется в своей транзакции, чтобы не держать блокировку строки счетчика до конца регистрации
+        blockTransactionTemplate = new TransactionTemplate(transactionManager);
+        blockTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next number of the journal
+     *
+     * @param journal journal name
+     * @param year    registration year
+     * @return number, starting from 1 every year
+     */
+    public long next(String journal, int year) {
+        if (blockSize <= 1) {
+            Long number = transactionTemplate.execute(status -> counterRepository.reserve(journal, year, 1));
+            return number != null ? number : 0;
+        }
+        Block block = blocks.computeIfAbsent(journal, key -> new Block());
+        synchronized (block) {
+            if (block.year != year || block.next > block.last) {
+                int size = blockSize;
+                Long last = blockTransactionTemplate.execute(status -> counterRepository.reserve(journal, year, size));
+                block.year = year;
+                block.last = last != null ? last : 0;
+                block.next = block.last - size + 1;
+            }
+            return block.next++;
+        }
+    }
+
+    private static class Block {
+        private int year;
+        private long next = 1;
+        private long last;
+    }
+}
@@ -0,0 +1,313 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.*;
+import com.documentflow.entities.DTO.ExportJobDTO;
+import com.documentflow.exceptions.BadArgumentException;
+import com.documentflow.exceptions.NotFoundIdException;
+import com.documentflow.model.enums.DocumentKind;
+import com.documentflow.model.enums.ExportFormat;
+import com.documentflow.model.enums.ExportStatus;
+import com.documentflow.repositories.RegistryExportRepository;
+import com.documentflow.utils.RegistryWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exports of the incoming and outgoing journals. A job reads the filtered registry from a database cursor
+ * and writes the file row by row on a background thread, the request only starts the job; the result is
+ * downloaded by the user who started it and removed after the configured time. Expired files are removed
+ * periodically, including the ones left in the directory before a restart.
+ */
+@Slf4j
+@Service
+public class RegistryExportService {
+
+    private static final Object[] DOC_IN_HEADER = {"Рег. номер", "Дата регистрации", "Тип документа", "Отправитель",
+            "Исх. номер", "Исх. дата", "Содержание", "Листов", "Приложение", "Примечание", "Статус", "Регистратор"};
+    private static final Object[] DOC_OUT_HEADER = {"Номер", "Дата создания", "Дата регистрации", "Тип документа",
+            "Исполнитель", "Подписант", "Содержание", "Листов", "Приложение", "Примечание", "Статус"};
+
+    private RegistryExportRepository registryExportRepository;
+    private PlatformTransactionManager transactionManager;
+
+    //пусто - временный каталог системы
+    @Value("${documentflow.export.directory:}")
+    private String directoryPath;
+
+    @Value("${documentflow.export.threads:2}")
+    private int threads;
+
+    @Value("${documentflow.export.keep-minutes:60}")
+    private long keepMinutes;
+
+    //0 - файлы удаляются только при запуске приложения и новых выгрузок
+    @Value("${documentflow.export.cleanup-minutes:5}")
+    private long cleanupMinutes;
+
+    private Path directory;
+    private ExecutorService executor;
+    private ScheduledExecutorService cleaner;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public void setRegistryExportRepository(RegistryExportRepository registryExportRepository) {
+        this.registryExportRepository = registryExportRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        directory = StringUtils.isBlank(directoryPath)
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "documentflow-export")
+                : Paths.get(directoryPath);
+        Files.createDirectories(directory);
+        executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        //файлы, оставшиеся от прошлого запуска
+        removeExpired();
+        if (cleanupMinutes > 0) {
+            cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "registry-export-cleanup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            cleaner.scheduleWithFixedDelay(this::removeExpired, cleanupMinutes, cleanupMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start the export of the incoming journal in the order of registration
+     *
+     * @param filter filter of the registry
+     * @param format file format
+     * @param owner  user name, only this user can download the file
+     * @return the started job
+     */
+    public ExportJobDTO exportDocIn(Specification<DocIn> filter, ExportFormat format, String owner) {
+        return submit(DocumentKind.DOC_IN, format, owner, DOC_IN_HEADER,
+                () -> registryExportRepository.stream(DocIn.class, filter, Sort.by("regDate", "id"), (root, criteriaBuilder) -> {
+                    Join<DocIn, User> user = root.join("user", JoinType.LEFT);
+                    Join<DocIn, DocType> docType = root.join("docType", JoinType.LEFT);
+                    Join<DocIn, State> state = root.join("state", JoinType.LEFT);
+                    return Arrays.asList(root.get("regNumber"), root.get("regDate"), docType.get("name"), root.get("sender"),
+                            root.get("outgoingNumber"), root.get("outgoingDate"), root.get("content"), root.get("pages"),
+                            root.get("appendix"), root.get("note"), state.get("name"),
+                            user.get("lastName"), user.get("firstName"), user.get("middleName"));
+                }).map(row -> new Object[]{row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7], row[8], row[9],
+                        row[10], fio(row, 11)}));
+    }
+
+    /**
+     * Start the export of the outgoing journal in the order of creation
+     *
+     * @param filter filter of the registry
+     * @param format file format
+     * @param owner  user name, only this user can download the file
+     * @return the started job
+     */
+    public ExportJobDTO exportDocOut(Specification<DocOut> filter, ExportFormat format, String owner) {
+        return submit(DocumentKind.DOC_OUT, format, owner, DOC_OUT_HEADER,
+                () -> registryExportRepository.stream(DocOut.class, filter, Sort.by("createDate", "id"), (root, criteriaBuilder) -> {
+                    Join<DocOut, User> creator = root.join("creator", JoinType.LEFT);
+                    Join<DocOut, User> signer = root.join("signer", JoinType.LEFT);
+                    Join<DocOut, DocType> docType = root.join("docType", JoinType.LEFT);
+                    Join<DocOut, State> state = root.join("state", JoinType.LEFT);
+                    return Arrays.asList(root.get("number"), root.get("createDate"), root.get("regDate"), docType.get("name"),
+                            creator.get("lastName"), creator.get("firstName"), creator.get("middleName"),
+                            signer.get("lastName"), signer.get("firstName"), signer.get("middleName"),
+                            root.get("content"), root.get("pages"), root.get("appendix"), root.get("note"), state.get("name"));
+                }).map(row -> new Object[]{row[0], row[1], row[2], row[3], fio(row, 4), fio(row, 7), row[10], row[11],
+                        row[12], row[13], row[14]}));
+    }
+
+    /**
+     * State of the job
+     *
+     * @param kind  journal the job was started for
+     * @param id    job id
+     * @param owner user name
+     * @return the job
+     */
+    public ExportJobDTO getJob(DocumentKind kind, String id, String owner) {
+        return findJob(kind, id, owner).toDto();
+    }
+
+    /**
+     * File of the finished job
+     *
+     * @param kind  journal the job was started for
+     * @param id    job id
+     * @param owner user name
+     * @return path to the file
+     */
+    public Path getFile(DocumentKind kind, String id, String owner) {
+        Job job = findJob(kind, id, owner);
+        if (job.status != ExportStatus.DONE) {
+            throw new BadArgumentException("Export is not finished: " + job.status);
+        }
+        return job.file;
+    }
+
+    private ExportJobDTO submit(DocumentKind kind, ExportFormat format, String owner, Object[] header, RowSource rows) {
+        removeExpired();
+        Job job = new Job(UUID.randomUUID().toString(), kind, format, owner);
+        job.file = directory.resolve(job.id + "." + format.getExtension());
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job, header, rows));
+        return job.toDto();
+    }
+
+    private void run(Job job, Object[] header, RowSource rows) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        //курсор PostgreSQL работает только внутри транзакции
+        transactionTemplate.setReadOnly(true);
+        try (OutputStream output = Files.newOutputStream(job.file)) {
+            transactionTemplate.execute(status -> {
+                try (RegistryWriter writer = RegistryWriter.create(job.format, output);
+                     Stream<Object[]> stream = rows.open()) {
+                    writer.writeRow(header);
+                    Iterator<Object[]> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        writer.writeRow(iterator.next());
+                        job.rows++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+            job.status = ExportStatus.DONE;
+            log.info("Export {} of {} finished: {} rows", job.id, job.kind, job.rows);
+        } catch (IOException | RuntimeException e) {
+            log.error("Export " + job.id + " of " + job.kind + " failed", e);
+            job.error = e.getMessage();
+            job.status = ExportStatus.FAILED;
+            deleteFile(job);
+        }
+    }
+
+    private Job findJob(DocumentKind kind, String id, String owner) {
+        Job job = jobs.get(id);
+        if (job == null || job.kind != kind || !job.owner.equals(owner)) {
+            throw new NotFoundIdException();
+        }
+        return job;
+    }
+
+    //выгрузки старше срока хранения удаляются вместе с файлами, как и файлы без выгрузки: от прошлого запуска
+    private void removeExpired() {
+        LocalDateTime expired = LocalDateTime.now().minusMinutes(keepMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.status == ExportStatus.RUNNING || job.createdAt.isAfter(expired)) {
+                return false;
+            }
+            deleteFile(job);
+            return true;
+        });
+        Set<Path> files = jobs.values().stream().map(job -> job.file).collect(Collectors.toSet());
+        Set<String> extensions = Arrays.stream(ExportFormat.values()).map(format -> "." + format.getExtension()).collect(Collectors.toSet());
+        FileTime expiredTime = FileTime.from(Instant.now().minus(keepMinutes, ChronoUnit.MINUTES));
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter(path -> !files.contains(path))
+                    .filter(path -> extensions.stream().anyMatch(path.getFileName().toString()::endsWith))
+                    .filter(path -> isModifiedBefore(path, expiredTime))
+                    .forEach(this::deleteFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Export directory {} is not cleaned up", directory, e);
+        }
+    }
+
+    private boolean isModifiedBefore(Path path, FileTime time) {
+        try {
+            return Files.isRegularFile(path) && Files.getLastModifiedTime(path).compareTo(time) < 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteFile(Job job) {
+        deleteFile(job.file);
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Export file {} is not deleted", file, e);
+        }
+    }
+
+    private static String fio(Object[] row, int lastName) {
+        return row[lastName] == null ? null
+                : row[lastName] + " " + StringUtils.left((String) row[lastName + 1], 1) + "." + StringUtils.left((String) row[lastName + 2], 1);
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        Stream<Object[]> open();
+    }
+
+    private static class Job {
+        private final String id;
+        private final DocumentKind kind;
+        private final ExportFormat format;
+        private final String owner;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private Path file;
+        private volatile ExportStatus status = ExportStatus.RUNNING;
+        private volatile long rows;
+        private volatile String error;
+
+        private Job(String id, DocumentKind kind, ExportFormat format, String owner) {
+            this.id = id;
+            this.kind = kind;
+            this.format = format;
+            this.owner = owner;
+        }
+
+        private ExportJobDTO toDto() {
+            return new ExportJobDTO(id, kind, format, status, rows, error, createdAt);
+        }
+    }
+}
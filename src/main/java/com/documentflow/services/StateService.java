@@ -1,33 +1,58 @@
 package com.documentflow.services;
 
 import com.documentflow.entities.State;
+import com.documentflow.model.enums.BusinessKeyState;
 import com.documentflow.repositories.StateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class StateService {
 
+    //поручение в этих статусах закрыто
+    private static final EnumSet<BusinessKeyState> CLOSED_TASK_STATES = EnumSet.of(BusinessKeyState.EXECUTED,
+            BusinessKeyState.APPROVED, BusinessKeyState.SENT, BusinessKeyState.RECALLED, BusinessKeyState.DELETED);
+
     private StateRepository stateRepository;
+    private ReferenceRegistry referenceRegistry;
 
     @Autowired
     public void setStateRepository(StateRepository stateRepository) {
         this.stateRepository = stateRepository;
     }
 
+    @Autowired
+    public void setReferenceRegistry(ReferenceRegistry referenceRegistry) {
+        this.referenceRegistry = referenceRegistry;
+    }
+
     public State getStateById (int id) {
-        return stateRepository.findOneById(id);
+        return stateRepository.findById(id).orElse(null);
     }
 
-    public State getStateByBusinessKey (String business_key) {
-        return stateRepository.findOneByBusinessKey(business_key);
+    public State getStateByBusinessKey (BusinessKeyState businessKey) {
+        return referenceRegistry.getState(businessKey);
     }
 
     public List<State> findAllStates() {
         return stateRepository.findAll();
     }
 
+    /**
+     * @return ids of the states in which a task is closed and needs no more work
+     */
+    public Set<Integer> getClosedTaskStateIds() {
+        return CLOSED_TASK_STATES.stream()
+                .map(this::getStateByBusinessKey)
+                .filter(Objects::nonNull)
+                .map(State::getId)
+                .collect(Collectors.toSet());
+    }
 
 }
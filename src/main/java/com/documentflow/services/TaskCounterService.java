@@ -0,0 +1,250 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.DTO.TaskCountersDTO;
+import com.documentflow.entities.Task;
+import com.documentflow.utils.TransactionUtils;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user counters of open tasks for the inbox badges, kept in memory. A task is open unless its state
+ * is one of {@link StateService#getClosedTaskStateIds()}. The counters are loaded at startup, changed by {@link TaskService#save} after commit
+ * and rebuilt from the table periodically and on demand, which also repairs drift from concurrent saves of one task.
+ */
+@Slf4j
+@Service
+public class TaskCounterService {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private StateService stateService;
+
+    @Value("${documentflow.task-counters.rebuild-interval-minutes:60}")
+    private long rebuildIntervalMinutes;
+
+    private Clock clock = Clock.systemDefaultZone();
+    private volatile Counters counters = new Counters();
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+    private ScheduledExecutorService rebuilder;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Autowired
+    public void setJdbcTemplate(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Autowired
+    public void setStateService(StateService stateService) {
+        this.stateService = stateService;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuild();
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-counters-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (rebuildIntervalMinutes > 0) {
+            rebuilder.scheduleWithFixedDelay(() -> {
+                if (rebuilding.compareAndSet(false, true)) {
+                    rebuildInBackground();
+                }
+            }, rebuildIntervalMinutes, rebuildIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * Start {@link #rebuild()} in the background thread of the periodic rebuild
+     *
+     * @return false if a rebuild is already running
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuilder.execute(this::rebuildInBackground);
+        return true;
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Task counters rebuild failed", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Count the open tasks again from the table and replace the counters
+     */
+    public void rebuild() {
+        LocalDate today = LocalDate.now(clock);
+        Counters rebuilt = new Counters();
+        Set<Integer> closed = stateService.getClosedTaskStateIds();
+        //пустой список в IN недопустим, id -1 не встречается
+        MapSqlParameterSource parameters = new MapSqlParameterSource("closed", closed.isEmpty() ? Collections.singleton(-1) : closed);
+        jdbcTemplate.query("SELECT executor_id, end_date, COUNT(*) AS tasks FROM tasks " +
+                        "WHERE executor_id IS NOT NULL AND (state_id IS NULL OR state_id NOT IN (:closed)) " +
+                        "GROUP BY executor_id, end_date", parameters,
+                (RowCallbackHandler) resultSet -> {
+                    Date endDate = resultSet.getDate("end_date");
+                    rebuilt.assigned(resultSet.getInt("executor_id"), today)
+                            .add(endDate != null ? endDate.toLocalDate() : null, resultSet.getLong("tasks"), today);
+                });
+        jdbcTemplate.query("SELECT author_id, COUNT(*) AS tasks FROM tasks " +
+                        "WHERE author_id IS NOT NULL AND (state_id IS NULL OR state_id NOT IN (:closed)) " +
+                        "GROUP BY author_id", parameters,
+                (RowCallbackHandler) resultSet -> rebuilt.authored(resultSet.getInt("author_id")).add(resultSet.getLong("tasks")));
+        counters = rebuilt;
+        userIds.clear();
+        log.info("Task counters rebuilt: {} executors, {} authors", rebuilt.assigned.size(), rebuilt.authored.size());
+    }
+
+    /**
+     * Badges of the user
+     *
+     * @param username login of the user
+     * @return counters, zeros for a user without open tasks
+     */
+    public TaskCountersDTO getCounters(String username) {
+        Integer userId = findUserId(username);
+        Counters current = counters;
+        LocalDate today = LocalDate.now(clock);
+        DueDateCounter assigned = userId != null ? current.assigned.get(userId) : null;
+        LongAdder authored = userId != null ? current.authored.get(userId) : null;
+        return new TaskCountersDTO(
+                assigned != null ? assigned.getOpen() : 0,
+                assigned != null ? assigned.getOverdue(today) : 0,
+                assigned != null ? assigned.getDueToday(today) : 0,
+                authored != null ? authored.sum() : 0);
+    }
+
+    /**
+     * What the task counts as in the table now, read before the task is saved
+     *
+     * @param taskId id of a saved task, null for a new one
+     * @return how the saved version is counted, null if it is not counted
+     */
+    public Snapshot findSnapshot(Long taskId) {
+        if (taskId == null) {
+            return null;
+        }
+        List<Snapshot> snapshots = jdbcTemplate.query("SELECT author_id, executor_id, state_id, end_date FROM tasks WHERE id = :id",
+                new MapSqlParameterSource("id", taskId),
+                (resultSet, i) -> {
+                    Date endDate = resultSet.getDate("end_date");
+                    return createSnapshot((Integer) resultSet.getObject("author_id"), (Integer) resultSet.getObject("executor_id"),
+                            (Integer) resultSet.getObject("state_id"), endDate != null ? endDate.toLocalDate() : null);
+                });
+        return snapshots.isEmpty() ? null : snapshots.get(0);
+    }
+
+    /**
+     * Move the task from its previous counters to the new ones after the current transaction commits
+     *
+     * @param before counted version from {@link #findSnapshot}, null for a new task
+     * @param task   saved task
+     */
+    public void update(Snapshot before, Task task) {
+        Snapshot after = createSnapshot(
+                task.getAuthor() != null ? task.getAuthor().getId() : null,
+                task.getExecutor() != null ? task.getExecutor().getId() : null,
+                task.getState() != null ? task.getState().getId() : null,
+                task.getEndDate());
+        TransactionUtils.afterCommit(() -> {
+            Counters current = counters;
+            LocalDate today = LocalDate.now(clock);
+            apply(current, before, -1, today);
+            apply(current, after, 1, today);
+        });
+    }
+
+    private void apply(Counters current, Snapshot snapshot, long delta, LocalDate today) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.executorId != null) {
+            current.assigned(snapshot.executorId, today).add(snapshot.endDate, delta, today);
+        }
+        if (snapshot.authorId != null) {
+            current.authored(snapshot.authorId).add(delta);
+        }
+    }
+
+    private Snapshot createSnapshot(Integer authorId, Integer executorId, Integer stateId, LocalDate endDate) {
+        if (stateId != null && stateService.getClosedTaskStateIds().contains(stateId)) {
+            return null;
+        }
+        return new Snapshot(authorId, executorId, endDate);
+    }
+
+    private Integer findUserId(String username) {
+        Integer userId = userIds.get(username);
+        if (userId == null) {
+            List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM sys_users WHERE login = :login",
+                    new MapSqlParameterSource("login", username), Integer.class);
+            if (ids.isEmpty()) {
+                return null;
+            }
+            userId = ids.get(0);
+            userIds.put(username, userId);
+        }
+        return userId;
+    }
+
+    /**
+     * How a task is counted: its author, executor and due date
+     */
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final Integer authorId;
+        private final Integer executorId;
+        private final LocalDate endDate;
+    }
+
+    private static class Counters {
+        private final Map<Integer, DueDateCounter> assigned = new ConcurrentHashMap<>();
+        private final Map<Integer, LongAdder> authored = new ConcurrentHashMap<>();
+
+        private DueDateCounter assigned(Integer userId, LocalDate today) {
+            return assigned.computeIfAbsent(userId, id -> new DueDateCounter(today));
+        }
+
+        private LongAdder authored(Integer userId) {
+            return authored.computeIfAbsent(userId, id -> new LongAdder());
+        }
+    }
+}
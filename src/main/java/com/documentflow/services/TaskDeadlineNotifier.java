@@ -0,0 +1,27 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.dto.TaskDeadlineEvent;
+import com.documentflow.model.enums.DeadlineKind;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers reminders and escalations of task due dates to their recipients.
+ * There is no mail or messaging yet, so the notification is written to the application log
+ */
+@Slf4j
+@Component
+public class TaskDeadlineNotifier {
+
+    @EventListener
+    public void notify(TaskDeadlineEvent event) {
+        if (event.getKind() == DeadlineKind.REMINDER) {
+            log.info("Reminder to user {}: task {} \"{}\" is due {}",
+                    event.getRecipientId(), event.getTaskId(), event.getTaskName(), event.getEndDate());
+        } else {
+            log.warn("Escalation to user {}: task {} \"{}\" of executor {} was due {}",
+                    event.getRecipientId(), event.getTaskId(), event.getTaskName(), event.getExecutorId(), event.getEndDate());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.Task;
+import com.documentflow.entities.dto.TaskDeadlineEvent;
+import com.documentflow.model.enums.DeadlineKind;
+import com.documentflow.repositories.TaskDeadlineJdbcRepository;
+import com.documentflow.repositories.TaskDeadlineJdbcRepository.Deadline;
+import com.documentflow.utils.TimerWheel;
+import com.documentflow.utils.TransactionUtils;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes {@link TaskDeadlineEvent}s for task due dates: a reminder to the executor remind-before-hours
+ * before the end of the due day and an escalation to the executor's boss escalate-after-hours after it.
+ * <p>
+ * Upcoming deadlines are kept in a {@link TimerWheel}; open tasks due within its horizon are read in chunks
+ * by the (end_date, id) index at startup and as the horizon moves, tasks saved through {@link TaskService}
+ * are added after commit. Expired timers are handled in chunks: the tasks are read again with one query,
+ * timers of closed tasks and of moved due dates are dropped, and the events are claimed in the table
+ * with one conditional update before they are published. Only the instance that claimed an event publishes it,
+ * so several instances do not send duplicates and after a restart only the events not claimed yet are due.
+ * An event that fails to publish after its claim is logged and not repeated.
+ */
+@Slf4j
+@Component
+public class TaskDeadlineScheduler {
+
+    private TaskDeadlineJdbcRepository taskDeadlineJdbcRepository;
+    private StateService stateService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${documentflow.deadlines.enabled:true}")
+    private boolean enabled;
+
+    @Value("${documentflow.deadlines.tick-seconds:60}")
+    private long tickSeconds;
+
+    @Value("${documentflow.deadlines.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${documentflow.deadlines.wheel-levels:3}")
+    private int wheelLevels;
+
+    @Value("${documentflow.deadlines.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${documentflow.deadlines.remind-before-hours:24}")
+    private long remindBeforeHours;
+
+    @Value("${documentflow.deadlines.escalate-after-hours:0}")
+    private long escalateAfterHours;
+
+    private Clock clock = Clock.systemDefaultZone();
+    private final Object lock = new Object();
+    private TimerWheel<Timer> wheel;
+    //поручения со сроком до этой даты включительно уже в колесе или добавляются в него при сохранении
+    private LocalDate loadedUntil;
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public void setTaskDeadlineJdbcRepository(TaskDeadlineJdbcRepository taskDeadlineJdbcRepository) {
+        this.taskDeadlineJdbcRepository = taskDeadlineJdbcRepository;
+    }
+
+    @Autowired
+    public void setStateService(StateService stateService) {
+        this.stateService = stateService;
+    }
+
+    @Autowired
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        init();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Task deadline tick failed", e);
+            }
+        }, tickSeconds, tickSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Add the due date of the task after the current transaction commits. A date beyond the loaded ones is read
+     * from the table when the wheel gets to it, a timer of a closed task or of a changed date is dropped on expiry
+     *
+     * @param task saved task
+     */
+    public void schedule(Task task) {
+        Long id = task.getId();
+        LocalDate endDate = task.getEndDate();
+        if (id == null || endDate == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            synchronized (lock) {
+                if (loadedUntil != null && !endDate.isAfter(loadedUntil)) {
+                    put(id, endDate, false);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return number of timers waiting in the wheel
+     */
+    public int getScheduledCount() {
+        synchronized (lock) {
+            return wheel != null ? wheel.size() : 0;
+        }
+    }
+
+    void init() {
+        synchronized (lock) {
+            wheel = new TimerWheel<>(TimeUnit.SECONDS.toMillis(tickSeconds), wheelSize, wheelLevels, clock.millis());
+            loadedUntil = null;
+        }
+        long loaded = load();
+        log.info("Task deadlines loaded: {} tasks, {} timers", loaded, getScheduledCount());
+    }
+
+    void tick() {
+        List<Timer> expired;
+        synchronized (lock) {
+            expired = wheel.advance(clock.millis());
+        }
+        for (int from = 0; from < expired.size(); from += chunkSize) {
+            fire(expired.subList(from, Math.min(expired.size(), from + chunkSize)));
+        }
+        load();
+    }
+
+    //читает поручения со сроком после уже загруженных и до горизонта колеса
+    private long load() {
+        LocalDate from;
+        LocalDate until;
+        synchronized (lock) {
+            until = lastLoadableDate(wheel.getHorizon());
+            if (loadedUntil != null && !until.isAfter(loadedUntil)) {
+                return 0;
+            }
+            from = loadedUntil;
+            //сохраненные с этого момента поручения добавляются сами, повтор отсеется при срабатывании
+            loadedUntil = until;
+        }
+        Set<Integer> closedStateIds = stateService.getClosedTaskStateIds();
+        LocalDate afterDate = from;
+        Long afterId = from != null ? Long.MAX_VALUE : null;
+        long total = 0;
+        List<Deadline> chunk;
+        do {
+            chunk = taskDeadlineJdbcRepository.findDue(closedStateIds, afterDate, afterId, until, chunkSize);
+            synchronized (lock) {
+                chunk.forEach(deadline -> put(deadline.getId(), deadline.getEndDate(), deadline.isSent(DeadlineKind.REMINDER)));
+            }
+            if (!chunk.isEmpty()) {
+                Deadline last = chunk.get(chunk.size() - 1);
+                afterDate = last.getEndDate();
+                afterId = last.getId();
+                total += chunk.size();
+            }
+        } while (chunk.size() == chunkSize);
+        return total;
+    }
+
+    private void put(Long id, LocalDate endDate, boolean reminded) {
+        long deadline = endDate.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        long escalateAt = deadline + TimeUnit.HOURS.toMillis(escalateAfterHours);
+        //после долгого простоя о просроченном поручении сразу эскалируем, без напоминания
+        if (!reminded && escalateAt > clock.millis()) {
+            wheel.schedule(deadline - TimeUnit.HOURS.toMillis(remindBeforeHours), new Timer(id, endDate, DeadlineKind.REMINDER));
+        }
+        wheel.schedule(escalateAt, new Timer(id, endDate, DeadlineKind.ESCALATION));
+    }
+
+    //самый поздний срок, эскалация по которому еще помещается в колесо
+    private LocalDate lastLoadableDate(long horizon) {
+        return Instant.ofEpochMilli(horizon - TimeUnit.HOURS.toMillis(escalateAfterHours))
+                .atZone(clock.getZone())
+                .toLocalDate()
+                .minusDays(1);
+    }
+
+    private void fire(List<Timer> timers) {
+        Map<Long, Deadline> deadlines = taskDeadlineJdbcRepository.findByIds(timers.stream()
+                .map(timer -> timer.taskId)
+                .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Deadline::getId, Function.identity()));
+        Set<Integer> closedStateIds = stateService.getClosedTaskStateIds();
+        Map<DeadlineKind, Map<Long, LocalDate>> due = new EnumMap<>(DeadlineKind.class);
+        for (Timer timer : new LinkedHashSet<>(timers)) {
+            Deadline deadline = deadlines.get(timer.taskId);
+            if (deadline == null || !timer.endDate.equals(deadline.getEndDate()) || deadline.isSent(timer.kind)
+                    || (deadline.getStateId() != null && closedStateIds.contains(deadline.getStateId()))) {
+                continue;
+            }
+            due.computeIfAbsent(timer.kind, kind -> new HashMap<>()).put(deadline.getId(), deadline.getEndDate());
+        }
+        Map<DeadlineKind, Integer> sent = new EnumMap<>(DeadlineKind.class);
+        due.forEach((kind, dates) -> {
+            //событие отправляет только копия приложения, которая его отметила
+            for (Long id : taskDeadlineJdbcRepository.claim(kind, dates)) {
+                if (publish(kind, deadlines.get(id))) {
+                    sent.merge(kind, 1, Integer::sum);
+                }
+            }
+        });
+        if (!sent.isEmpty()) {
+            log.info("Task deadline events sent: {}", sent);
+        }
+    }
+
+    private boolean publish(DeadlineKind kind, Deadline deadline) {
+        Integer recipientId = kind == DeadlineKind.REMINDER ? deadline.getExecutorId() : deadline.getBossId();
+        if (recipientId == null) {
+            //эскалировать некому: отметка остается, чтобы не повторять
+            log.warn("Task deadline event {} of task {} has no recipient", kind, deadline.getId());
+            return false;
+        }
+        try {
+            eventPublisher.publishEvent(new TaskDeadlineEvent(kind, deadline.getId(), deadline.getName(),
+                    deadline.getEndDate(), deadline.getAuthorId(), deadline.getExecutorId(), recipientId));
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Task deadline event {} of task {} failed", kind, deadline.getId(), e);
+            return false;
+        }
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class Timer {
+        private final Long taskId;
+        private final LocalDate endDate;
+        private final DeadlineKind kind;
+    }
+}
@@ -0,0 +1,323 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.TaskHistory;
+import com.documentflow.entities.dto.TaskHistoryRecord;
+import com.documentflow.repositories.TaskHistoryJdbcRepository;
+import com.documentflow.utils.TransactionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind journal of task history. An entry is appended to a local file once the caller's transaction commits
+ * and the calling thread waits until the file is synced; concurrent appends share one sync (group commit).
+ * Entries are then inserted into tasks_history by a background thread with JDBC batches of up to the batch size,
+ * when the batch is full or the flush interval passes.
+ * <p>
+ * Entries are inserted in the order they were appended, so the history of every task keeps its order.
+ * Entries still in the queue are returned by {@link #findPending}; the file is cleared once the queue
+ * is empty and is replayed at startup, an entry already inserted before a crash is skipped by its sequence number.
+ * Sequence numbers are unique within the instance of the application, every instance keeps its own journal file.
+ */
+@Slf4j
+@Component
+public class TaskHistoryJournal {
+
+    private TaskHistoryJdbcRepository taskHistoryJdbcRepository;
+    private PlatformTransactionManager transactionManager;
+    private ObjectMapper objectMapper;
+
+    @Value("${documentflow.task-history.journal-file:data/task-history.journal}")
+    private String journalFile;
+
+    @Value("${documentflow.task-history.batch-size:100}")
+    private int batchSize;
+
+    @Value("${documentflow.task-history.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    //без fsync запись переживает падение приложения, но не отключение питания
+    @Value("${documentflow.task-history.fsync:true}")
+    private boolean fsync;
+
+    //пусто - имя хоста и путь к файлу журнала: не меняются при перезапуске и различаются у разных копий
+    @Value("${documentflow.task-history.instance-id:}")
+    private String instance;
+
+    private final Object lock = new Object();
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private final Map<Long, List<Pending>> pendingByTask = new HashMap<>();
+    private FileChannel channel;
+    private long nextSeq;
+    private ScheduledExecutorService flusher;
+
+    //групповой fsync: сколько записей дописано в файл и сколько из них уже на диске
+    private final Object syncLock = new Object();
+    private long written;
+    private long synced;
+
+    @Autowired
+    public void setTaskHistoryJdbcRepository(TaskHistoryJdbcRepository taskHistoryJdbcRepository) {
+        this.taskHistoryJdbcRepository = taskHistoryJdbcRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path path = Paths.get(journalFile).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        if (instance == null || instance.isEmpty()) {
+            instance = InetAddress.getLocalHost().getHostName() + ":" + path;
+        }
+        List<TaskHistoryRecord> replayed = read(path);
+        long maxSeq = taskHistoryJdbcRepository.findMaxSeq(instance);
+        for (TaskHistoryRecord record : replayed) {
+            maxSeq = Math.max(maxSeq, record.getSeq());
+            queue.add(new Pending(record, null));
+        }
+        nextSeq = maxSeq + 1;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        channel.position(channel.size());
+        if (!replayed.isEmpty()) {
+            log.info("Task history journal: {} entries replayed", replayed.size());
+            flushAll();
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-history-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushAll();
+        channel.close();
+    }
+
+    /**
+     * Append the entry to the journal after the current transaction commits.
+     * The task, the user and the state must already be saved
+     *
+     * @param taskHistory new entry, its action date is set to now
+     */
+    public void append(TaskHistory taskHistory) {
+        taskHistory.setActionDate(LocalDateTime.now());
+        TransactionUtils.afterCommit(() -> {
+            boolean full;
+            long position;
+            synchronized (lock) {
+                TaskHistoryRecord record = new TaskHistoryRecord(nextSeq++,
+                        taskHistory.getTask() != null ? taskHistory.getTask().getId() : null,
+                        taskHistory.getUser() != null ? taskHistory.getUser().getId() : null,
+                        taskHistory.getState() != null ? taskHistory.getState().getId() : null,
+                        taskHistory.getNote(), taskHistory.getActionDate());
+                taskHistory.setJournalSeq(record.getSeq());
+                taskHistory.setJournalInstance(instance);
+                try {
+                    //строка пишется одним вызовом, чтобы при сбое оборванной могла быть только последняя
+                    channel.write(ByteBuffer.wrap((objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                position = ++written;
+                Pending pending = new Pending(record, taskHistory);
+                queue.add(pending);
+                pendingByTask.computeIfAbsent(record.getTaskId(), id -> new ArrayList<>()).add(pending);
+                full = queue.size() >= batchSize;
+            }
+            if (fsync) {
+                sync(position);
+            }
+            if (full) {
+                flusher.execute(this::flushAll);
+            }
+        });
+    }
+
+    /**
+     * @return instance of the application the sequence numbers of this journal belong to
+     */
+    public String getInstance() {
+        return instance;
+    }
+
+    //один fsync сбрасывает все записи, дописанные к его началу; ждавшие его потоки дальше не синхронизируют
+    private void sync(long position) {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long target;
+            synchronized (lock) {
+                target = written;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synced = target;
+        }
+    }
+
+    /**
+     * Entries of the task that are not inserted yet
+     *
+     * @param taskId task id
+     * @return entries in the order they were appended with the journal sequence number set
+     */
+    public List<TaskHistory> findPending(Long taskId) {
+        synchronized (lock) {
+            List<Pending> pending = pendingByTask.get(taskId);
+            if (pending == null) {
+                return Collections.emptyList();
+            }
+            return pending.stream()
+                    .map(item -> item.taskHistory)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return number of entries waiting for insert
+     */
+    public int getQueueSize() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    //вызывается только потоком записи или при открытии и закрытии журнала
+    void flushAll() {
+        try {
+            while (flush() == batchSize) {
+                //полная порция - в очереди может быть еще
+            }
+        } catch (RuntimeException e) {
+            log.error("Task history journal flush failed, retrying in {} ms", flushIntervalMillis, e);
+        }
+    }
+
+    private int flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = queue.stream().limit(batchSize).collect(Collectors.toList());
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<TaskHistoryRecord> records = batch.stream().map(item -> item.record).collect(Collectors.toList());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.execute(status -> {
+                taskHistoryJdbcRepository.insert(instance, records);
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            //порция откатилась из-за отдельных записей: вставляем по одной, отклоненные пропускаем
+            for (TaskHistoryRecord record : records) {
+                try {
+                    transactionTemplate.execute(status -> {
+                        taskHistoryJdbcRepository.insert(instance, Collections.singletonList(record));
+                        return null;
+                    });
+                } catch (DataIntegrityViolationException rejected) {
+                    log.error("Task history entry {} of task {} is rejected: {}", record.getSeq(), record.getTaskId(),
+                            rejected.getMessage());
+                }
+            }
+        }
+
+        synchronized (lock) {
+            for (Pending item : batch) {
+                queue.poll();
+                List<Pending> pending = pendingByTask.get(item.record.getTaskId());
+                if (pending != null && pending.remove(item) && pending.isEmpty()) {
+                    pendingByTask.remove(item.record.getTaskId());
+                }
+            }
+            if (queue.isEmpty()) {
+                truncate();
+            }
+        }
+        return batch.size();
+    }
+
+    private void truncate() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+        } catch (IOException e) {
+            //записи уже в базе, при повторе журнала они будут пропущены
+            log.warn("Task history journal is not cleared", e);
+        }
+    }
+
+    private List<TaskHistoryRecord> read(Path path) throws IOException {
+        List<TaskHistoryRecord> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    records.add(objectMapper.readValue(line, TaskHistoryRecord.class));
+                } catch (IOException e) {
+                    //недописанная строка при падении во время записи
+                    log.warn("Task history journal line is skipped: {}", line);
+                }
+            }
+        }
+        return records;
+    }
+
+    @AllArgsConstructor
+    private static class Pending {
+        private final TaskHistoryRecord record;
+        private final TaskHistory taskHistory;
+    }
+}
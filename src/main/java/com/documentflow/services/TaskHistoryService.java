@@ -6,27 +6,60 @@ import com.documentflow.repositories.TaskHistoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class TaskHistoryService {
     private TaskHistoryRepository taskHistoryRepository;
+    private TaskHistoryJournal taskHistoryJournal;
 
     @Autowired
     public void setTaskHistoryRepository(TaskHistoryRepository taskHistoryRepository) {
         this.taskHistoryRepository = taskHistoryRepository;
     }
 
+    @Autowired
+    public void setTaskHistoryJournal(TaskHistoryJournal taskHistoryJournal) {
+        this.taskHistoryJournal = taskHistoryJournal;
+    }
+
     public List<TaskHistory> findAll() {
         return taskHistoryRepository.findAll();
     }
 
+    /**
+     * History of the task including the entries that are still in the journal queue
+     */
     public List<TaskHistory> findAllByTask(Task task) {
-        return taskHistoryRepository.findAllByTask(task);
+        //очередь читается раньше таблицы: запись, вставленная между чтениями, найдется в таблице
+        List<TaskHistory> pending = taskHistoryJournal.findPending(task.getId());
+        List<TaskHistory> history = new ArrayList<>(taskHistoryRepository.findAllByTask(task));
+        //в очереди только записи своей копии приложения, номера других копий могут совпадать
+        Set<Long> saved = history.stream()
+                .filter(taskHistory -> taskHistoryJournal.getInstance().equals(taskHistory.getJournalInstance()))
+                .map(TaskHistory::getJournalSeq)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        pending.stream()
+                .filter(taskHistory -> !saved.contains(taskHistory.getJournalSeq()))
+                .forEach(history::add);
+        return history;
     }
 
     public TaskHistory save(TaskHistory taskHistory) {
         return taskHistoryRepository.save(taskHistory);
     }
 
+    /**
+     * Add the entry through the write-behind journal: it is synced to the journal file after the current
+     * transaction commits, or at once without a transaction, and inserted into the table with the next batch
+     */
+    public void append(TaskHistory taskHistory) {
+        taskHistoryJournal.append(taskHistory);
+    }
+
 }
@@ -1,11 +1,15 @@
 package com.documentflow.services;
 
+import com.documentflow.entities.DTO.LookupDTO;
 import com.documentflow.entities.Task;
 import com.documentflow.entities.User;
 import com.documentflow.repositories.TaskRepository;
+import com.documentflow.utils.LikeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -14,12 +18,24 @@ import java.util.List;
 @Service
 public class TaskService {
     private TaskRepository taskRepository;
+    private TaskCounterService taskCounterService;
+    private TaskDeadlineScheduler taskDeadlineScheduler;
 
     @Autowired
     public void setTaskRepository(TaskRepository taskRepository) {
         this.taskRepository = taskRepository;
     }
 
+    @Autowired
+    public void setTaskCounterService(TaskCounterService taskCounterService) {
+        this.taskCounterService = taskCounterService;
+    }
+
+    @Autowired
+    public void setTaskDeadlineScheduler(TaskDeadlineScheduler taskDeadlineScheduler) {
+        this.taskDeadlineScheduler = taskDeadlineScheduler;
+    }
+
     public Task findOneById(Long id) {
         return taskRepository.getOne(id);
     }
@@ -36,8 +52,25 @@ public class TaskService {
         return taskRepository.findAllByExecutor(executor);
     }
 
+    /**
+     * Search tasks by name for a dropdown, newest first
+     *
+     * @param query part of the name, all tasks if empty
+     * @param page  zero-based page number
+     * @param size  page size
+     * @return ids and names of the tasks on the page
+     */
+    public List<LookupDTO> findLookups(String query, int page, int size) {
+        return taskRepository.findLookups(LikeUtils.contains(query), PageRequest.of(Math.max(page, 0), size, Sort.by("id").descending()));
+    }
+
     public Task save(Task task) {
-        return taskRepository.save(task);
+        //как поручение учтено в счетчиках до сохранения
+        TaskCounterService.Snapshot before = taskCounterService.findSnapshot(task.getId());
+        Task saved = taskRepository.save(task);
+        taskCounterService.update(before, saved);
+        taskDeadlineScheduler.schedule(saved);
+        return saved;
     }
 
     public Page<Task> findAllByPagingAndFiltering(Specification<Task> specification, Pageable pageable) {
@@ -1,6 +1,7 @@
 package com.documentflow.services;
 
 import com.documentflow.entities.TaskType;
+import com.documentflow.model.enums.BusinessKeyTask;
 import com.documentflow.repositories.TaskTypeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -11,18 +12,24 @@ import java.util.List;
 public class TaskTypeService {
 
     private TaskTypeRepository taskTypeRepository;
+    private ReferenceRegistry referenceRegistry;
 
     @Autowired
     public void setTaskTypeRepository(TaskTypeRepository taskTypeRepository) {
         this.taskTypeRepository = taskTypeRepository;
     }
 
+    @Autowired
+    public void setReferenceRegistry(ReferenceRegistry referenceRegistry) {
+        this.referenceRegistry = referenceRegistry;
+    }
+
     public TaskType getTaskTypeById (int id) {
-        return taskTypeRepository.findOneById(id);
+        return taskTypeRepository.findById(id).orElse(null);
     }
 
-    public TaskType getTaskTypeByBusinessKey (String business_key) {
-        return taskTypeRepository.findOneByBusinessKey(business_key);
+    public TaskType getTaskTypeByBusinessKey (BusinessKeyTask businessKey) {
+        return referenceRegistry.getTaskType(businessKey);
     }
 
     public List<TaskType> findAllTaskTypes() {
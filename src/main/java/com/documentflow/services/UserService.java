@@ -1,5 +1,6 @@
 package com.documentflow.services;
 
+import com.documentflow.entities.DTO.LookupDTO;
 import com.documentflow.entities.Department;
 import com.documentflow.entities.User;
 import org.springframework.data.domain.Page;
@@ -19,6 +20,8 @@ public interface UserService extends UserDetailsService {
 
     Page<User> getPageOfUsers(Pageable pageable);
 
+    List<LookupDTO> findLookups(String query, int page, int size);
+
     User getUserByUsername(String username);
 
     String getInitials(User user);
@@ -1,15 +1,19 @@
 package com.documentflow.services;
 
+import com.documentflow.entities.DTO.LookupDTO;
 import com.documentflow.entities.Department;
 import com.documentflow.entities.Role;
 import com.documentflow.entities.User;
 import com.documentflow.exceptions.UserNotActiveException;
 import com.documentflow.repositories.UserRepository;
+import com.documentflow.utils.LikeUtils;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -64,6 +68,20 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(pageable);
     }
 
+    /**
+     * Search users by last name for a dropdown, in alphabetical order
+     *
+     * @param query part of the last name, all users if empty
+     * @param page  zero-based page number
+     * @param size  page size
+     * @return ids and names with initials of the users on the page
+     */
+    @Override
+    public List<LookupDTO> findLookups(String query, int page, int size) {
+        return userRepository.findLookups(LikeUtils.contains(query),
+                PageRequest.of(Math.max(page, 0), size, Sort.by("lastName", "id")));
+    }
+
     @Override
     public User getUserByUsername(String username) {
         return userRepository.findUserByUsername(username);
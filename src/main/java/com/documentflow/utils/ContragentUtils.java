@@ -1,21 +1,32 @@
 package com.documentflow.utils;
 
 import com.documentflow.entities.Address;
+import com.documentflow.entities.Contragent;
+import com.documentflow.entities.Organization;
+import com.documentflow.entities.Person;
 import com.documentflow.entities.dto.ContragentDtoAddress;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
+import com.documentflow.entities.dto.ContragentDtoNames;
 import com.documentflow.entities.dto.ContragentDtoParameters;
+import com.documentflow.entities.dto.ContragentDtoSimilar;
+import com.documentflow.model.enums.ContragentType;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @UtilityClass
 public class ContragentUtils {
 
+    private static final String CANONICAL_SEPARATOR = "\u001F";
+
     public static boolean isNotEmpty(@NonNull Address address) {
         return !(
                 (address.getCountry() == null || address.getCountry().trim().isEmpty()) ||
@@ -46,12 +57,114 @@ public class ContragentUtils {
 
     public static String createSearchName(@NonNull String... values) {
         return Arrays.stream(values)
+                .filter(Objects::nonNull)
                 .map(item -> item = item.replace(" ", ""))
                 .filter(StringUtils::isNotEmpty)
                 .map(item -> item = item.toUpperCase())
                 .collect(Collectors.joining());
     }
 
+    /**
+     * Join the non-empty parts of a name with single spaces, keeping their case
+     */
+    public static String createFullName(String... values) {
+        return Arrays.stream(values)
+                .filter(StringUtils::isNotBlank)
+                .map(StringUtils::normalizeSpace)
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Key of a name in the autocomplete index: upper case, single spaces between words
+     */
+    public static String createSuggestKey(String value) {
+        return value != null ? StringUtils.normalizeSpace(value).toUpperCase() : "";
+    }
+
+    /**
+     * Normalized form of the person used to find duplicates: upper case, single spaces, empty parts equal to null
+     */
+    public static String createCanonicalString(@NonNull Person person) {
+        return createCanonicalString(person.getFirstName(), person.getMiddleName(), person.getLastName());
+    }
+
+    /**
+     * Normalized form of the address used to find duplicates: upper case, single spaces, empty parts equal to null
+     */
+    public static String createCanonicalString(@NonNull Address address) {
+        return createCanonicalString(
+                address.getIndex() != null ? address.getIndex().toString() : null,
+                address.getCountry(),
+                address.getCity(),
+                address.getStreet(),
+                address.getHouseNumber(),
+                address.getApartmentNumber());
+    }
+
+    /**
+     * Hash of the normalized form, stored in the indexed canonical_key column
+     */
+    public static String createCanonicalKey(@NonNull String canonicalString) {
+        return DigestUtils.md5DigestAsHex(canonicalString.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String createCanonicalString(String... values) {
+        return Arrays.stream(values)
+                .map(item -> item != null ? StringUtils.normalizeSpace(item).toUpperCase() : "")
+                .collect(Collectors.joining(CANONICAL_SEPARATOR));
+    }
+
+    /**
+     * One CSV line ending with CRLF: values with commas, quotes or line breaks are quoted, null values are empty
+     */
+    public static String createCsvRow(Object... values) {
+        return Arrays.stream(values)
+                .map(value -> value != null ? value.toString() : "")
+                .map(value -> StringUtils.containsAny(value, ',', '"', '\r', '\n') ? '"' + value.replace("\"", "\"\"") + '"' : value)
+                .collect(Collectors.joining(",", "", "\r\n"));
+    }
+
+    public static ContragentDtoNames createNames(@NonNull Contragent contragent) {
+        Person person = contragent.getPerson();
+        Organization organization = contragent.getOrganization();
+        return new ContragentDtoNames(
+                contragent.getId(),
+                contragent.getSearchName(),
+                person != null ? person.getId() : null,
+                person != null ? person.getFirstName() : null,
+                person != null ? person.getMiddleName() : null,
+                person != null ? person.getLastName() : null,
+                organization != null ? organization.getId() : null,
+                organization != null ? organization.getName() : null);
+    }
+
+    public static ContragentDtoSimilar createSimilar(@NonNull Contragent contragent) {
+        Person person = contragent.getPerson();
+        Organization organization = contragent.getOrganization();
+        Address address = contragent.getAddress();
+        String personName = person != null
+                ? createFullName(person.getLastName(), person.getFirstName(), person.getMiddleName())
+                : null;
+        String name = organization == null ? personName
+                : personName == null ? organization.getName()
+                : organization.getName() + ", " + personName;
+        return new ContragentDtoSimilar(
+                contragent.getId(),
+                organization != null ? ContragentType.COMPANY : ContragentType.PERSON,
+                name,
+                person != null ? person.getFirstName() : null,
+                person != null ? person.getMiddleName() : null,
+                person != null ? person.getLastName() : null,
+                organization != null ? organization.getName() : null,
+                contragent.getPersonPosition(),
+                address != null
+                        ? new ContragentDtoAddress(String.valueOf(address.getId()),
+                        address.getIndex() != null ? String.valueOf(address.getIndex()) : null,
+                        address.getCountry(), address.getCity(), address.getStreet(),
+                        address.getHouseNumber(), address.getApartmentNumber())
+                        : null);
+    }
+
     public static Address normalizeAddress(Address address) {
 
         address.setCountry(address.getCountry().toUpperCase());
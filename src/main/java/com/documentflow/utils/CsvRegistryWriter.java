@@ -0,0 +1,28 @@
+package com.documentflow.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * CSV in UTF-8 with a byte order mark, so Excel detects the encoding of Cyrillic text
+ */
+class CsvRegistryWriter implements RegistryWriter {
+
+    private final Writer writer;
+
+    CsvRegistryWriter(OutputStream output) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        writer.write(ContragentUtils.createCsvRow(Arrays.stream(values).map(RegistryWriter::toText).toArray()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
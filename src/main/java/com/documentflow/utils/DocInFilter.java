@@ -1,8 +1,10 @@
 package com.documentflow.utils;
 
 import com.documentflow.entities.DocIn;
-import com.documentflow.model.enums.BusinessKeyState;
+import com.documentflow.entities.State;
+import com.documentflow.model.enums.DocumentKind;
 import com.documentflow.repositories.specifications.DocInSpecification;
+import com.documentflow.search.DocumentFullTextIndex;
 import lombok.Getter;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -14,12 +16,16 @@ public class DocInFilter {
     private Specification<DocIn> specification;
     private StringBuilder filtersStr;
 
-    public DocInFilter(HttpServletRequest request) {
+    public DocInFilter(HttpServletRequest request, State deleted, DocumentFullTextIndex fullTextIndex) {
         filtersStr = new StringBuilder();
         specification = Specification.where(null);
 
         if (request.getParameter("regNumber") != null && !request.getParameter("regNumber").isEmpty()) {
-            specification = getSpecification().and(DocInSpecification.regNumberContains(request.getParameter("regNumber")));
+            //номер, диапазон номеров или год ищутся по частям номера, остальное - подстрокой
+            RegNumber regNumber = RegNumber.parseQuery(request.getParameter("regNumber"));
+            specification = getSpecification().and(regNumber != null
+                    ? DocInSpecification.regNumberMatches(regNumber)
+                    : DocInSpecification.regNumberContains(request.getParameter("regNumber")));
             filtersStr.append("&regNumber=" + request.getParameter("regNumber"));
         }
 
@@ -39,15 +45,25 @@ public class DocInFilter {
         }
 
         if (request.getParameter("sender") != null && !request.getParameter("sender").isEmpty()) {
+            //отправитель ищется подстрокой, как в названии организации
             specification = getSpecification().and(DocInSpecification.senderContains(request.getParameter("sender")));
             filtersStr.append("&sender=" + request.getParameter("sender"));
         }
 
+        //поиск по всем текстовым полям документа; если совпадений больше лимита индекса - подстрокой в базе
+        if (request.getParameter("text") != null && !request.getParameter("text").isEmpty()) {
+            String text = request.getParameter("text");
+            specification = getSpecification().and(fullTextIndex.findIds(DocumentKind.DOC_IN, null, text)
+                    .map(DocInSpecification::idIn)
+                    .orElseGet(() -> DocInSpecification.textContains(text)));
+            filtersStr.append("&text=" + request.getParameter("text"));
+        }
+
         if (request.getParameter("stateId") != null && !request.getParameter("stateId").isEmpty()) {
             specification = getSpecification().and(DocInSpecification.stateId(Integer.valueOf(request.getParameter("stateId"))));
             filtersStr.append("&stateId=" + request.getParameter("stateId"));
         } else {
-            specification = getSpecification().and(DocInSpecification.stateIdNotEqual(BusinessKeyState.DELETED));
+            specification = getSpecification().and(DocInSpecification.stateIdNotEqual(deleted));
         }
     }
 }
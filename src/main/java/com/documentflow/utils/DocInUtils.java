@@ -10,6 +10,7 @@ import com.documentflow.services.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.documentflow.utils.TaskUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -19,6 +20,8 @@ import java.util.Date;
 @Component
 public class DocInUtils {
 
+    private static final String JOURNAL = "DOC_IN";
+
     private DocIn docIn;
     private DocInDto docInDto;
     private UserService userService;
@@ -29,12 +32,14 @@ public class DocInUtils {
     private TaskService taskService;
     private DocOutService docOutService;
     private DocInService docInService;
+    private RegNumberAllocator regNumberAllocator;
 
     @Autowired
     public DocInUtils(UserService userService, DepartmentService departmentService,
                       StateService stateService, DocTypeService docTypeService,
                       DocOutService docOutService, DocInService docInService,
-                      TaskUtils taskUtils, TaskService taskService) {
+                      TaskUtils taskUtils, TaskService taskService,
+                      RegNumberAllocator regNumberAllocator) {
         this.userService = userService;
         this.departmentService = departmentService;
         this.stateService = stateService;
@@ -43,19 +48,12 @@ public class DocInUtils {
         this.docInService = docInService;
         this.taskUtils = taskUtils;
         this.taskService = taskService;
+        this.regNumberAllocator = regNumberAllocator;
     }
 
     public String getRegNumber() {
-        String regNumber;
-        docIn = docInService.findFirstByOrderByIdDesc();
         LocalDate date = LocalDate.now();
-        if (docIn != null && docIn.getRegDate().getYear() == date.getYear()) {
-            Integer number = Integer.parseInt(docIn.getRegNumber().substring(3, docIn.getRegNumber().length()-3));
-            regNumber = "ВХ-" + (number+1) + "/" + date.getYear()%100;
-        } else {
-            regNumber = "ВХ-1/" + date.getYear()%100;
-        }
-        return regNumber;
+        return "ВХ-" + regNumberAllocator.next(JOURNAL, date.getYear()) + "/" + date.getYear()%100;
     }
 
     public DocInDto getDocIn(Long id, String login) {
@@ -90,7 +88,7 @@ public class DocInUtils {
     }
 
     public DocIn convertFromDTO(DocInDto docInDto) {
-        docIn = new DocIn(
+        DocIn docIn = new DocIn(
                 docInDto.getId(),
                 docInDto.getRegNumber(),
                 convertToLocalDate(docInDto.getRegDate()),
@@ -111,7 +109,7 @@ public class DocInUtils {
         if (docInDto.getStateId() != null) {
             docIn.setState(stateService.getStateById(docInDto.getStateId()));
         } else {
-            docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.REGISTRATED.toString()));
+            docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.REGISTRATED));
 //            docIn.setState(stateService.getStateById(1));
         }
         if (docInDto.getTaskId() != null) {
@@ -154,16 +152,10 @@ public class DocInUtils {
         docIn = docInService.findById(id);
         switch (state) {
             case EXECUTION:
-                docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.EXECUTION.toString()));
-                break;
             case EXECUTED:
-                docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.EXECUTED.toString()));
-                break;
             case RECALLED:
-                docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.RECALLED.toString()));
-                break;
             case DELETED:
-                docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.DELETED.toString()));
+                docIn.setState(stateService.getStateByBusinessKey(state));
                 break;
         }
         docInService.save(docIn);
@@ -172,22 +164,24 @@ public class DocInUtils {
     public void addTaskToDocIn(Long id, Task task) {
         docIn = docInService.findById(id);
         docIn.setTask(task);
-        docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.EXECUTION.toString()));
+        docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.EXECUTION));
         docInService.save(docIn);
     }
 
     public void addDocOutToDocIn(Long id, DocOut docOut) {
         docIn = docInService.findById(id);
         docIn.setDocOut(docOut);
-        docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.EXECUTION.toString()));
+        docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.EXECUTION));
         docInService.save(docIn);
     }
 
+    //номер резервируется в транзакции сохранения: при ошибке он не расходуется
+    @Transactional
     public void saveDocIn(DocInDto docInDto) {
-        docIn = convertFromDTO(docInDto);
+        DocIn docIn = convertFromDTO(docInDto);
         if (docIn.getId() == null) {
             docIn.setRegNumber(getRegNumber());
-            docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.REGISTRATED.toString()));
+            docIn.setState(stateService.getStateByBusinessKey(BusinessKeyState.REGISTRATED));
         }
         docInService.save(docIn);
     }
@@ -1,7 +1,9 @@
 package com.documentflow.utils;
 
 import com.documentflow.entities.DocOut;
+import com.documentflow.model.enums.DocumentKind;
 import com.documentflow.repositories.specifications.DocOutSpecifications;
+import com.documentflow.search.DocumentFullTextIndex;
 import lombok.Getter;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -13,12 +15,16 @@ public class DocOutFilter {
     private Specification<DocOut> specification;
     private StringBuilder filtersString;
 
-    public DocOutFilter(HttpServletRequest request) {
+    public DocOutFilter(HttpServletRequest request, DocumentFullTextIndex fullTextIndex) {
         filtersString = new StringBuilder();
         specification = Specification.where(null);
 
         if (request.getParameter("number") != null && !request.getParameter("number").isEmpty()) {
-            specification = getSpecification().and(DocOutSpecifications.numberContains(request.getParameter("number")));
+            //номер, диапазон номеров или год ищутся по частям номера, остальное - подстрокой
+            RegNumber number = RegNumber.parseQuery(request.getParameter("number"));
+            specification = getSpecification().and(number != null
+                    ? DocOutSpecifications.numberMatches(number)
+                    : DocOutSpecifications.numberContains(request.getParameter("number")));
             filtersString.append("&number=" + request.getParameter("number"));
         }
 
@@ -62,16 +68,32 @@ public class DocOutFilter {
             filtersString.append("&stateId=" + request.getParameter("stateId"));
         }
 
+        //текстовые поля ищутся по индексу; если совпадений больше лимита индекса - подстрокой в базе
         if (request.getParameter("content") != null && !request.getParameter("content").isEmpty()) {
-            specification = getSpecification().and(DocOutSpecifications.contentContains(request.getParameter("content")));
+            String content = request.getParameter("content");
+            specification = getSpecification().and(fullTextIndex.findIds(DocumentKind.DOC_OUT, DocumentFullTextIndex.CONTENT, content)
+                    .map(DocOutSpecifications::idIn)
+                    .orElseGet(() -> DocOutSpecifications.contentContains(content)));
             filtersString.append("&content=" + request.getParameter("content"));
         }
 
         if (request.getParameter("note") != null && !request.getParameter("note").isEmpty()) {
-            specification = getSpecification().and(DocOutSpecifications.noteContains(request.getParameter("note")));
+            String note = request.getParameter("note");
+            specification = getSpecification().and(fullTextIndex.findIds(DocumentKind.DOC_OUT, DocumentFullTextIndex.NOTE, note)
+                    .map(DocOutSpecifications::idIn)
+                    .orElseGet(() -> DocOutSpecifications.noteContains(note)));
             filtersString.append("&note=" + request.getParameter("note"));
         }
 
+        //поиск по всем текстовым полям документа
+        if (request.getParameter("text") != null && !request.getParameter("text").isEmpty()) {
+            String text = request.getParameter("text");
+            specification = getSpecification().and(fullTextIndex.findIds(DocumentKind.DOC_OUT, null, text)
+                    .map(DocOutSpecifications::idIn)
+                    .orElseGet(() -> DocOutSpecifications.textContains(text)));
+            filtersString.append("&text=" + request.getParameter("text"));
+        }
+
 //        if (request.getParameter("docInId") != null && !request.getParameter("docInId").isEmpty()) {
 //            specification = getSpecification().and(DocOutSpecifications.noteContains(request.getParameter("docInId")));
 //            filtersString.append("&docInId=" + request.getParameter("docInId"));
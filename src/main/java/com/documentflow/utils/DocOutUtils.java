@@ -6,12 +6,9 @@ import com.documentflow.entities.User;
 import com.documentflow.model.enums.BusinessKeyState;
 import com.documentflow.services.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
 import java.sql.Timestamp;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Date;
 
@@ -36,13 +33,6 @@ public class DocOutUtils {
     }
 
 
-    public String getRegOutNumber() {
-        Page<DocOut> docOutList= docOutService.findAll(Pageable.unpaged());
-        Long newDocOutId=docOutList.getTotalElements()+1;
-        String regNumber= "ИСХ-" + newDocOutId.toString() + LocalDate.now();
-        return regNumber;
-    }
-
     public DocOut convertFromDocOutDTO(DocOutDTO docOutDTO) {
 
         DocOut docOut = new DocOut();
@@ -62,7 +52,7 @@ public class DocOutUtils {
         } else docOut.setIsGenerated(docOutDTO.getIsGenerated());
 
         if (docOutDTO.getNumber()==null) {
-            docOut.setNumber("б/н");
+            docOut.setNumber(DocOutNumberingService.NO_NUMBER);
         } else docOut.setNumber(docOutDTO.getNumber());
 //        docOut.setNumber(docOutDTO.getNumber());
 
@@ -72,9 +62,10 @@ public class DocOutUtils {
 //            docOut.setState(stateService.getStateById(1));
 //        } else {docOut.setState(docOutDTO.getState());
 //        }
- //       docOut.setState(stateService.getStateByBusinessKey(BusinessKeyState.PROJECT.toString()));
+ //       docOut.setState(stateService.getStateByBusinessKey(BusinessKeyState.PROJECT));
         docOut.setState(docOutDTO.getState());
-        docOut.setTask(docOutDTO.getTask());
+        //поручение выбирается в карточке по id
+        docOut.setTask(docOutDTO.getTaskId() != null ? taskService.findOneById(docOutDTO.getTaskId()) : docOutDTO.getTask());
 
 
 //        if (docOutDTO.getTask() != null) {
@@ -0,0 +1,39 @@
+package com.documentflow.utils;
+
+import com.documentflow.exceptions.BadArgumentException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * Position in a registry ordered by a key and id: "<key>_<id>".
+ * A backward cursor points at the first row of the current page and asks for the rows before it
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor<K extends Comparable<? super K>> {
+
+    private final K key;
+    private final Long id;
+    private final boolean backward;
+
+    public static <K extends Comparable<? super K>> KeysetCursor<K> parse(String after, String before, Function<String, K> keyParser) {
+        boolean backward = after == null || after.isEmpty();
+        String value = backward ? before : after;
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        int separator = value.lastIndexOf('_');
+        try {
+            return new KeysetCursor<>(keyParser.apply(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)), backward);
+        } catch (RuntimeException e) {
+            throw new BadArgumentException("Bad page cursor: " + value);
+        }
+    }
+
+    public static String format(Object key, Long id) {
+        return key + "_" + id;
+    }
+}
@@ -0,0 +1,31 @@
+package com.documentflow.utils;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class LikeUtils {
+
+    /**
+     * Escape character of the patterns, queries must declare it with {@code ESCAPE '\'}
+     */
+    public static final char ESCAPE = '\\';
+
+    /**
+     * Case-insensitive LIKE pattern matching names that contain the query.
+     * {@code %} and {@code _} in the query are matched literally
+     *
+     * @param query part of the name, anything if empty
+     * @return lower case pattern
+     */
+    public static String contains(String query) {
+        String value = query == null ? "" : query.trim().toLowerCase();
+        StringBuilder pattern = new StringBuilder("%");
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
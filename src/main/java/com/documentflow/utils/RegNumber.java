@@ -0,0 +1,92 @@
+package com.documentflow.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registration number split into prefix, sequence and year: "ВХ-1234/25" is ВХ, 1234, 2025.
+ * Registries keep the parts of every number in indexed columns, so a query in the same form, a range
+ * "ВХ-1000..1200/25" or "ВХ-1000..1200 за 2025" and a year "за 2025" or "/25" are answered by index
+ * lookups instead of a substring scan. Bare digits "12" stay a substring search, so they still find
+ * "112/25" or "12-ВХ". Null parts match anything
+ */
+@Getter
+@AllArgsConstructor
+public class RegNumber {
+
+    private static final String PREFIX = "([^\\d\\s/.-]+)";
+    private static final String YEAR = "(\\d{4}|\\d{2})";
+    private static final Pattern NUMBER = Pattern.compile(
+            "^\\s*" + PREFIX + "?\\s*-?\\s*(\\d{1,9})\\s*/\\s*" + YEAR + "\\s*$");
+    private static final Pattern NUMBER_QUERY = Pattern.compile(
+            "^\\s*(?:" + PREFIX + "\\s*-?\\s*)?(\\d{1,9})(?:\\s*\\.\\.\\s*-?\\s*(\\d{1,9}))?" +
+                    "(?:\\s*(?:/|(?:за|for)\\s+)\\s*" + YEAR + ")?\\s*(?:г\\.?|год)?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final Pattern DIGITS_QUERY = Pattern.compile("^\\s*\\d+\\s*$");
+    private static final Pattern YEAR_QUERY = Pattern.compile(
+            "^\\s*(?:/\\s*" + YEAR + "|(?:за|for)\\s+(\\d{4})|(\\d{4})\\s*(?:г\\.?|год))\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private final String prefix;
+    private final Integer sequenceFrom;
+    private final Integer sequenceTo;
+    private final Integer year;
+
+    /**
+     * Split a stored registration number
+     *
+     * @param number number like "ВХ-1234/25" or "ИСХ-7/2026"
+     * @return parts of the number or null if it has another form, e.g. "б/н"
+     */
+    public static RegNumber parse(String number) {
+        if (number == null) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(number);
+        if (!matcher.matches()) {
+            return null;
+        }
+        Integer sequence = Integer.valueOf(matcher.group(2));
+        return new RegNumber(normalizePrefix(matcher.group(1)), sequence, sequence, toYear(matcher.group(3)));
+    }
+
+    /**
+     * Parse a registry filter value
+     *
+     * @param query exact number, range of sequences or year, prefix and year are optional
+     * @return parts to look up or null if the value is free text or bare digits and has to be searched as a substring
+     */
+    public static RegNumber parseQuery(String query) {
+        //голые цифры - часть любого номера, а не только порядковый номер
+        if (query == null || DIGITS_QUERY.matcher(query).matches()) {
+            return null;
+        }
+        Matcher year = YEAR_QUERY.matcher(query);
+        if (year.matches()) {
+            String value = year.group(1) != null ? year.group(1) : year.group(2) != null ? year.group(2) : year.group(3);
+            return new RegNumber(null, null, null, toYear(value));
+        }
+        Matcher number = NUMBER_QUERY.matcher(query);
+        if (!number.matches()) {
+            return null;
+        }
+        int from = Integer.parseInt(number.group(2));
+        int to = number.group(3) != null ? Integer.parseInt(number.group(3)) : from;
+        return new RegNumber(normalizePrefix(number.group(1)), Math.min(from, to), Math.max(from, to),
+                number.group(4) != null ? toYear(number.group(4)) : null);
+    }
+
+    private static String normalizePrefix(String prefix) {
+        return prefix == null || prefix.isEmpty() ? null : prefix.toUpperCase(Locale.ROOT);
+    }
+
+    //двузначный год в номере - год текущего века
+    private static Integer toYear(String year) {
+        int value = Integer.parseInt(year);
+        return year.length() == 2 ? 2000 + value : value;
+    }
+}
@@ -0,0 +1,54 @@
+package com.documentflow.utils;
+
+import com.documentflow.model.enums.ExportFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a registry row by row: nothing but the current row is kept in memory.
+ * Closing the writer finishes the file but leaves the output stream open
+ */
+public interface RegistryWriter extends Closeable {
+
+    DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    static RegistryWriter create(ExportFormat format, OutputStream output) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvRegistryWriter(output);
+            case XML:
+                return new SpreadsheetXmlRegistryWriter(output);
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+    }
+
+    void writeRow(Object... values) throws IOException;
+
+    //даты в журнале - в привычном виде, без секунд
+    static String toText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().format(DATE_TIME);
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).format(DATE_TIME);
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).format(DATE);
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().format(DATE);
+        }
+        return value.toString();
+    }
+}
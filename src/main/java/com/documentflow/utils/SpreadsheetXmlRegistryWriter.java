@@ -0,0 +1,78 @@
+package com.documentflow.utils;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One worksheet of XML Spreadsheet 2003. Unlike XLSX it is a single XML document,
+ * so it is written with a streaming writer and opened by Excel and LibreOffice as a table
+ */
+class SpreadsheetXmlRegistryWriter implements RegistryWriter {
+
+    private static final String NAMESPACE = "urn:schemas-microsoft-com:office:spreadsheet";
+
+    private final XMLStreamWriter writer;
+
+    SpreadsheetXmlRegistryWriter(OutputStream output) throws IOException {
+        try {
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(output, StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeProcessingInstruction("mso-application", "progid=\"Excel.Sheet\"");
+            writer.writeStartElement("Workbook");
+            writer.writeDefaultNamespace(NAMESPACE);
+            writer.writeNamespace("ss", NAMESPACE);
+            writer.writeStartElement("Worksheet");
+            writer.writeAttribute("ss", NAMESPACE, "Name", "Journal");
+            writer.writeStartElement("Table");
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        try {
+            writer.writeStartElement("Row");
+            for (Object value : values) {
+                writer.writeStartElement("Cell");
+                writer.writeStartElement("Data");
+                writer.writeAttribute("ss", NAMESPACE, "Type", value instanceof Number ? "Number" : "String");
+                writer.writeCharacters(removeInvalidCharacters(RegistryWriter.toText(value)));
+                writer.writeEndElement();
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    //управляющие символы из старых записей недопустимы в XML 1.0
+    private static String removeInvalidCharacters(String value) {
+        StringBuilder result = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean valid = c >= 0x20 || c == '\t' || c == '\n' || c == '\r';
+            if (!valid && result == null) {
+                result = new StringBuilder(value.substring(0, i));
+            } else if (valid && result != null) {
+                result.append(c);
+            }
+        }
+        return result != null ? result.toString() : value;
+    }
+}
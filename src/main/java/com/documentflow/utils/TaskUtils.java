@@ -23,7 +23,7 @@ public class TaskUtils {
     }
 
     public Task setAsRecalled(Task task) {
-        task.setState(stateService.getStateByBusinessKey(BusinessKeyState.RECALLED.name()));
+        task.setState(stateService.getStateByBusinessKey(BusinessKeyState.RECALLED));
         return task;
     }
 
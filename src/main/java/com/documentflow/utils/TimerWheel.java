@@ -0,0 +1,141 @@
+package com.documentflow.utils;
+
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel. Level 0 has one slot per tick, every next level has slots as long as a full turn
+ * of the level below. An item is put into the lowest level that reaches its deadline and moves down a level
+ * each time the wheel gets to its slot, so scheduling and expiring cost O(1) per item and level,
+ * however many items are waiting.
+ * <p>
+ * Deadlines further than {@link #getHorizon()} are not accepted; the caller keeps them elsewhere and schedules
+ * them when the wheel gets closer. Not thread-safe.
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Entry<T>>[][] slots;
+    //длина слота каждого уровня в тиках
+    private final long[] spans;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Bad timer wheel: tick " + tickMillis + ", size " + wheelSize + ", levels " + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        slots = new List[levels][wheelSize];
+        spans = new long[levels + 1];
+        spans[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            spans[level] = Math.multiplyExact(spans[level - 1], wheelSize);
+        }
+        currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Put the item into the wheel
+     *
+     * @param deadlineMillis moment of expiry, a past one expires on the next advance
+     * @param item           value returned on expiry
+     * @return false if the deadline is beyond the horizon and the item is not scheduled
+     */
+    public boolean schedule(long deadlineMillis, T item) {
+        //тик, на котором истекает срок: момент внутри тика ждет его конца
+        long tick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick);
+        if (tick - currentTick >= spans[slots.length]) {
+            return false;
+        }
+        put(tick, item);
+        size++;
+        return true;
+    }
+
+    /**
+     * Turn the wheel up to the moment
+     *
+     * @param nowMillis current time
+     * @return items whose deadline is not after the moment, in the order of deadlines up to a tick
+     */
+    public List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        drain((int) (currentTick % wheelSize), expired);
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            //верхние уровни спускают в нижние слоты, которые начинаются на этом тике
+            for (int level = slots.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    cascade(level, (int) ((currentTick / spans[level]) % wheelSize));
+                }
+            }
+            drain((int) (currentTick % wheelSize), expired);
+        }
+        return expired;
+    }
+
+    /**
+     * @return the latest deadline the wheel accepts now
+     */
+    public long getHorizon() {
+        return (currentTick + spans[slots.length] - 1) * tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void put(long tick, T item) {
+        long delta = tick - currentTick;
+        int level = 0;
+        while (delta >= spans[level + 1]) {
+            level++;
+        }
+        int slot = (int) ((tick / spans[level]) % wheelSize);
+        if (slots[level][slot] == null) {
+            slots[level][slot] = new ArrayList<>();
+        }
+        slots[level][slot].add(new Entry<>(tick, item));
+    }
+
+    private void cascade(int level, int slot) {
+        List<Entry<T>> entries = slots[level][slot];
+        if (entries == null) {
+            return;
+        }
+        slots[level][slot] = null;
+        entries.forEach(entry -> put(entry.tick, entry.item));
+    }
+
+    //в слоте нулевого уровня лежат только элементы текущего тика
+    private void drain(int slot, List<T> expired) {
+        List<Entry<T>> entries = slots[0][slot];
+        if (entries == null) {
+            return;
+        }
+        slots[0][slot] = null;
+        entries.forEach(entry -> expired.add(entry.item));
+        size -= entries.size();
+    }
+
+    @AllArgsConstructor
+    private static class Entry<T> {
+        private final long tick;
+        private final T item;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+}
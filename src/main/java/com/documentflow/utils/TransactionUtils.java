@@ -0,0 +1,28 @@
+package com.documentflow.utils;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@UtilityClass
+public class TransactionUtils {
+
+    /**
+     * Run the action after the current transaction commits, or immediately if there is no transaction.
+     * Used to keep in-memory structures in line with the committed state of the database
+     *
+     * @param action action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
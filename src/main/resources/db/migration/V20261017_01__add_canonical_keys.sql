@@ -0,0 +1,7 @@
+-- хеш нормализованного ФИО / адреса для поиска дубликатов одним индексным запросом,
+-- существующие строки заполняет CanonicalKeyBackfillJob при запуске приложения
+ALTER TABLE persons ADD COLUMN canonical_key varchar(32);
+ALTER TABLE addresses ADD COLUMN canonical_key varchar(32);
+
+CREATE INDEX persons_canonical_key_idx ON persons (canonical_key);
+CREATE INDEX addresses_canonical_key_idx ON addresses (canonical_key);
@@ -0,0 +1,6 @@
+-- все запросы к контрагентам читают только действующие строки (is_deleted = false),
+-- поэтому индексы строятся только по ним и не растут вместе с удаленными записями
+CREATE INDEX contragents_live_id_idx ON contragents (id) WHERE is_deleted = false;
+CREATE INDEX contragents_live_person_idx ON contragents (person_id) WHERE is_deleted = false;
+CREATE INDEX contragents_live_organization_idx ON contragents (organiztion_id) WHERE is_deleted = false;
+CREATE INDEX contragents_live_address_idx ON contragents (address_id) WHERE is_deleted = false;
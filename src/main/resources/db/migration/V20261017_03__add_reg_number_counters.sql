@@ -0,0 +1,17 @@
+-- последний выданный регистрационный номер по журналу и году,
+-- номера выдает RegNumberAllocator блоками, одним INSERT ... ON CONFLICT DO UPDATE на блок
+CREATE TABLE reg_number_counters (
+    journal    varchar(32) NOT NULL,
+    year       integer     NOT NULL,
+    last_value bigint      NOT NULL,
+    PRIMARY KEY (journal, year)
+);
+
+-- продолжаем нумерацию уже зарегистрированных входящих вида ВХ-N/YY
+INSERT INTO reg_number_counters (journal, year, last_value)
+SELECT 'DOC_IN',
+       2000 + CAST(split_part(reg_number, '/', 2) AS integer),
+       MAX(CAST(substring(reg_number FROM '^ВХ-([0-9]+)/') AS bigint))
+FROM doc_in
+WHERE reg_number ~ '^ВХ-[0-9]+/[0-9]{2}$'
+GROUP BY 2;
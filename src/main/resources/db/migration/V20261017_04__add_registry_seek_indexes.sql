@@ -0,0 +1,3 @@
+-- страницы реестров читаются с позиции (дата, id) по индексу, без OFFSET
+CREATE INDEX doc_in_reg_date_id_idx ON doc_in (reg_date, id);
+CREATE INDEX doc_out_create_date_id_idx ON doc_out (create_date DESC, id DESC);
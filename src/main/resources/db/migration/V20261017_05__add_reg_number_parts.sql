@@ -0,0 +1,33 @@
+-- части регистрационного номера (префикс, порядковый номер, год) для поиска номера,
+-- диапазона номеров и года по индексу; новые строки заполняют обработчики сущностей DocIn и DocOut
+ALTER TABLE doc_in ADD COLUMN reg_prefix varchar(32);
+ALTER TABLE doc_in ADD COLUMN reg_sequence integer;
+ALTER TABLE doc_in ADD COLUMN reg_year integer;
+ALTER TABLE doc_out ADD COLUMN number_prefix varchar(32);
+ALTER TABLE doc_out ADD COLUMN number_sequence integer;
+ALTER TABLE doc_out ADD COLUMN number_year integer;
+
+-- то же разбиение, что в RegNumber.parse: "ВХ-1234/25" -> ВХ, 1234, 2025
+UPDATE doc_in d
+SET reg_prefix   = NULLIF(upper(p.m[1]), ''),
+    reg_sequence = CAST(p.m[2] AS integer),
+    reg_year     = CASE WHEN length(p.m[3]) = 2 THEN 2000 + CAST(p.m[3] AS integer) ELSE CAST(p.m[3] AS integer) END
+FROM (SELECT id, regexp_match(reg_number, '^\s*([^\d\s/.-]*)\s*-?\s*(\d{1,9})\s*/\s*(\d{4}|\d{2})\s*$') AS m
+      FROM doc_in) p
+WHERE p.id = d.id
+  AND p.m IS NOT NULL;
+
+UPDATE doc_out d
+SET number_prefix   = NULLIF(upper(p.m[1]), ''),
+    number_sequence = CAST(p.m[2] AS integer),
+    number_year     = CASE WHEN length(p.m[3]) = 2 THEN 2000 + CAST(p.m[3] AS integer) ELSE CAST(p.m[3] AS integer) END
+FROM (SELECT id, regexp_match(number, '^\s*([^\d\s/.-]*)\s*-?\s*(\d{1,9})\s*/\s*(\d{4}|\d{2})\s*$') AS m
+      FROM doc_out) p
+WHERE p.id = d.id
+  AND p.m IS NOT NULL;
+
+-- точный номер и диапазон за год - по (год, номер), номер без года - по номеру
+CREATE INDEX doc_in_reg_year_sequence_idx ON doc_in (reg_year, reg_sequence);
+CREATE INDEX doc_in_reg_sequence_idx ON doc_in (reg_sequence);
+CREATE INDEX doc_out_number_year_sequence_idx ON doc_out (number_year, number_sequence);
+CREATE INDEX doc_out_number_sequence_idx ON doc_out (number_sequence);
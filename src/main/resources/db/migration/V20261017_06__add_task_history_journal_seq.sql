@@ -0,0 +1,4 @@
+-- номер записи в журнале TaskHistoryJournal: повторная вставка после сбоя ничего не меняет
+ALTER TABLE tasks_history ADD COLUMN journal_seq bigint;
+
+CREATE UNIQUE INDEX tasks_history_journal_seq_idx ON tasks_history (journal_seq);
@@ -0,0 +1,10 @@
+-- срок, о котором уже напомнили и по которому уже эскалировали: после перезапуска повторно не отправляются,
+-- при переносе срока отметки перестают совпадать с end_date
+ALTER TABLE tasks ADD COLUMN reminded_for date;
+ALTER TABLE tasks ADD COLUMN escalated_for date;
+
+-- планировщик сроков читает поручения порциями с позиции (end_date, id)
+CREATE INDEX tasks_end_date_id_idx ON tasks (end_date, id);
+
+-- о сроках, истекших до появления планировщика, задним числом не сообщаем
+UPDATE tasks SET reminded_for = end_date, escalated_for = end_date WHERE end_date < current_date;
@@ -0,0 +1,6 @@
+-- номера журнала TaskHistoryJournal уникальны только в своей копии приложения:
+-- запись определяется копией и номером, иначе записи разных копий с одинаковым номером терялись
+ALTER TABLE tasks_history ADD COLUMN journal_instance varchar(255);
+
+DROP INDEX tasks_history_journal_seq_idx;
+CREATE UNIQUE INDEX tasks_history_journal_instance_seq_idx ON tasks_history (journal_instance, journal_seq);
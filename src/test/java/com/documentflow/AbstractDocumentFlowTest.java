@@ -15,6 +15,8 @@ import com.documentflow.repositories.PersonRepository;
 import com.documentflow.utils.ContragentUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.RandomUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -23,10 +25,13 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.util.Collections;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest(classes = {DocumentflowApplication.class})
+@SpringBootTest(classes = {DocumentflowApplication.class},
+        properties = {"documentflow.fulltext.directory=", "documentflow.fulltext.reindex-on-startup=false",
+                "documentflow.task-history.journal-file=target/task-history-test.journal"})
 @Rollback
 @Transactional
 @ActiveProfiles("test")
@@ -44,9 +49,24 @@ public abstract class AbstractDocumentFlowTest {
     @Autowired
     private OrganizationRepository organizationRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     protected static final String PERSON = "person";
     protected static final String COMPANY = "company";
 
+    /**
+     * Flush and clear the persistence context and start counting statements, so lazy loads are counted too
+     */
+    protected Statistics startStatementCount() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
     protected Address createRandomAddress() {
         return Address.builder()
                 .index(RandomUtils.nextInt(100000, 700000))
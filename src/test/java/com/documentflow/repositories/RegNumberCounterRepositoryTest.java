@@ -0,0 +1,95 @@
+package com.documentflow.repositories;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.services.RegNumberAllocator;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class RegNumberCounterRepositoryTest extends AbstractDocumentFlowTest {
+
+    @Autowired
+    private RegNumberCounterRepository counterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //отдельный журнал на тест, его счетчики удаляются после теста
+    private final String journal = "TEST_" + RandomStringUtils.randomAlphabetic(10);
+
+    @After
+    public void deleteCounters() {
+        //блоки резервируются в своих транзакциях и откат теста их не удаляет
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.execute(status -> jdbcTemplate.update("DELETE FROM reg_number_counters WHERE journal = ?", journal));
+    }
+
+    @Test
+    public void testConcurrentAllocatorsDoNotDuplicate() throws Exception {
+        //счетчик общий для нескольких копий приложения, каждая со своими блоками в памяти
+        List<RegNumberAllocator> allocators = new ArrayList<>();
+        for (int blockSize : new int[]{1, 3, 10}) {
+            allocators.add(createAllocator(blockSize));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            RegNumberAllocator allocator = allocators.get(i % allocators.size());
+            futures.add(executor.submit(() -> {
+                List<Long> numbers = new ArrayList<>();
+                for (int j = 0; j < 50; j++) {
+                    numbers.add(allocator.next(journal, 2026));
+                }
+                return numbers;
+            }));
+        }
+        Set<Long> numbers = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            for (Long number : future.get(60, TimeUnit.SECONDS)) {
+                Assert.assertTrue("duplicate number " + number, numbers.add(number));
+            }
+        }
+        executor.shutdown();
+        Assert.assertEquals(600, numbers.size());
+    }
+
+    @Test
+    public void testRolledBackNumberIsReused() {
+        RegNumberAllocator allocator = createAllocator(1);
+        TransactionTemplate registration = new TransactionTemplate(transactionManager);
+        registration.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Long failed = registration.execute(status -> {
+            long number = allocator.next(journal, 2026);
+            status.setRollbackOnly();
+            return number;
+        });
+        Long saved = registration.execute(status -> allocator.next(journal, 2026));
+
+        Assert.assertEquals(1L, (long) failed);
+        Assert.assertEquals(1L, (long) saved);
+    }
+
+    private RegNumberAllocator createAllocator(int blockSize) {
+        RegNumberAllocator allocator = new RegNumberAllocator();
+        allocator.setCounterRepository(counterRepository);
+        allocator.setTransactionManager(transactionManager);
+        ReflectionTestUtils.setField(allocator, "blockSize", blockSize);
+        return allocator;
+    }
+}
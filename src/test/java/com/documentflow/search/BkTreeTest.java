@@ -0,0 +1,61 @@
+package com.documentflow.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class BkTreeTest {
+
+    @Test
+    public void testDistance() {
+        Assertions.assertEquals(0, BkTree.distance("IVANOV", "IVANOV", 10));
+        Assertions.assertEquals(1, BkTree.distance("IVANOV", "IVANOVA", 10));
+        Assertions.assertEquals(2, BkTree.distance("IVANOV", "IAVNOV", 10));
+        Assertions.assertEquals(3, BkTree.distance("KITTEN", "SITTING", 10));
+        Assertions.assertTrue(BkTree.distance("IVANOV", "PETROV", 1) > 1);
+    }
+
+    @Test
+    public void testSearch() {
+        BkTree tree = new BkTree();
+        Arrays.asList("IVANOV", "IVANOVA", "IVANCOV", "PETROV", "PETROVA", "SIDOROV", "IVANOV").forEach(tree::add);
+
+        Assertions.assertEquals(6, tree.size());
+        Assertions.assertEquals(Collections.singletonList("IVANOV"), terms(tree.search("IVANOV", 0, 10)));
+        Assertions.assertEquals("IVANOV", terms(tree.search("IVANOV", 1, 10)).get(0));
+        Assertions.assertEquals(3, tree.search("IVANOV", 1, 10).size());
+        Assertions.assertEquals(2, tree.search("IVANOV", 1, 2).size());
+        Assertions.assertEquals(Collections.singletonList("PETROV"), terms(tree.search("PETROF", 1, 1)));
+        Assertions.assertEquals(Collections.emptyList(), terms(tree.search("KUZNECOV", 2, 10)));
+    }
+
+    @Test
+    public void testSearchMatchesFullScan() {
+        Random random = new Random(42);
+        BkTree tree = new BkTree();
+        List<String> words = random.ints(2000, 0, Integer.MAX_VALUE)
+                .mapToObj(value -> Integer.toString(value, 36).toUpperCase())
+                .distinct()
+                .collect(Collectors.toList());
+        words.forEach(tree::add);
+
+        for (String word : words.subList(0, 50)) {
+            List<String> expected = words.stream()
+                    .filter(term -> BkTree.distance(word, term, Integer.MAX_VALUE) <= 2)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<String> actual = terms(tree.search(word, 2, Integer.MAX_VALUE));
+            actual.sort(null);
+            Assertions.assertEquals(expected, actual);
+        }
+    }
+
+    private static List<String> terms(List<BkTree.Match> matches) {
+        return matches.stream().map(BkTree.Match::getTerm).collect(Collectors.toList());
+    }
+}
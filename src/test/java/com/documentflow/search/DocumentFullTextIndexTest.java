@@ -0,0 +1,328 @@
+package com.documentflow.search;
+
+import com.documentflow.entities.DTO.FullTextHitDTO;
+import com.documentflow.entities.DTO.FullTextPageDTO;
+import com.documentflow.entities.DocIn;
+import com.documentflow.entities.DocOut;
+import com.documentflow.model.enums.DocumentKind;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+public class DocumentFullTextIndexTest {
+
+    private DocumentFullTextIndex index;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void open() throws Exception {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        index = new DocumentFullTextIndex();
+        ReflectionTestUtils.setField(index, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(index, "reindexThreads", 4);
+        ReflectionTestUtils.setField(index, "reindexChunk", 10);
+        ReflectionTestUtils.setField(index, "filterLimit", 100);
+        index.open();
+        //пустой индекс отвечает фильтрам только после переиндексации
+        mockDocInRows(0, id -> {
+        });
+        index.reindex();
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        index.close();
+    }
+
+    @Test
+    public void testRussianWordFormsMatch() {
+        //вне транзакции документ попадает в индекс сразу
+        index.index(createDocIn(1L, "Договор поставки оборудования", "ООО Ромашка"));
+        index.index(createDocIn(2L, "Письмо о продлении договоров аренды", "ИП Иванов"));
+        index.index(createDocIn(3L, "Счет на оплату", "ООО Ромашка"));
+
+        FullTextPageDTO page = index.search(DocumentKind.DOC_IN, "договорами", 0, 10);
+        Assertions.assertEquals(2, page.getTotal());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), ids(page));
+
+        //все слова запроса обязательны
+        Assertions.assertEquals(Collections.singleton(2L), ids(index.search(null, "аренде договора", 0, 10)));
+    }
+
+    @Test
+    public void testKindAndFieldRestrictSearch() {
+        index.index(createDocIn(1L, "Запрос о предоставлении сведений", "Налоговая инспекция"));
+        index.index(createDocOut(1L, "Ответ на запрос налоговой инспекции", "ИСХ-1/26"));
+
+        Assertions.assertEquals(2, index.search(null, "запрос", 0, 10).getTotal());
+        FullTextPageDTO outgoing = index.search(DocumentKind.DOC_OUT, "запрос", 0, 10);
+        Assertions.assertEquals(1, outgoing.getTotal());
+        Assertions.assertEquals(DocumentKind.DOC_OUT, outgoing.getHits().get(0).getKind());
+
+        Assertions.assertEquals(Optional.of(Collections.singletonList(1L)),
+                index.findIds(DocumentKind.DOC_IN, DocumentFullTextIndex.SENDER, "инспекцией"));
+        Assertions.assertEquals(Optional.of(Collections.emptyList()),
+                index.findIds(DocumentKind.DOC_IN, DocumentFullTextIndex.SENDER, "сведения"));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        index.index(createDocOut(5L, "Уведомление о проверке", null));
+        index.index(createDocOut(5L, "Приглашение на совещание", null));
+
+        Assertions.assertEquals(0, index.search(DocumentKind.DOC_OUT, "уведомление", 0, 10).getTotal());
+        Assertions.assertEquals(1, index.search(DocumentKind.DOC_OUT, "совещания", 0, 10).getTotal());
+
+        index.remove(DocumentKind.DOC_OUT, 5L);
+        Assertions.assertEquals(0, index.search(DocumentKind.DOC_OUT, "совещания", 0, 10).getTotal());
+    }
+
+    @Test
+    public void testQuerySyntaxIsEscaped() {
+        index.index(createDocIn(1L, "Акт приема-передачи (подписанный)", "АО \"Вектор\""));
+
+        Assertions.assertEquals(1, index.search(null, "приема-передачи (подписанный", 0, 10).getTotal());
+        Assertions.assertEquals(1, index.search(null, "\"вектор", 0, 10).getTotal());
+        Assertions.assertEquals(0, index.search(null, "  ", 0, 10).getTotal());
+        //запрос только из стоп-слов ничего не находит
+        Assertions.assertEquals(0, index.search(null, "и на", 0, 10).getTotal());
+    }
+
+    @Test
+    public void testFindIdsDoesNotAnswerAboveFilterLimit() {
+        for (long id = 1; id <= 101; id++) {
+            index.index(createDocIn(id, "Служебная записка " + id, null));
+        }
+        index.index(createDocIn(200L, "Договор поставки", null));
+
+        //больше лимита - фильтр ищет в базе, а не теряет совпадения
+        Assertions.assertFalse(index.findIds(DocumentKind.DOC_IN, null, "записка").isPresent());
+        Assertions.assertEquals(Optional.of(Collections.singletonList(200L)), index.findIds(DocumentKind.DOC_IN, null, "договор"));
+        //в запросе нет слов для индекса
+        Assertions.assertFalse(index.findIds(DocumentKind.DOC_IN, null, "и на").isPresent());
+    }
+
+    @Test
+    public void testChangesAreSearchableBeforeCommitAndKeptOnClose(@TempDir Path directory) throws Exception {
+        DocumentFullTextIndex fileIndex = new DocumentFullTextIndex();
+        ReflectionTestUtils.setField(fileIndex, "directoryPath", directory.toString());
+        ReflectionTestUtils.setField(fileIndex, "filterLimit", 100);
+        fileIndex.open();
+        fileIndex.index(createDocIn(1L, "Договор аренды", null));
+        Assertions.assertEquals(1, fileIndex.search(null, "договор", 0, 10).getTotal());
+        fileIndex.close();
+
+        DocumentFullTextIndex reopened = new DocumentFullTextIndex();
+        ReflectionTestUtils.setField(reopened, "directoryPath", directory.toString());
+        reopened.open();
+        try {
+            Assertions.assertEquals(1, reopened.search(null, "договор", 0, 10).getTotal());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void testFindIdsDoesNotAnswerUntilReindexed() throws Exception {
+        DocumentFullTextIndex fresh = new DocumentFullTextIndex();
+        ReflectionTestUtils.setField(fresh, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(fresh, "reindexThreads", 1);
+        ReflectionTestUtils.setField(fresh, "reindexChunk", 10);
+        ReflectionTestUtils.setField(fresh, "filterLimit", 100);
+        fresh.open();
+        try {
+            fresh.index(createDocIn(1L, "Договор 1", null));
+            Assertions.assertFalse(fresh.findIds(DocumentKind.DOC_IN, null, "договор").isPresent());
+
+            mockDocInRows(2, id -> {
+            });
+            fresh.reindex();
+            Assertions.assertEquals(Optional.of(Arrays.asList(1L, 2L)),
+                    fresh.findIds(DocumentKind.DOC_IN, null, "договор").map(ids -> ids.stream().sorted().collect(Collectors.toList())));
+        } finally {
+            fresh.close();
+        }
+    }
+
+    @Test
+    public void testIndexNotClosedCleanlyIsNotTrusted(@TempDir Path directory) throws Exception {
+        mockDocInRows(3, id -> {
+        });
+        DocumentFullTextIndex fileIndex = openFileIndex(directory);
+        fileIndex.reindex();
+        fileIndex.close();
+
+        DocumentFullTextIndex reopened = openFileIndex(directory);
+        Assertions.assertTrue(reopened.findIds(DocumentKind.DOC_IN, null, "договор").isPresent());
+        //процесс остановлен без закрытия индекса
+        ((SearcherManager) ReflectionTestUtils.getField(reopened, "searcherManager")).close();
+        ((IndexWriter) ReflectionTestUtils.getField(reopened, "writer")).rollback();
+        ((Directory) ReflectionTestUtils.getField(reopened, "directory")).close();
+
+        DocumentFullTextIndex crashed = openFileIndex(directory);
+        try {
+            Assertions.assertFalse(crashed.findIds(DocumentKind.DOC_IN, null, "договор").isPresent());
+            crashed.reindex();
+            Assertions.assertTrue(crashed.findIds(DocumentKind.DOC_IN, null, "договор").isPresent());
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    public void testOnlyOneBackgroundReindexRuns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        mockDocInRows(1, id -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Assertions.assertTrue(index.startReindex());
+        Assertions.assertFalse(index.startReindex());
+        release.countDown();
+        awaitReindex();
+
+        //после завершения можно запустить снова
+        Assertions.assertTrue(index.startReindex());
+        awaitReindex();
+    }
+
+    @Test
+    public void testPaging() {
+        for (long id = 1; id <= 25; id++) {
+            index.index(createDocIn(id, "Служебная записка " + id, null));
+        }
+        FullTextPageDTO last = index.search(DocumentKind.DOC_IN, "записка", 2, 10);
+        Assertions.assertEquals(25, last.getTotal());
+        Assertions.assertEquals(5, last.getHits().size());
+
+        Set<Long> all = new HashSet<>();
+        for (int page = 0; page < 3; page++) {
+            all.addAll(ids(index.search(DocumentKind.DOC_IN, "записка", page, 10)));
+        }
+        Assertions.assertEquals(25, all.size());
+    }
+
+    @Test
+    public void testReindexReplacesIndexWithTableRows() throws Exception {
+        //строка, которой уже нет в таблице
+        index.index(createDocIn(999L, "Удаленный договор", null));
+        mockDocInRows(35, id -> {
+        });
+
+        Assertions.assertEquals(35, index.reindex());
+
+        FullTextPageDTO page = index.search(DocumentKind.DOC_IN, "договор", 0, 100);
+        Assertions.assertEquals(35, page.getTotal());
+        Assertions.assertFalse(ids(page).contains(999L));
+    }
+
+    @Test
+    public void testChangesDuringReindexAreKept() throws Exception {
+        //строки 5 и 6 прочитаны переиндексацией, а затем документы сохранены и удалены
+        mockDocInRows(35, id -> {
+            if (id == 5L) {
+                index.index(createDocIn(5L, "Приказ об отпуске", null));
+            } else if (id == 6L) {
+                index.remove(DocumentKind.DOC_IN, 6L);
+            }
+        });
+
+        index.reindex();
+
+        Assertions.assertEquals(Collections.singleton(5L), ids(index.search(DocumentKind.DOC_IN, "приказ", 0, 10)));
+        Set<Long> contracts = ids(index.search(DocumentKind.DOC_IN, "договор", 0, 100));
+        Assertions.assertEquals(33, contracts.size());
+        Assertions.assertFalse(contracts.contains(5L));
+        Assertions.assertFalse(contracts.contains(6L));
+
+        //после переиндексации изменения применяются как обычно
+        index.index(createDocIn(6L, "Договор 6", null));
+        Assertions.assertEquals(34, index.search(DocumentKind.DOC_IN, "договор", 0, 100).getTotal());
+    }
+
+    //в doc_in строки с 1 по max, doc_out пуста; beforeRow вызывается после чтения строки и до ее индексации
+    private void mockDocInRows(long max, LongConsumer beforeRow) throws Exception {
+        Map<String, Object> inRange = new HashMap<>();
+        inRange.put("min_id", 1L);
+        inRange.put("max_id", max);
+        Map<String, Object> outRange = new HashMap<>();
+        outRange.put("min_id", null);
+        outRange.put("max_id", null);
+        Mockito.when(jdbcTemplate.queryForMap(Mockito.contains("doc_in"))).thenReturn(inRange);
+        Mockito.when(jdbcTemplate.queryForMap(Mockito.contains("doc_out"))).thenReturn(outRange);
+        Mockito.doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            long from = invocation.getArgument(2);
+            long to = invocation.getArgument(3);
+            for (long id = from; id <= to; id++) {
+                ResultSet resultSet = Mockito.mock(ResultSet.class);
+                Mockito.when(resultSet.getLong("id")).thenReturn(id);
+                Mockito.when(resultSet.getString("content")).thenReturn("Договор " + id);
+                beforeRow.accept(id);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(Mockito.anyString(), Mockito.any(RowCallbackHandler.class), Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    private void awaitReindex() throws InterruptedException {
+        AtomicBoolean reindexing = (AtomicBoolean) ReflectionTestUtils.getField(index, "reindexing");
+        long deadline = System.currentTimeMillis() + 10000;
+        while (reindexing.get()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private DocumentFullTextIndex openFileIndex(Path directory) throws Exception {
+        DocumentFullTextIndex fileIndex = new DocumentFullTextIndex();
+        ReflectionTestUtils.setField(fileIndex, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(fileIndex, "directoryPath", directory.toString());
+        ReflectionTestUtils.setField(fileIndex, "reindexThreads", 1);
+        ReflectionTestUtils.setField(fileIndex, "reindexChunk", 10);
+        ReflectionTestUtils.setField(fileIndex, "filterLimit", 100);
+        fileIndex.open();
+        return fileIndex;
+    }
+
+    private Set<Long> ids(FullTextPageDTO page) {
+        return page.getHits().stream().map(FullTextHitDTO::getId).collect(Collectors.toSet());
+    }
+
+    private DocIn createDocIn(Long id, String content, String sender) {
+        DocIn docIn = new DocIn();
+        docIn.setId(id);
+        docIn.setContent(content);
+        docIn.setSender(sender);
+        return docIn;
+    }
+
+    private DocOut createDocOut(Long id, String content, String number) {
+        DocOut docOut = new DocOut();
+        docOut.setId(id);
+        docOut.setContent(content);
+        docOut.setNumber(number);
+        return docOut;
+    }
+}
@@ -0,0 +1,64 @@
+package com.documentflow.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class PrefixTrieTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    @Test
+    public void testCompleteByWeight() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.adjust("ИВАНОВ ИВАН", "1", 3);
+        trie.adjust("ИВАНОВА МАРИЯ", "2", 5);
+        trie.adjust("ИВАНЕНКО ПЕТР", "3", 1);
+        trie.adjust("ПЕТРОВ ПЕТР", "4", 10);
+
+        Assertions.assertEquals(Arrays.asList("ИВАНОВА МАРИЯ", "ИВАНОВ ИВАН", "ИВАНЕНКО ПЕТР"), keys(trie.complete("ИВАН", 10, NO_DEADLINE)));
+        Assertions.assertEquals(Arrays.asList("ПЕТРОВ ПЕТР", "ИВАНОВА МАРИЯ"), keys(trie.complete("", 2, NO_DEADLINE)));
+        Assertions.assertEquals(Collections.singletonList("ИВАНОВ ИВАН"), keys(trie.complete("ИВАНОВ ИВАН", 10, NO_DEADLINE)));
+        Assertions.assertEquals(Collections.emptyList(), keys(trie.complete("СИДОРОВ", 10, NO_DEADLINE)));
+        Assertions.assertEquals("2", trie.complete("ИВАНОВА", 1, NO_DEADLINE).get(0).getValue());
+    }
+
+    @Test
+    public void testAdjust() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.adjust("РОМАШКА", "1", 2);
+        trie.adjust("РОГА И КОПЫТА", "2", 1);
+        Assertions.assertEquals(Arrays.asList("РОМАШКА", "РОГА И КОПЫТА"), keys(trie.complete("РО", 10, NO_DEADLINE)));
+
+        trie.adjust("РОГА И КОПЫТА", null, 2);
+        Assertions.assertEquals(Arrays.asList("РОГА И КОПЫТА", "РОМАШКА"), keys(trie.complete("РО", 10, NO_DEADLINE)));
+
+        trie.adjust("РОГА И КОПЫТА", null, -3);
+        Assertions.assertEquals(Collections.singletonList("РОМАШКА"), keys(trie.complete("РО", 10, NO_DEADLINE)));
+        Assertions.assertEquals(1, trie.size());
+
+        //ключ, вес которого обнулялся, получает новое значение
+        trie.adjust("РОГА И КОПЫТА", "3", 1);
+        Assertions.assertEquals("3", trie.complete("РОГ", 1, NO_DEADLINE).get(0).getValue());
+    }
+
+    @Test
+    public void testDeadline() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        for (int i = 0; i < 1000; i++) {
+            trie.adjust("КОНТРАГЕНТ" + i, String.valueOf(i), i + 1);
+        }
+
+        Assertions.assertEquals(Arrays.asList("КОНТРАГЕНТ999", "КОНТРАГЕНТ998"), keys(trie.complete("КОНТР", 2, NO_DEADLINE)));
+        //время истекло: поиск прерывается и возвращает то, что успел найти
+        Assertions.assertTrue(trie.complete("КОНТР", 1000, System.nanoTime()).size() < 1000);
+    }
+
+    private static List<String> keys(List<PrefixTrie.Completion<String>> completions) {
+        return completions.stream().map(PrefixTrie.Completion::getKey).collect(Collectors.toList());
+    }
+}
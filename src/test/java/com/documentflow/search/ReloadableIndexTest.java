@@ -0,0 +1,41 @@
+package com.documentflow.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ReloadableIndexTest {
+
+    @Test
+    public void testReadsSeeOldStateUntilLoadFinishes() {
+        ReloadableIndex<Set<Long>> index = new ReloadableIndex<>(new TreeSet<>(Collections.singleton(1L)));
+
+        index.load(() -> {
+            //пока читается новое состояние, поиск видит прежнее, а не пустое
+            Assertions.assertEquals(Collections.singleton(1L), index.read(TreeSet::new));
+            return new TreeSet<>(Arrays.asList(1L, 2L));
+        });
+
+        Assertions.assertEquals(new TreeSet<>(Arrays.asList(1L, 2L)), index.read(TreeSet::new));
+    }
+
+    @Test
+    public void testChangesDuringLoadAreKept() {
+        ReloadableIndex<Set<Long>> index = new ReloadableIndex<>(new TreeSet<>());
+
+        index.load(() -> {
+            //изменение зафиксировано после того, как данные для загрузки уже прочитаны
+            Set<Long> loaded = new TreeSet<>(Arrays.asList(1L, 2L));
+            index.apply(ids -> ids.add(3L));
+            index.apply(ids -> ids.remove(1L));
+            return loaded;
+        });
+        index.apply(ids -> ids.add(4L));
+
+        Assertions.assertEquals(new TreeSet<>(Arrays.asList(2L, 3L, 4L)), index.read(TreeSet::new));
+    }
+}
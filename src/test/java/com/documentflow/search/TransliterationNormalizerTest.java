@@ -0,0 +1,28 @@
+package com.documentflow.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TransliterationNormalizerTest {
+
+    @Test
+    public void testSameSkeleton() {
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Щукин"), TransliterationNormalizer.normalize("Shchukin"));
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Щукин"), TransliterationNormalizer.normalize("schukin"));
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Ёлкин"), TransliterationNormalizer.normalize("Елкин"));
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Яковлев"), TransliterationNormalizer.normalize("Jakovlev"));
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Евгений"), TransliterationNormalizer.normalize("Yevgeniy"));
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Цветков"), TransliterationNormalizer.normalize("Tsvetkov"));
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Хабаров"), TransliterationNormalizer.normalize("Khabarov"));
+        Assertions.assertEquals(TransliterationNormalizer.normalize("Анна"), TransliterationNormalizer.normalize("Ana"));
+    }
+
+    @Test
+    public void testNormalize() {
+        Assertions.assertEquals("IVANOV", TransliterationNormalizer.normalize("Иванов"));
+        Assertions.assertEquals("DARIA", TransliterationNormalizer.normalize("Дарья"));
+        Assertions.assertEquals("ROGAIKOPITA", TransliterationNormalizer.normalize("Рога и копыта!"));
+        Assertions.assertEquals("", TransliterationNormalizer.normalize(null));
+        Assertions.assertNotEquals(TransliterationNormalizer.normalize("Иванов"), TransliterationNormalizer.normalize("Петров"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.documentflow.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void testSearch() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(3L, "ИВАНОВИВАНИВАНОВИЧ");
+        index.put(1L, "ПЕТРОВПЕТРПЕТРОВИЧ");
+        index.put(2L, "ИВАНОВАМАРИЯ");
+
+        Assertions.assertEquals(Arrays.asList(2L, 3L), index.search("ИВАНОВ", 10));
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("ПЕТРОВИЧ", 10));
+        Assertions.assertEquals(Collections.singletonList(2L), index.search("ИВАНОВ", 1));
+        Assertions.assertEquals(Collections.emptyList(), index.search("СИДОРОВ", 10));
+        Assertions.assertEquals(Collections.emptyList(), index.search("", 10));
+    }
+
+    @Test
+    public void testSearchVerifiesSubstring() {
+        TrigramIndex index = new TrigramIndex();
+        //содержит триграммы "АБВ" и "БВГ", но не подстроку "АБВГ"
+        index.put(1L, "АБВХБВГ");
+        index.put(2L, "ХАБВГХ");
+
+        Assertions.assertEquals(Collections.singletonList(2L), index.search("АБВГ", 10));
+    }
+
+    @Test
+    public void testShortQuery() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "ООО");
+        index.put(2L, "ИП");
+
+        Assertions.assertEquals(Collections.singletonList(2L), index.search("ИП", 10));
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("О", 10));
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "РОГАИКОПЫТА");
+        index.put(1L, "ЛЮТИКИЦВЕТОЧКИ");
+
+        Assertions.assertEquals(Collections.emptyList(), index.search("РОГА", 10));
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("ЦВЕТ", 10));
+        Assertions.assertEquals(1, index.size());
+
+        index.remove(1L);
+        Assertions.assertEquals(Collections.emptyList(), index.search("ЦВЕТ", 10));
+        Assertions.assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testOutOfOrderIds() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 100; id > 0; id--) {
+            index.put(id, "КОНТРАГЕНТ" + id);
+        }
+        index.remove(50L);
+
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L), index.search("КОНТРАГЕНТ", 3));
+        Assertions.assertEquals(99, index.search("КОНТРАГЕНТ", 1000).size());
+    }
+
+    @Test
+    public void testSearchAfter() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, id % 2 == 0 ? "СИДОРОВ" + id : "ПЕТРОВ" + id);
+        }
+
+        Assertions.assertEquals(Arrays.asList(2L, 4L), index.search("СИДОРОВ", Long.MIN_VALUE, 2));
+        Assertions.assertEquals(Arrays.asList(6L, 8L), index.search("СИДОРОВ", 4L, 2));
+        Assertions.assertEquals(Collections.singletonList(10L), index.search("СИДОРОВ", 8L, 2));
+        Assertions.assertEquals(Collections.emptyList(), index.search("СИДОРОВ", 10L, 2));
+        Assertions.assertEquals(Arrays.asList(7L, 8L), index.search("В", 6L, 2));
+    }
+}
@@ -7,6 +7,8 @@ import com.documentflow.entities.dto.ContragentDtoAddress;
 import com.documentflow.exceptions.NotFoundAddressException;
 import com.documentflow.repositories.AddressRepository;
 import com.documentflow.repositories.ContragentRepository;
+import com.documentflow.repositories.PersonRepository;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,9 @@ public class AddressServiceImplTest extends AbstractDocumentFlowTest {
     @Autowired
     private ContragentRepository contragentRepository;
 
+    @Autowired
+    private PersonRepository personRepository;
+
     @Test
     public void testSaveAddress() {
         Address newAddress = createRandomAddress();
@@ -35,7 +40,9 @@ public class AddressServiceImplTest extends AbstractDocumentFlowTest {
                 newAddress.getCity(),
                 newAddress.getStreet(),
                 newAddress.getHouseNumber(),
-                newAddress.getApartmentNumber());
+                newAddress.getApartmentNumber(),
+                null,
+                100);
 
         Assert.assertEquals(Collections.emptyList(), listResultNotFound);
 
@@ -160,7 +167,9 @@ public class AddressServiceImplTest extends AbstractDocumentFlowTest {
                 address.getCity(),
                 address.getStreet(),
                 null,
-                null
+                null,
+                null,
+                100
         );
 
         Assert.assertTrue(addresses.contains(address));
@@ -171,7 +180,9 @@ public class AddressServiceImplTest extends AbstractDocumentFlowTest {
                 address.getCity(),
                 address.getStreet(),
                 null,
-                address.getApartmentNumber()
+                address.getApartmentNumber(),
+                null,
+                100
         );
 
         Assert.assertTrue(addresses.contains(address));
@@ -182,7 +193,9 @@ public class AddressServiceImplTest extends AbstractDocumentFlowTest {
                 address.getCity(),
                 address.getStreet(),
                 address.getHouseNumber(),
-                address.getApartmentNumber()
+                address.getApartmentNumber(),
+                null,
+                100
         );
 
         Assert.assertTrue(addresses.contains(address));
@@ -197,12 +210,32 @@ public class AddressServiceImplTest extends AbstractDocumentFlowTest {
                 address.getCity(),
                 address.getStreet(),
                 null,
-                null
+                null,
+                null,
+                100
         );
 
         Assert.assertEquals(Collections.emptyList(), addresses);
     }
 
+    @Test
+    public void testFindAllStatementCount() {
+        //адреса одной улицы: число запросов не должно зависеть от их количества
+        Address address = createRandomAddress();
+        for (int i = 0; i < 30; i++) {
+            Address saved = addressRepository.save(new Address(null, address.getIndex(), address.getCountry().toUpperCase(),
+                    address.getCity().toUpperCase(), address.getStreet().toUpperCase(), String.valueOf(i), null));
+            createRandomPersonContragent(saved, personRepository.save(createRandomPerson()));
+        }
+
+        Statistics statistics = startStatementCount();
+        List<Address> addresses = addressService.findAll(null, address.getCountry(), address.getCity(), address.getStreet(),
+                null, null, null, 50);
+
+        Assert.assertEquals(30, addresses.size());
+        Assert.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
     @Test()
     public void testStrongFind() {
         Address address = createAndSaveRandomAddress();
@@ -223,4 +256,23 @@ public class AddressServiceImplTest extends AbstractDocumentFlowTest {
 
         Assert.assertNull(notFoundAddress);
     }
+
+    @Test
+    public void testFindOrCreate() {
+        Address existingAddress = createAndSaveRandomAddress();
+        ContragentDtoAddress existingDtoAddress = new ContragentDtoAddress(null,
+                existingAddress.getIndex().toString(),
+                existingAddress.getCountry(),
+                existingAddress.getCity(),
+                existingAddress.getStreet(),
+                existingAddress.getHouseNumber(),
+                existingAddress.getApartmentNumber());
+        ContragentDtoAddress newDtoAddress = createRandomDtoAddress();
+
+        List<Address> addresses = addressService.findOrCreate(new ContragentDtoAddress[]{existingDtoAddress, newDtoAddress, existingDtoAddress});
+
+        Assert.assertEquals(2, addresses.size());
+        Assert.assertEquals(existingAddress.getId(), addresses.get(0).getId());
+        Assert.assertNotNull(addresses.get(1).getId());
+    }
 }
@@ -0,0 +1,65 @@
+package com.documentflow.services;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.entities.State;
+import com.documentflow.entities.dto.CacheRegionDto;
+import com.documentflow.exceptions.BadArgumentException;
+import com.documentflow.repositories.StateRepository;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManager;
+
+public class CacheServiceTest extends AbstractDocumentFlowTest {
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private StateService stateService;
+
+    @Autowired
+    private StateRepository stateRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testReferenceEntityIsReadFromCache() {
+        State state = new State();
+        state.setName(RandomStringUtils.randomAlphabetic(7));
+        state.setBusinessKey(RandomStringUtils.randomAlphabetic(7));
+        stateRepository.save(state);
+
+        Statistics statistics = startStatementCount();
+        Assert.assertEquals(state.getName(), stateService.getStateById(state.getId()).getName());
+        entityManager.clear();
+        long statements = statistics.getPrepareStatementCount();
+        Assert.assertEquals(state.getName(), stateService.getStateById(state.getId()).getName());
+
+        Assert.assertEquals(statements, statistics.getPrepareStatementCount());
+        Assert.assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        Assert.assertTrue(cacheService.getStatistics().stream()
+                .map(CacheRegionDto::getRegion)
+                .anyMatch(State.class.getName()::equals));
+    }
+
+    @Test
+    public void testEvict() {
+        State state = stateRepository.save(new State());
+        stateService.getStateById(state.getId());
+        cacheService.evict(State.class.getName());
+
+        Statistics statistics = startStatementCount();
+        stateService.getStateById(state.getId());
+        Assert.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test(expected = BadArgumentException.class)
+    public void testEvictUnknownRegion() {
+        cacheService.evict(RandomStringUtils.randomAlphabetic(7));
+    }
+}
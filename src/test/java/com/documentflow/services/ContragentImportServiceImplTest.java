@@ -0,0 +1,58 @@
+package com.documentflow.services;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.entities.dto.ContragentDtoImportStatus;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ContragentImportServiceImplTest extends AbstractDocumentFlowTest {
+
+    private static final String ADDRESS = "{\"post_index\": \"101000\", \"country\": \"Russia\", \"city\": \"Moscow\", " +
+            "\"street\": \"Tverskaya\", \"house_number\": \"1\"}";
+
+    @Autowired
+    private ContragentImportService contragentImportService;
+
+    @Test
+    public void testImportContragents() throws Exception {
+        String input = String.join("\n",
+                "{\"type_person\": \"person\", \"parameters\": {\"first_name\": \"Ivan\", \"last_name\": \"" + randomName() + "\"}, " +
+                        "\"addresses\": [" + ADDRESS + "]}",
+                "{not a json",
+                "",
+                "{\"type_person\": \"company\", \"parameters\": {\"name_company\": \"" + randomName() + "\"}, " +
+                        "\"addresses\": [" + ADDRESS + "], " +
+                        "\"employees\": [{\"first_name\": \"Petr\", \"last_name\": \"" + randomName() + "\", \"position\": \"director\"}]}",
+                "{\"type_person\": \"unknown\", \"parameters\": {\"last_name\": \"IVANOV\"}, \"addresses\": []}");
+
+        List<ContragentDtoImportStatus> statuses = new ArrayList<>();
+        ContragentDtoImportStatus done = contragentImportService.importContragents(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), statuses::add);
+
+        Assert.assertEquals(ContragentDtoImportStatus.DONE, done.getType());
+        Assert.assertEquals(4, done.getProcessed());
+        Assert.assertEquals(2, done.getImported());
+        Assert.assertEquals(2, done.getFailed());
+
+        List<Long> errorLines = statuses.stream()
+                .filter(status -> ContragentDtoImportStatus.ERROR.equals(status.getType()))
+                .map(ContragentDtoImportStatus::getLine)
+                .collect(Collectors.toList());
+        Assert.assertEquals(2, errorLines.size());
+        Assert.assertEquals(Long.valueOf(2), errorLines.get(0));
+        Assert.assertEquals(Long.valueOf(5), errorLines.get(1));
+        Assert.assertEquals(done, statuses.get(statuses.size() - 1));
+    }
+
+    private String randomName() {
+        return RandomStringUtils.randomAlphabetic(10);
+    }
+}
@@ -3,10 +3,16 @@ package com.documentflow.services;
 import com.documentflow.AbstractDocumentFlowTest;
 import com.documentflow.entities.Contragent;
 import com.documentflow.entities.dto.ContragentDto;
+import com.documentflow.repositories.ContragentRepository;
+import com.documentflow.repositories.PersonRepository;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 public class ContragentServiceImplTest extends AbstractDocumentFlowTest {
@@ -14,6 +20,15 @@ public class ContragentServiceImplTest extends AbstractDocumentFlowTest {
     @Autowired
     private ContragentService contragentService;
 
+    @Autowired
+    private ContragentRepository contragentRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
 
     @Test
     public void testSearchContragents() {
@@ -59,4 +74,30 @@ public class ContragentServiceImplTest extends AbstractDocumentFlowTest {
         Assert.assertEquals(dtoCompany.getAddress()[0].getHouseNumber(), contragentCompany.get(0).getAddress().getHouseNumber());
         Assert.assertEquals(dtoCompany.getAddress()[0].getApartrmentNumber(), contragentCompany.get(0).getAddress().getApartmentNumber());
     }
+
+    @Test
+    public void testExportContragents() throws Exception {
+        Contragent contragent = createAndSaveRandomContragent();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        contragentService.exportContragents(output);
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+
+        Assert.assertTrue(lines[0].startsWith("\uFEFFid,last_name,first_name,middle_name"));
+        Assert.assertTrue(Arrays.stream(lines).anyMatch(line -> line.startsWith(contragent.getId() + ",")));
+    }
+
+    @Test
+    public void testDeletedContragentsAreSkipped() {
+        Contragent contragent = createAndSaveRandomContragent();
+        Long personId = contragent.getPerson().getId();
+
+        contragentService.delete(contragent.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Assert.assertFalse(contragentRepository.findById(contragent.getId()).isPresent());
+        Assert.assertTrue(personRepository.findById(personId).get().getContragents().isEmpty());
+        Assert.assertTrue(personRepository.findById(personId).get().getAddresses().isEmpty());
+    }
 }
@@ -0,0 +1,50 @@
+package com.documentflow.services;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.entities.DTO.KeysetPage;
+import com.documentflow.entities.DocIn;
+import com.documentflow.entities.dto.DocInDto;
+import com.documentflow.model.enums.BusinessKeyDoc;
+import com.documentflow.model.enums.BusinessKeyState;
+import com.documentflow.repositories.specifications.DocInSpecification;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class DocInServiceTest extends AbstractDocumentFlowTest {
+
+    @Autowired
+    private DocInService docInService;
+
+    @Autowired
+    private ReferenceRegistry referenceRegistry;
+
+    @Test
+    public void testRegistryPageIsReadByOneStatement() {
+        String sender = RandomStringUtils.randomAlphabetic(12);
+        for (int i = 0; i < 25; i++) {
+            DocIn docIn = new DocIn();
+            docIn.setRegNumber("ВХ-" + i);
+            docIn.setSender(sender);
+            docIn.setDocType(referenceRegistry.getDocType(BusinessKeyDoc.LETTER));
+            docIn.setState(referenceRegistry.getState(BusinessKeyState.REGISTRATED));
+            docInService.save(docIn);
+        }
+
+        Statistics statistics = startStatementCount();
+        KeysetPage<DocInDto> page = docInService.findPage(DocInSpecification.senderContains(sender), null, 20);
+
+        //строки страницы и ограниченный подсчет, без запросов на связанные сущности
+        Assert.assertEquals(2, statistics.getPrepareStatementCount());
+        Assert.assertEquals(0, statistics.getEntityLoadCount());
+        Assert.assertEquals(20, page.getContent().size());
+        Assert.assertEquals(25, page.getTotal());
+        DocInDto row = page.getContent().get(0);
+        Assert.assertEquals(sender, row.getSender());
+        Assert.assertEquals(referenceRegistry.getDocType(BusinessKeyDoc.LETTER).getName(), row.getDocTypeName());
+        Assert.assertEquals(referenceRegistry.getState(BusinessKeyState.REGISTRATED).getName(), row.getStateName());
+        Assert.assertNotNull(page.getNextCursor());
+    }
+}
@@ -0,0 +1,95 @@
+package com.documentflow.services;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.entities.DocOut;
+import com.documentflow.entities.DocType;
+import com.documentflow.model.enums.BusinessKeyState;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+public class DocOutNumberingServiceTest extends AbstractDocumentFlowTest {
+
+    @Autowired
+    private RegNumberAllocator regNumberAllocator;
+
+    @Autowired
+    private ReferenceRegistry referenceRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //вид документа со своим шаблоном получает свой журнал, настоящий журнал DOC_OUT не расходуется
+    private final String businessKey = "TEST_" + RandomStringUtils.randomAlphabetic(10);
+
+    private DocOutNumberingService docOutNumberingService;
+
+    @Before
+    public void init() {
+        docOutNumberingService = new DocOutNumberingService();
+        docOutNumberingService.setRegNumberAllocator(regNumberAllocator);
+        docOutNumberingService.setReferenceRegistry(referenceRegistry);
+        docOutNumberingService.setEnvironment(new MockEnvironment()
+                .withProperty("documentflow.doc-out.numbering.template." + businessKey, "Т-{n}/{yyyy}"));
+    }
+
+    @After
+    public void deleteCounters() {
+        //при блоках больше одного номер резервируется в своей транзакции и откат теста его не удаляет
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.execute(status -> jdbcTemplate.update(
+                "DELETE FROM reg_number_counters WHERE journal = ?", "DOC_OUT_" + businessKey));
+    }
+
+    @Test
+    public void testNumberIsAssignedOnceWhenApproved() {
+        int year = LocalDate.now().getYear();
+        DocOut docOut = createDocOut(BusinessKeyState.PROJECT);
+        docOutNumberingService.assignNumber(docOut);
+        Assert.assertEquals(DocOutNumberingService.NO_NUMBER, docOut.getNumber());
+
+        docOut.setState(referenceRegistry.getState(BusinessKeyState.APPROVED));
+        docOutNumberingService.assignNumber(docOut);
+        Assert.assertEquals("Т-1/" + year, docOut.getNumber());
+
+        docOut.setState(referenceRegistry.getState(BusinessKeyState.SENT));
+        docOutNumberingService.assignNumber(docOut);
+        Assert.assertEquals("Т-1/" + year, docOut.getNumber());
+    }
+
+    @Test
+    public void testNumbersFollowTheJournalOfTheDocType() {
+        int year = LocalDate.now().getYear();
+        DocOut first = createDocOut(BusinessKeyState.APPROVED);
+        DocOut second = createDocOut(BusinessKeyState.SENT);
+        docOutNumberingService.assignNumber(first);
+        docOutNumberingService.assignNumber(second);
+
+        Assert.assertEquals("Т-1/" + year, first.getNumber());
+        Assert.assertEquals("Т-2/" + year, second.getNumber());
+    }
+
+    private DocOut createDocOut(BusinessKeyState state) {
+        DocType docType = new DocType();
+        docType.setBusinessKey(businessKey);
+        DocOut docOut = new DocOut();
+        docOut.setNumber(DocOutNumberingService.NO_NUMBER);
+        docOut.setDocType(docType);
+        docOut.setState(referenceRegistry.getState(state));
+        return docOut;
+    }
+}
@@ -0,0 +1,71 @@
+package com.documentflow.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+public class DueDateCounterTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Test
+    public void testCountsByDueDate() {
+        DueDateCounter counter = new DueDateCounter(TODAY);
+        counter.add(TODAY.minusDays(3), 1, TODAY);
+        counter.add(TODAY, 1, TODAY);
+        counter.add(TODAY, 1, TODAY);
+        counter.add(TODAY.plusDays(2), 1, TODAY);
+        counter.add(null, 1, TODAY);
+
+        Assertions.assertEquals(5, counter.getOpen());
+        Assertions.assertEquals(1, counter.getOverdue(TODAY));
+        Assertions.assertEquals(2, counter.getDueToday(TODAY));
+    }
+
+    @Test
+    public void testRollsOverWhenDayChanges() {
+        DueDateCounter counter = new DueDateCounter(TODAY);
+        counter.add(TODAY, 1, TODAY);
+        counter.add(TODAY.plusDays(1), 1, TODAY);
+        counter.add(TODAY.plusDays(3), 1, TODAY);
+
+        LocalDate tomorrow = TODAY.plusDays(1);
+        Assertions.assertEquals(1, counter.getOverdue(tomorrow));
+        Assertions.assertEquals(1, counter.getDueToday(tomorrow));
+
+        LocalDate later = TODAY.plusDays(5);
+        Assertions.assertEquals(3, counter.getOverdue(later));
+        Assertions.assertEquals(0, counter.getDueToday(later));
+        Assertions.assertEquals(3, counter.getOpen());
+    }
+
+    @Test
+    public void testRemovesClosedTasks() {
+        DueDateCounter counter = new DueDateCounter(TODAY);
+        counter.add(TODAY.minusDays(1), 1, TODAY);
+        counter.add(TODAY, 1, TODAY);
+
+        counter.add(TODAY.minusDays(1), -1, TODAY);
+        counter.add(TODAY, -1, TODAY);
+
+        Assertions.assertEquals(0, counter.getOpen());
+        Assertions.assertEquals(0, counter.getOverdue(TODAY));
+        Assertions.assertEquals(0, counter.getDueToday(TODAY));
+        Assertions.assertEquals(0, counter.getOverdue(TODAY.plusDays(1)));
+    }
+
+    @Test
+    public void testTaskMovedToAnotherDate() {
+        DueDateCounter counter = new DueDateCounter(TODAY);
+        counter.add(TODAY.minusDays(2), 1, TODAY);
+
+        //срок перенесли на сегодня
+        counter.add(TODAY.minusDays(2), -1, TODAY);
+        counter.add(TODAY, 1, TODAY);
+
+        Assertions.assertEquals(1, counter.getOpen());
+        Assertions.assertEquals(0, counter.getOverdue(TODAY));
+        Assertions.assertEquals(1, counter.getDueToday(TODAY));
+    }
+}
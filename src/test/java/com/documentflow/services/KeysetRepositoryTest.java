@@ -0,0 +1,65 @@
+package com.documentflow.services;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.entities.Address;
+import com.documentflow.entities.DTO.KeysetPage;
+import com.documentflow.repositories.AddressRepository;
+import com.documentflow.repositories.KeysetRepository;
+import com.documentflow.utils.KeysetCursor;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class KeysetRepositoryTest extends AbstractDocumentFlowTest {
+
+    @Autowired
+    private KeysetRepository keysetRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Test
+    public void testWalkForwardAndBack() {
+        //одинаковые ключи у нескольких строк: порядок между ними задает id
+        String country = RandomStringUtils.randomAlphabetic(12);
+        List<Long> expected = new ArrayList<>();
+        for (String street : new String[]{"a", "b", "b", "b", "c"}) {
+            Address address = createRandomAddress();
+            address.setCountry(country);
+            address.setStreet(street);
+            expected.add(addressRepository.save(address).getId());
+        }
+        Specification<Address> filter = (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("country"), country);
+
+        KeysetPage<Address> first = find(filter, null);
+        KeysetPage<Address> second = find(filter, KeysetCursor.parse(first.getNextCursor(), null, key -> key));
+        KeysetPage<Address> third = find(filter, KeysetCursor.parse(second.getNextCursor(), null, key -> key));
+        KeysetPage<Address> back = find(filter, KeysetCursor.parse(null, third.getPrevCursor(), key -> key));
+
+        Assert.assertEquals(expected.subList(0, 2), ids(first));
+        Assert.assertEquals(expected.subList(2, 4), ids(second));
+        Assert.assertEquals(expected.subList(4, 5), ids(third));
+        Assert.assertEquals(ids(second), ids(back));
+
+        Assert.assertNull(first.getPrevCursor());
+        Assert.assertNull(third.getNextCursor());
+        Assert.assertNotNull(back.getPrevCursor());
+        Assert.assertEquals(5, first.getTotal());
+        Assert.assertFalse(first.isTotalCapped());
+    }
+
+    private KeysetPage<Address> find(Specification<Address> filter, KeysetCursor<String> cursor) {
+        return keysetRepository.findPage(Address.class, filter, "street", Address::getStreet, Sort.Direction.ASC, cursor, 2);
+    }
+
+    private List<Long> ids(KeysetPage<Address> page) {
+        return page.getContent().stream().map(Address::getId).collect(Collectors.toList());
+    }
+}
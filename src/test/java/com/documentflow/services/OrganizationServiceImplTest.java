@@ -12,6 +12,7 @@ import com.documentflow.exceptions.NotFoundOrganizationException;
 import com.documentflow.repositories.ContragentRepository;
 import com.documentflow.repositories.OrganizationRepository;
 import com.documentflow.repositories.specifications.OrganizationSpecifications;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -159,6 +160,17 @@ public class OrganizationServiceImplTest extends AbstractDocumentFlowTest {
         Assert.assertEquals(Collections.emptyList(), listNotFoundAddresses);
     }
 
+    @Test
+    public void testGetAddressesStatementCount() {
+        Organization savedOrganization = createAndSaveRandomOrganization();
+
+        Statistics statistics = startStatementCount();
+        List<Address> listAddresses = organizationService.getAddresses(savedOrganization.getId());
+
+        Assert.assertEquals(1, listAddresses.size());
+        Assert.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
     @Test(expected = NotFoundOrganizationException.class)
     public void testGetAddressesNotFoundOrganizationException() {
         organizationService.getAddresses(0L);
@@ -185,6 +197,17 @@ public class OrganizationServiceImplTest extends AbstractDocumentFlowTest {
         Assert.assertEquals(Collections.emptyList(), listNotFoundEmployee);
     }
 
+    @Test
+    public void testGetEmployeesStatementCount() {
+        Organization savedOrganization = createAndSaveRandomOrganization();
+
+        Statistics statistics = startStatementCount();
+        List<ContragentDtoEmployee> listDtoEmployee = organizationService.getEmployees(savedOrganization.getId());
+
+        Assert.assertEquals(1, listDtoEmployee.size());
+        Assert.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
     @Test(expected = NotFoundOrganizationException.class)
     public void testGetEmployeesNotFoundOrganizationException() {
         organizationService.getEmployees(0L);
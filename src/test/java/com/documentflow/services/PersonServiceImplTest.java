@@ -7,7 +7,11 @@ import com.documentflow.entities.Person;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
 import com.documentflow.entities.dto.ContragentDtoParameters;
 import com.documentflow.exceptions.NotFoundPersonException;
+import com.documentflow.repositories.AddressRepository;
 import com.documentflow.repositories.ContragentRepository;
+import com.documentflow.repositories.PersonRepository;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +28,12 @@ public class PersonServiceImplTest extends AbstractDocumentFlowTest {
     @Autowired
     private ContragentRepository contragentRepository;
 
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
     @Test
     public void testSaveDto() {
         ContragentDtoParameters dtoPerson = createRandomDtoParametersPerson();
@@ -80,7 +90,7 @@ public class PersonServiceImplTest extends AbstractDocumentFlowTest {
     @Test
     public void testFindAll() {
         Person newPerson = createAndSaveRandomPerson();
-        List<Person> foundPersons = personService.findAll(newPerson.getFirstName(), newPerson.getMiddleName(), newPerson.getLastName());
+        List<Person> foundPersons = personService.findAll(newPerson.getFirstName(), newPerson.getMiddleName(), newPerson.getLastName(), null, 100);
 
         Assert.assertEquals(1, foundPersons.size());
         Assert.assertEquals(newPerson.getFirstName(), foundPersons.get(0).getFirstName());
@@ -91,10 +101,30 @@ public class PersonServiceImplTest extends AbstractDocumentFlowTest {
         contragent.setIsDeleted(true);
         contragentRepository.save(contragent);
 
-        List<Person> notFoundPersons = personService.findAll(newPerson.getFirstName(), newPerson.getMiddleName(), newPerson.getLastName());
+        List<Person> notFoundPersons = personService.findAll(newPerson.getFirstName(), newPerson.getMiddleName(), newPerson.getLastName(), null, 100);
         Assert.assertEquals(Collections.emptyList(), notFoundPersons);
     }
 
+    @Test
+    public void testFindAllStatementCount() {
+        //однофамильцы: число запросов не должно зависеть от их количества
+        String lastName = RandomStringUtils.randomAlphabetic(10).toUpperCase();
+        for (int i = 0; i < 30; i++) {
+            Person person = personRepository.save(new Person("IVAN", null, lastName));
+            createRandomPersonContragent(addressRepository.save(createRandomAddress()), person);
+        }
+
+        Statistics statistics = startStatementCount();
+        List<Person> firstPage = personService.findAll(null, null, lastName, null, 20);
+        List<Person> secondPage = personService.findAll(null, null, lastName, firstPage.get(firstPage.size() - 1).getId(), 20);
+
+        Assert.assertEquals(20, firstPage.size());
+        Assert.assertEquals(10, secondPage.size());
+        Assert.assertTrue(firstPage.get(19).getId() < secondPage.get(0).getId());
+        //по одной выборке на страницу, без подсчета
+        Assert.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
     @Test
     public void testStrongFind() {
         Person newPerson = createAndSaveRandomPerson();
@@ -109,9 +139,18 @@ public class PersonServiceImplTest extends AbstractDocumentFlowTest {
         Assert.assertNull(notFoundPerson);
     }
 
-    //TODO test for update method
     @Test
     public void testUpdate() {
+        Person newPerson = createAndSaveRandomPerson();
+        Long contragentId = newPerson.getContragents().get(0).getId();
+
+        Person modifiedPerson = createRandomPerson();
+        Person updatedPerson = personService.update(new Person(newPerson.getId(),
+                modifiedPerson.getFirstName(), modifiedPerson.getMiddleName(), modifiedPerson.getLastName()));
+
+        Assert.assertEquals(modifiedPerson.getLastName().toUpperCase(), updatedPerson.getLastName());
+        String expectedSearchName = (modifiedPerson.getFirstName() + modifiedPerson.getMiddleName() + modifiedPerson.getLastName()).toUpperCase();
+        Assert.assertEquals(expectedSearchName, contragentRepository.findById(contragentId).get().getSearchName());
     }
 
     @Test
@@ -120,7 +159,7 @@ public class PersonServiceImplTest extends AbstractDocumentFlowTest {
         Person newPerson = createAndSaveRandomPerson();
         personService.delete(newPerson.getId());
 
-        List<Person> notFoundPersons = personService.findAll(newPerson.getFirstName(), newPerson.getMiddleName(), newPerson.getLastName());
+        List<Person> notFoundPersons = personService.findAll(newPerson.getFirstName(), newPerson.getMiddleName(), newPerson.getLastName(), null, 100);
         Assert.assertEquals(Collections.emptyList(), notFoundPersons);
     }
 
@@ -145,8 +184,36 @@ public class PersonServiceImplTest extends AbstractDocumentFlowTest {
         Assert.assertEquals(address.getApartmentNumber(), addresses.get(0).getApartmentNumber());
     }
 
+    @Test
+    public void testGetAddressesStatementCount() {
+        Person newPerson = createAndSaveRandomPerson();
+
+        Statistics statistics = startStatementCount();
+        List<Address> addresses = personService.getAddresses(newPerson.getId());
+
+        Assert.assertEquals(1, addresses.size());
+        Assert.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
     @Test(expected = NotFoundPersonException.class)
     public void testGetAddressesNotFoundPersonException() {
         personService.getAddresses(0L);
     }
+
+    @Test
+    public void testFindOrCreate() {
+        Person existingPerson = createAndSaveRandomPerson();
+        ContragentDtoEmployee existingEmployee = new ContragentDtoEmployee(null, existingPerson.getFirstName(),
+                existingPerson.getMiddleName(), existingPerson.getLastName(), "director");
+        ContragentDtoEmployee newEmployee = createRandomDtoEmployee();
+
+        Map<Person, String> employees = personService.findOrCreate(
+                new ContragentDtoEmployee[]{existingEmployee, newEmployee, existingEmployee});
+
+        Assert.assertEquals(2, employees.size());
+        Person foundPerson = employees.keySet().iterator().next();
+        Assert.assertEquals(existingPerson.getId(), foundPerson.getId());
+        Assert.assertEquals("director", employees.get(foundPerson));
+        employees.keySet().forEach(person -> Assert.assertNotNull(person.getId()));
+    }
 }
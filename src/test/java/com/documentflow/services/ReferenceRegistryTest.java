@@ -0,0 +1,40 @@
+package com.documentflow.services;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.model.enums.BusinessKeyDoc;
+import com.documentflow.model.enums.BusinessKeyState;
+import com.documentflow.model.enums.BusinessKeyTask;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class ReferenceRegistryTest extends AbstractDocumentFlowTest {
+
+    @Autowired
+    private ReferenceRegistry referenceRegistry;
+
+    @Test
+    public void testEveryKeyIsResolvedWithoutStatements() {
+        Statistics statistics = startStatementCount();
+
+        for (BusinessKeyState key : BusinessKeyState.values()) {
+            Assert.assertEquals(key.name(), referenceRegistry.getState(key).getBusinessKey());
+        }
+        for (BusinessKeyTask key : BusinessKeyTask.values()) {
+            Assert.assertEquals(key.name(), referenceRegistry.getTaskType(key).getBusinessKey());
+        }
+        for (BusinessKeyDoc key : BusinessKeyDoc.values()) {
+            Assert.assertEquals(key.name(), referenceRegistry.getDocType(key).getBusinessKey());
+        }
+
+        Assert.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testRefresh() {
+        Integer id = referenceRegistry.getState(BusinessKeyState.DELETED).getId();
+        referenceRegistry.refresh();
+        Assert.assertEquals(id, referenceRegistry.getState(BusinessKeyState.DELETED).getId());
+    }
+}
@@ -0,0 +1,101 @@
+package com.documentflow.services;
+
+import com.documentflow.repositories.RegNumberCounterRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RegNumberAllocatorTest {
+
+    private static final String JOURNAL = "DOC_IN";
+
+    //счетчики таблицы в памяти: год -> последний выданный номер
+    private final Map<Integer, Long> counters = new HashMap<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+
+    private RegNumberAllocator createAllocator(int blockSize) {
+        RegNumberCounterRepository repository = Mockito.mock(RegNumberCounterRepository.class);
+        Mockito.when(repository.reserve(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt())).thenAnswer(invocation -> {
+            reservations.incrementAndGet();
+            synchronized (counters) {
+                return counters.merge(invocation.getArgument(1), (long) (int) invocation.getArgument(2), Long::sum);
+            }
+        });
+        RegNumberAllocator allocator = new RegNumberAllocator();
+        allocator.setCounterRepository(repository);
+        allocator.setTransactionManager(Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(allocator, "blockSize", blockSize);
+        return allocator;
+    }
+
+    @Test
+    public void testConcurrentNumbersAreUnique() throws Exception {
+        RegNumberAllocator allocator = createAllocator(7);
+        int threads = 16;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Long> numbers = new ArrayList<>();
+                for (int j = 0; j < perThread; j++) {
+                    numbers.add(allocator.next(JOURNAL, 2026));
+                }
+                return numbers;
+            }));
+        }
+        start.countDown();
+        Set<Long> numbers = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            for (Long number : future.get(30, TimeUnit.SECONDS)) {
+                Assertions.assertTrue(numbers.add(number), "duplicate number " + number);
+            }
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(threads * perThread, numbers.size());
+        //одна копия приложения расходует блоки без пропусков
+        Assertions.assertEquals(1L, (long) Collections.min(numbers));
+        Assertions.assertEquals(threads * perThread, (long) Collections.max(numbers));
+        Assertions.assertEquals((threads * perThread + 6) / 7, reservations.get());
+    }
+
+    @Test
+    public void testYearRollover() {
+        RegNumberAllocator allocator = createAllocator(10);
+
+        Assertions.assertEquals(1, allocator.next(JOURNAL, 2026));
+        Assertions.assertEquals(2, allocator.next(JOURNAL, 2026));
+        Assertions.assertEquals(1, allocator.next(JOURNAL, 2027));
+        Assertions.assertEquals(2, allocator.next(JOURNAL, 2027));
+    }
+
+    @Test
+    public void testBlocksOfTwoInstancesDoNotOverlap() {
+        RegNumberAllocator first = createAllocator(5);
+        RegNumberAllocator second = createAllocator(5);
+        Set<Long> numbers = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            Assertions.assertTrue(numbers.add(first.next(JOURNAL, 2026)));
+            Assertions.assertTrue(numbers.add(second.next(JOURNAL, 2026)));
+        }
+    }
+
+    @Test
+    public void testSingleNumbersAreReservedOneByOne() {
+        RegNumberAllocator allocator = createAllocator(1);
+
+        Assertions.assertEquals(1, allocator.next(JOURNAL, 2026));
+        Assertions.assertEquals(2, allocator.next(JOURNAL, 2026));
+        //каждый номер - в транзакции вызывающего, без блока в памяти
+        Assertions.assertEquals(2, reservations.get());
+    }
+}
@@ -0,0 +1,125 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.DTO.ExportJobDTO;
+import com.documentflow.exceptions.NotFoundIdException;
+import com.documentflow.model.enums.DocumentKind;
+import com.documentflow.model.enums.ExportFormat;
+import com.documentflow.model.enums.ExportStatus;
+import com.documentflow.repositories.RegistryExportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.LongStream;
+
+public class RegistryExportServiceTest {
+
+    private static final String OWNER = "archive";
+
+    @TempDir
+    Path directory;
+
+    private RegistryExportRepository repository;
+    private RegistryExportService service;
+
+    @BeforeEach
+    public void start() throws Exception {
+        repository = Mockito.mock(RegistryExportRepository.class);
+        service = new RegistryExportService();
+        service.setRegistryExportRepository(repository);
+        service.setTransactionManager(Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "directoryPath", directory.toString());
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "keepMinutes", 60L);
+        service.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        service.stop();
+    }
+
+    @Test
+    public void testExportDocIn() throws Exception {
+        Mockito.when(repository.stream(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, 1000).mapToObj(i -> new Object[]{
+                        "ВХ-" + i + "/26", LocalDateTime.of(2026, 1, 1, 10, 0), "Письмо", "ООО Ромашка", null, null,
+                        "Содержание " + i, 1, null, null, "Зарегистрирован", "Иванов", "Иван", "Иванович"}));
+
+        ExportJobDTO job = service.exportDocIn(null, ExportFormat.CSV, OWNER);
+        job = await(DocumentKind.DOC_IN, job.getId());
+
+        Assertions.assertEquals(ExportStatus.DONE, job.getStatus());
+        Assertions.assertEquals(1000, job.getRows());
+        String[] lines = new String(Files.readAllBytes(service.getFile(DocumentKind.DOC_IN, job.getId(), OWNER)),
+                StandardCharsets.UTF_8).split("\r\n");
+        Assertions.assertEquals(1001, lines.length);
+        Assertions.assertEquals("ВХ-1000/26,01.01.2026 10:00,Письмо,ООО Ромашка,,,Содержание 1000,1,,,Зарегистрирован,Иванов И.И",
+                lines[1000]);
+    }
+
+    @Test
+    public void testJobIsVisibleToOwnerOnly() throws Exception {
+        Mockito.when(repository.stream(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> LongStream.range(0, 0).mapToObj(i -> new Object[0]));
+        ExportJobDTO job = service.exportDocOut(null, ExportFormat.XML, OWNER);
+        await(DocumentKind.DOC_OUT, job.getId());
+
+        Assertions.assertThrows(NotFoundIdException.class, () -> service.getJob(DocumentKind.DOC_OUT, job.getId(), "other"));
+        Assertions.assertThrows(NotFoundIdException.class, () -> service.getJob(DocumentKind.DOC_IN, job.getId(), OWNER));
+    }
+
+    @Test
+    public void testFailedExportRemovesFile() throws Exception {
+        Mockito.when(repository.stream(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenThrow(new IllegalStateException("connection lost"));
+        ExportJobDTO job = service.exportDocIn(null, ExportFormat.CSV, OWNER);
+        job = await(DocumentKind.DOC_IN, job.getId());
+
+        Assertions.assertEquals(ExportStatus.FAILED, job.getStatus());
+        Assertions.assertEquals("connection lost", job.getError());
+        try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testStartRemovesExpiredFilesOfPreviousRun() throws Exception {
+        service.stop();
+        Path expired = Files.write(directory.resolve("expired.csv"), new byte[]{1});
+        Files.setLastModifiedTime(expired, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+        Path fresh = Files.write(directory.resolve("fresh.xml"), new byte[]{1});
+        Path other = Files.write(directory.resolve("readme.txt"), new byte[]{1});
+        Files.setLastModifiedTime(other, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+
+        service.start();
+
+        Assertions.assertFalse(Files.exists(expired));
+        Assertions.assertTrue(Files.exists(fresh));
+        Assertions.assertTrue(Files.exists(other));
+    }
+
+    private ExportJobDTO await(DocumentKind kind, String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ExportJobDTO job = service.getJob(kind, id, OWNER);
+            if (job.getStatus() != ExportStatus.RUNNING) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        Assertions.fail("export is not finished");
+        return null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.DTO.TaskCountersDTO;
+import com.documentflow.entities.State;
+import com.documentflow.entities.Task;
+import com.documentflow.entities.User;
+import com.documentflow.model.enums.BusinessKeyState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TaskCounterServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    private TaskCounterService service;
+    private State execution;
+    private State executed;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        execution = createState(1, BusinessKeyState.EXECUTION);
+        executed = createState(2, BusinessKeyState.EXECUTED);
+        StateService stateService = Mockito.mock(StateService.class);
+        Mockito.when(stateService.getClosedTaskStateIds()).thenReturn(Collections.singleton(executed.getId()));
+
+        jdbcTemplate = Mockito.mock(NamedParameterJdbcTemplate.class);
+        Mockito.when(jdbcTemplate.queryForList(ArgumentMatchers.anyString(), ArgumentMatchers.any(SqlParameterSource.class),
+                ArgumentMatchers.eq(Integer.class)))
+                .thenAnswer(invocation -> {
+                    Object login = ((SqlParameterSource) invocation.getArgument(1)).getValue("login");
+                    return "executor".equals(login) ? Collections.singletonList(10)
+                            : "author".equals(login) ? Collections.singletonList(20)
+                            : Collections.emptyList();
+                });
+
+        service = new TaskCounterService();
+        service.setJdbcTemplate(jdbcTemplate);
+        service.setStateService(stateService);
+        service.setClock(Clock.fixed(TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+        service.rebuild();
+    }
+
+    @Test
+    public void testNewTasksAreCounted() {
+        service.update(null, createTask(execution, TODAY));
+        service.update(null, createTask(execution, TODAY.minusDays(1)));
+
+        TaskCountersDTO executor = service.getCounters("executor");
+        Assertions.assertEquals(2, executor.getAssignedOpen());
+        Assertions.assertEquals(1, executor.getAssignedOverdue());
+        Assertions.assertEquals(1, executor.getAssignedDueToday());
+        Assertions.assertEquals(0, executor.getAuthoredOpen());
+        Assertions.assertEquals(2, service.getCounters("author").getAuthoredOpen());
+    }
+
+    @Test
+    public void testClosedTaskLeavesCounters() {
+        service.update(null, createTask(execution, TODAY));
+        TaskCounterService.Snapshot before = new TaskCounterService.Snapshot(20, 10, TODAY);
+
+        service.update(before, createTask(executed, TODAY));
+
+        TaskCountersDTO executor = service.getCounters("executor");
+        Assertions.assertEquals(0, executor.getAssignedOpen());
+        Assertions.assertEquals(0, executor.getAssignedDueToday());
+        Assertions.assertEquals(0, service.getCounters("author").getAuthoredOpen());
+    }
+
+    @Test
+    public void testUnknownUserHasZeros() {
+        TaskCountersDTO counters = service.getCounters("nobody");
+        Assertions.assertEquals(0, counters.getAssignedOpen());
+        Assertions.assertEquals(0, counters.getAuthoredOpen());
+    }
+
+    @Test
+    public void testOnlyOneRebuildRuns() throws Exception {
+        service.start();
+        try {
+            service.update(null, createTask(execution, TODAY));
+            CountDownLatch release = new CountDownLatch(1);
+            Mockito.doAnswer(invocation -> {
+                release.await();
+                return null;
+            }).when(jdbcTemplate).query(ArgumentMatchers.anyString(), ArgumentMatchers.any(SqlParameterSource.class),
+                    ArgumentMatchers.any(RowCallbackHandler.class));
+
+            Assertions.assertTrue(service.startRebuild());
+            Assertions.assertFalse(service.startRebuild());
+            release.countDown();
+
+            AtomicBoolean rebuilding = (AtomicBoolean) ReflectionTestUtils.getField(service, "rebuilding");
+            long deadline = System.currentTimeMillis() + 10000;
+            while (rebuilding.get()) {
+                Assertions.assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+            //в таблице задач нет, пересчет обнулил счетчики
+            Assertions.assertEquals(0, service.getCounters("executor").getAssignedOpen());
+        } finally {
+            service.stop();
+        }
+    }
+
+    private Task createTask(State state, LocalDate endDate) {
+        Task task = new Task();
+        task.setAuthor(createUser(20));
+        task.setExecutor(createUser(10));
+        task.setState(state);
+        task.setEndDate(endDate);
+        return task;
+    }
+
+    private User createUser(Integer id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private State createState(Integer id, BusinessKeyState businessKey) {
+        State state = new State();
+        state.setId(id);
+        state.setBusinessKey(businessKey.name());
+        return state;
+    }
+}
@@ -0,0 +1,222 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.Task;
+import com.documentflow.entities.dto.TaskDeadlineEvent;
+import com.documentflow.model.enums.DeadlineKind;
+import com.documentflow.repositories.TaskDeadlineJdbcRepository;
+import com.documentflow.repositories.TaskDeadlineJdbcRepository.Deadline;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class TaskDeadlineSchedulerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Moscow");
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+    private static final int CLOSED = 9;
+
+    //поручения в "таблице" по id
+    private final Map<Long, Deadline> tasks = new HashMap<>();
+    private final List<TaskDeadlineEvent> events = new ArrayList<>();
+    private final List<Integer> reads = new ArrayList<>();
+    private TaskDeadlineJdbcRepository repository;
+    private TaskDeadlineScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        repository = Mockito.mock(TaskDeadlineJdbcRepository.class);
+        Mockito.when(repository.findDue(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+                .thenAnswer(invocation -> {
+                    LocalDate afterDate = invocation.getArgument(1);
+                    Long afterId = invocation.getArgument(2);
+                    LocalDate toDate = invocation.getArgument(3);
+                    int limit = invocation.getArgument(4);
+                    return tasks.values().stream()
+                            .filter(task -> !task.getEndDate().isAfter(toDate))
+                            .filter(task -> afterDate == null || task.getEndDate().isAfter(afterDate)
+                                    || (task.getEndDate().equals(afterDate) && task.getId() > afterId))
+                            .filter(task -> task.getStateId() != CLOSED && !task.isSent(DeadlineKind.ESCALATION))
+                            .sorted(Comparator.comparing(Deadline::getEndDate).thenComparing(Deadline::getId))
+                            .limit(limit)
+                            .collect(Collectors.toList());
+                });
+        Mockito.when(repository.findByIds(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            reads.add(ids.size());
+            return ids.stream().map(tasks::get).filter(Objects::nonNull).collect(Collectors.toList());
+        });
+        //отметка, как UPDATE ... WHERE (id, end_date) IN ... AND отметка IS DISTINCT FROM end_date RETURNING id
+        Mockito.when(repository.claim(ArgumentMatchers.any(), ArgumentMatchers.any())).thenAnswer(invocation -> {
+            DeadlineKind kind = invocation.getArgument(0);
+            Map<Long, LocalDate> dates = invocation.getArgument(1);
+            Set<Long> claimed = new HashSet<>();
+            dates.forEach((id, date) -> {
+                Deadline task = tasks.get(id);
+                if (task == null || !task.getEndDate().equals(date) || task.isSent(kind)) {
+                    return;
+                }
+                tasks.put(id, createTask(id, task.getEndDate(), task.getStateId(), task.getBossId(),
+                        kind == DeadlineKind.REMINDER ? date : task.getRemindedFor(),
+                        kind == DeadlineKind.ESCALATION ? date : task.getEscalatedFor()));
+                claimed.add(id);
+            });
+            return claimed;
+        });
+
+        StateService stateService = Mockito.mock(StateService.class);
+        Mockito.when(stateService.getClosedTaskStateIds()).thenReturn(Collections.singleton(CLOSED));
+
+        scheduler = new TaskDeadlineScheduler();
+        scheduler.setTaskDeadlineJdbcRepository(repository);
+        scheduler.setStateService(stateService);
+        scheduler.setEventPublisher(event -> events.add((TaskDeadlineEvent) event));
+        ReflectionTestUtils.setField(scheduler, "tickSeconds", 60L);
+        ReflectionTestUtils.setField(scheduler, "wheelSize", 64);
+        ReflectionTestUtils.setField(scheduler, "wheelLevels", 3);
+        ReflectionTestUtils.setField(scheduler, "chunkSize", 2);
+        ReflectionTestUtils.setField(scheduler, "remindBeforeHours", 24L);
+        ReflectionTestUtils.setField(scheduler, "escalateAfterHours", 0L);
+        setNow(TODAY.atTime(9, 0));
+    }
+
+    @Test
+    public void testRemindsAndEscalates() {
+        tasks.put(1L, createTask(1L, TODAY, 1, null, null));
+        tasks.put(2L, createTask(2L, TODAY.plusDays(1), 1, null, null));
+        scheduler.init();
+
+        //напоминание о сегодняшнем сроке пришло с начала дня
+        scheduler.tick();
+        Assertions.assertEquals(Collections.singletonList("REMINDER 1 -> 10"), describe(events));
+
+        events.clear();
+        setNow(TODAY.plusDays(1).atStartOfDay());
+        scheduler.tick();
+        Assertions.assertEquals(Arrays.asList("ESCALATION 1 -> 100", "REMINDER 2 -> 10"), sorted(describe(events)));
+        Assertions.assertEquals(TODAY, tasks.get(1L).getEscalatedFor());
+        Assertions.assertEquals(TODAY.plusDays(1), tasks.get(2L).getRemindedFor());
+    }
+
+    @Test
+    public void testSkipsClosedAndMovedTasks() {
+        tasks.put(1L, createTask(1L, TODAY, 1, null, null));
+        tasks.put(2L, createTask(2L, TODAY, 1, null, null));
+        scheduler.init();
+
+        tasks.put(1L, createTask(1L, TODAY, CLOSED, null, null));
+        tasks.put(2L, createTask(2L, TODAY.plusDays(3), 1, null, null));
+        scheduler.tick();
+
+        Assertions.assertEquals(Collections.emptyList(), events);
+    }
+
+    @Test
+    public void testDoesNotRepeatAfterRestart() {
+        tasks.put(1L, createTask(1L, TODAY, 1, null, null));
+        scheduler.init();
+        scheduler.tick();
+        Assertions.assertEquals(1, events.size());
+
+        //после перезапуска напоминание уже отмечено, ждем только эскалацию
+        events.clear();
+        scheduler.init();
+        scheduler.tick();
+        Assertions.assertEquals(Collections.emptyList(), events);
+
+        setNow(TODAY.plusDays(1).atTime(0, 1));
+        scheduler.tick();
+        Assertions.assertEquals(Collections.singletonList("ESCALATION 1 -> 100"), describe(events));
+    }
+
+    @Test
+    public void testOverdueTaskIsEscalatedWithoutReminder() {
+        tasks.put(1L, createTask(1L, TODAY.minusDays(5), 1, null, null));
+        scheduler.init();
+        scheduler.tick();
+        Assertions.assertEquals(Collections.singletonList("ESCALATION 1 -> 100"), describe(events));
+    }
+
+    @Test
+    public void testEventClaimedByAnotherInstanceIsNotSent() {
+        tasks.put(1L, createTask(1L, TODAY, 1, null, null));
+        scheduler.init();
+        //другая копия приложения успела отметить напоминание после чтения поручения
+        Mockito.doAnswer(invocation -> {
+            Deadline task = tasks.get(1L);
+            tasks.put(1L, createTask(1L, TODAY, 1, TODAY, null));
+            return Collections.singletonList(task);
+        }).when(repository).findByIds(ArgumentMatchers.any());
+        scheduler.tick();
+
+        Assertions.assertEquals(Collections.emptyList(), events);
+    }
+
+    @Test
+    public void testEscalationWithoutBossIsNotSent() {
+        tasks.put(1L, createTask(1L, TODAY.minusDays(5), 1, null, null, null));
+        scheduler.init();
+        scheduler.tick();
+
+        Assertions.assertEquals(Collections.emptyList(), events);
+        //отмечено, чтобы не повторять после перезапуска
+        Assertions.assertEquals(TODAY.minusDays(5), tasks.get(1L).getEscalatedFor());
+    }
+
+    @Test
+    public void testFiresInChunks() {
+        for (long id = 1; id <= 5; id++) {
+            tasks.put(id, createTask(id, TODAY, 1, null, null));
+        }
+        scheduler.init();
+        scheduler.tick();
+
+        Assertions.assertEquals(5, events.size());
+        Assertions.assertEquals(Arrays.asList(2, 2, 1), reads);
+    }
+
+    @Test
+    public void testSavedTaskIsScheduled() {
+        scheduler.init();
+        Task task = new Task();
+        task.setId(7L);
+        task.setEndDate(TODAY);
+        tasks.put(7L, createTask(7L, TODAY, 1, null, null));
+
+        scheduler.schedule(task);
+        scheduler.tick();
+
+        Assertions.assertEquals(Collections.singletonList("REMINDER 7 -> 10"), describe(events));
+    }
+
+    private void setNow(LocalDateTime now) {
+        scheduler.setClock(Clock.fixed(now.atZone(ZONE).toInstant(), ZONE));
+    }
+
+    private Deadline createTask(Long id, LocalDate endDate, Integer stateId, LocalDate remindedFor, LocalDate escalatedFor) {
+        return createTask(id, endDate, stateId, 100, remindedFor, escalatedFor);
+    }
+
+    private Deadline createTask(Long id, LocalDate endDate, Integer stateId, Integer bossId, LocalDate remindedFor,
+                                LocalDate escalatedFor) {
+        return new Deadline(id, "task " + id, endDate, stateId, 1, 10, bossId, remindedFor, escalatedFor);
+    }
+
+    private static List<String> describe(List<TaskDeadlineEvent> events) {
+        return events.stream()
+                .map(event -> event.getKind() + " " + event.getTaskId() + " -> " + event.getRecipientId())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> sorted(List<String> values) {
+        Collections.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,187 @@
+package com.documentflow.services;
+
+import com.documentflow.entities.State;
+import com.documentflow.entities.Task;
+import com.documentflow.entities.TaskHistory;
+import com.documentflow.entities.User;
+import com.documentflow.entities.dto.TaskHistoryRecord;
+import com.documentflow.repositories.TaskHistoryJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class TaskHistoryJournalTest {
+
+    private static final String INSTANCE = "app-1";
+
+    @TempDir
+    Path directory;
+
+    //вставленные записи в порядке вставки
+    private final List<TaskHistoryRecord> inserted = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private TaskHistoryJournal createJournal(TaskHistoryJdbcRepository repository, int batchSize, long flushIntervalMillis) throws Exception {
+        TaskHistoryJournal journal = new TaskHistoryJournal();
+        journal.setTaskHistoryJdbcRepository(repository);
+        journal.setTransactionManager(Mockito.mock(PlatformTransactionManager.class));
+        journal.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(journal, "journalFile", directory.resolve("task-history.journal").toString());
+        ReflectionTestUtils.setField(journal, "batchSize", batchSize);
+        ReflectionTestUtils.setField(journal, "flushIntervalMillis", flushIntervalMillis);
+        ReflectionTestUtils.setField(journal, "fsync", true);
+        ReflectionTestUtils.setField(journal, "instance", INSTANCE);
+        journal.open();
+        return journal;
+    }
+
+    private TaskHistoryJdbcRepository createRepository() {
+        TaskHistoryJdbcRepository repository = Mockito.mock(TaskHistoryJdbcRepository.class);
+        Mockito.doAnswer(invocation -> {
+            List<TaskHistoryRecord> records = invocation.getArgument(1);
+            batches.add(records.size());
+            inserted.addAll(records);
+            return null;
+        }).when(repository).insert(Mockito.eq(INSTANCE), Mockito.anyList());
+        return repository;
+    }
+
+    @Test
+    public void testConcurrentEntriesKeepOrderPerTask() throws Exception {
+        TaskHistoryJournal journal = createJournal(createRepository(), 50, 20);
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long taskId = i;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    journal.append(createEntry(taskId, "step " + j));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        journal.close();
+
+        Assertions.assertEquals(threads * perThread, inserted.size());
+        Assertions.assertTrue(batches.stream().allMatch(size -> size <= 50));
+        Map<Long, Integer> lastStep = new HashMap<>();
+        for (TaskHistoryRecord record : inserted) {
+            int step = Integer.parseInt(record.getNote().substring("step ".length()));
+            Assertions.assertEquals(lastStep.getOrDefault(record.getTaskId(), -1) + 1, step);
+            lastStep.put(record.getTaskId(), step);
+        }
+        Assertions.assertEquals(0, Files.size(directory.resolve("task-history.journal")));
+    }
+
+    @Test
+    public void testPendingEntriesAreVisible() throws Exception {
+        TaskHistoryJournal journal = createJournal(createRepository(), 1000, TimeUnit.HOURS.toMillis(1));
+        journal.append(createEntry(1L, "created"));
+        journal.append(createEntry(2L, "other task"));
+        journal.append(createEntry(1L, "approved"));
+
+        List<TaskHistory> pending = journal.findPending(1L);
+        Assertions.assertEquals(Arrays.asList("created", "approved"), Arrays.asList(pending.get(0).getNote(), pending.get(1).getNote()));
+        Assertions.assertEquals(INSTANCE, pending.get(0).getJournalInstance());
+        Assertions.assertTrue(pending.get(0).getJournalSeq() < pending.get(1).getJournalSeq());
+        Assertions.assertTrue(inserted.isEmpty());
+
+        journal.flushAll();
+        Assertions.assertEquals(3, inserted.size());
+        Assertions.assertTrue(journal.findPending(1L).isEmpty());
+        journal.close();
+    }
+
+    @Test
+    public void testEntriesSurviveDatabaseFailureAndRestart() throws Exception {
+        TaskHistoryJdbcRepository failing = Mockito.mock(TaskHistoryJdbcRepository.class);
+        Mockito.doThrow(new DataAccessResourceFailureException("database is down")).when(failing).insert(Mockito.eq(INSTANCE), Mockito.anyList());
+        Mockito.when(failing.findMaxSeq(INSTANCE)).thenReturn(40L);
+        TaskHistoryJournal journal = createJournal(failing, 10, TimeUnit.HOURS.toMillis(1));
+        journal.append(createEntry(1L, "first"));
+        journal.append(createEntry(1L, "second"));
+        journal.flushAll();
+        Assertions.assertEquals(2, journal.getQueueSize());
+        journal.close();
+
+        //после перезапуска журнал повторяется и номера продолжаются
+        TaskHistoryJdbcRepository repository = createRepository();
+        TaskHistoryJournal restarted = createJournal(repository, 10, TimeUnit.HOURS.toMillis(1));
+        Assertions.assertEquals(Arrays.asList(41L, 42L), Arrays.asList(inserted.get(0).getSeq(), inserted.get(1).getSeq()));
+        Assertions.assertEquals("second", inserted.get(1).getNote());
+        restarted.append(createEntry(1L, "third"));
+        restarted.close();
+        Assertions.assertEquals(43L, inserted.get(2).getSeq());
+    }
+
+    @Test
+    public void testDefaultInstanceIsHostAndJournalFile() throws Exception {
+        TaskHistoryJdbcRepository repository = Mockito.mock(TaskHistoryJdbcRepository.class);
+        TaskHistoryJournal journal = new TaskHistoryJournal();
+        journal.setTaskHistoryJdbcRepository(repository);
+        journal.setTransactionManager(Mockito.mock(PlatformTransactionManager.class));
+        journal.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(journal, "journalFile", directory.resolve("task-history.journal").toString());
+        ReflectionTestUtils.setField(journal, "batchSize", 10);
+        ReflectionTestUtils.setField(journal, "flushIntervalMillis", TimeUnit.HOURS.toMillis(1));
+        journal.open();
+
+        //номера продолжаются от записей своей копии приложения
+        Assertions.assertTrue(journal.getInstance().endsWith(":" + directory.resolve("task-history.journal").toAbsolutePath()));
+        Mockito.verify(repository).findMaxSeq(journal.getInstance());
+        journal.close();
+    }
+
+    @Test
+    public void testRejectedEntryDoesNotBlockBatch() throws Exception {
+        TaskHistoryJdbcRepository repository = Mockito.mock(TaskHistoryJdbcRepository.class);
+        Mockito.doAnswer(invocation -> {
+            List<TaskHistoryRecord> records = invocation.getArgument(1);
+            if (records.stream().anyMatch(record -> record.getTaskId() == 13L)) {
+                throw new DataIntegrityViolationException("no such task");
+            }
+            inserted.addAll(records);
+            return null;
+        }).when(repository).insert(Mockito.eq(INSTANCE), Mockito.anyList());
+        TaskHistoryJournal journal = createJournal(repository, 10, TimeUnit.HOURS.toMillis(1));
+        journal.append(createEntry(1L, "valid"));
+        journal.append(createEntry(13L, "deleted task"));
+        journal.append(createEntry(2L, "valid"));
+        journal.flushAll();
+
+        Assertions.assertEquals(2, inserted.size());
+        Assertions.assertEquals(0, journal.getQueueSize());
+        journal.close();
+    }
+
+    private TaskHistory createEntry(Long taskId, String note) {
+        Task task = new Task();
+        task.setId(taskId);
+        User user = new User();
+        user.setId(1);
+        State state = new State();
+        state.setId(2);
+        TaskHistory taskHistory = new TaskHistory();
+        taskHistory.setTask(task);
+        taskHistory.setUser(user);
+        taskHistory.setState(state);
+        taskHistory.setNote(note);
+        return taskHistory;
+    }
+}
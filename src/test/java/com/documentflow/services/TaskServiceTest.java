@@ -0,0 +1,53 @@
+package com.documentflow.services;
+
+import com.documentflow.AbstractDocumentFlowTest;
+import com.documentflow.entities.DTO.LookupDTO;
+import com.documentflow.entities.Task;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+public class TaskServiceTest extends AbstractDocumentFlowTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    public void testFindLookups() {
+        String name = RandomStringUtils.randomAlphabetic(12);
+        for (int i = 0; i < 3; i++) {
+            Task task = new Task();
+            task.setTaskName(name + i);
+            taskService.save(task);
+        }
+
+        Statistics statistics = startStatementCount();
+        List<LookupDTO> firstPage = taskService.findLookups(name.toUpperCase(), 0, 2);
+        List<LookupDTO> secondPage = taskService.findLookups(name, 1, 2);
+
+        Assert.assertEquals(2, statistics.getPrepareStatementCount());
+        Assert.assertEquals(2, firstPage.size());
+        Assert.assertEquals(name + 2, firstPage.get(0).getName());
+        Assert.assertEquals(1, secondPage.size());
+        Assert.assertEquals(name + 0, secondPage.get(0).getName());
+    }
+
+    @Test
+    public void testFindLookupsMatchesWildcardsLiterally() {
+        String name = RandomStringUtils.randomAlphabetic(12);
+        for (String suffix : new String[]{"100%_a", "100xya"}) {
+            Task task = new Task();
+            task.setTaskName(name + suffix);
+            taskService.save(task);
+        }
+
+        List<LookupDTO> lookups = taskService.findLookups(name + "100%_", 0, 10);
+
+        Assert.assertEquals(1, lookups.size());
+        Assert.assertEquals(name + "100%_a", lookups.get(0).getName());
+    }
+}
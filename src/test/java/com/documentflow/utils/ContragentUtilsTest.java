@@ -1,8 +1,13 @@
 package com.documentflow.utils;
 
 import com.documentflow.entities.Address;
+import com.documentflow.entities.Contragent;
+import com.documentflow.entities.Organization;
+import com.documentflow.entities.Person;
 import com.documentflow.entities.dto.ContragentDtoEmployee;
 import com.documentflow.entities.dto.ContragentDtoParameters;
+import com.documentflow.entities.dto.ContragentDtoSimilar;
+import com.documentflow.model.enums.ContragentType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -70,4 +75,63 @@ public class ContragentUtilsTest {
         Assertions.assertFalse(ContragentUtils.isNotEmpty(badEmployee3));
         Assertions.assertFalse(ContragentUtils.isNotEmpty(badEmployee4));
     }
+
+    @Test
+    public void testCreateSuggestKey() {
+
+        Assertions.assertEquals("Иванов Иван", ContragentUtils.createFullName("Иванов ", "  Иван", null, ""));
+        Assertions.assertEquals("ИВАНОВ ИВАН", ContragentUtils.createSuggestKey(" Иванов   Иван "));
+        Assertions.assertEquals("", ContragentUtils.createSuggestKey(null));
+    }
+
+    @Test
+    public void testCanonicalKey() {
+
+        Person person = new Person("Иван", null, "Иванов");
+        Person samePerson = new Person(" иван ", "", "ИВАНОВ");
+        Person otherPerson = new Person("Иван", "Иванович", "Иванов");
+
+        Assertions.assertEquals(ContragentUtils.createCanonicalString(person), ContragentUtils.createCanonicalString(samePerson));
+        Assertions.assertNotEquals(ContragentUtils.createCanonicalString(person), ContragentUtils.createCanonicalString(otherPerson));
+        Assertions.assertEquals(32, ContragentUtils.createCanonicalKey(ContragentUtils.createCanonicalString(person)).length());
+
+        Address address = new Address(null, 123456, "Россия", "Москва", "Петрова", "1", null);
+        Address sameAddress = new Address(null, 123456, "РОССИЯ", "москва", "Петрова ", "1", "");
+        Address otherAddress = new Address(null, 123456, "Россия", "Москва", "Петрова", "1", "2");
+
+        Assertions.assertEquals(ContragentUtils.createCanonicalKey(ContragentUtils.createCanonicalString(address)),
+                ContragentUtils.createCanonicalKey(ContragentUtils.createCanonicalString(sameAddress)));
+        Assertions.assertNotEquals(ContragentUtils.createCanonicalKey(ContragentUtils.createCanonicalString(address)),
+                ContragentUtils.createCanonicalKey(ContragentUtils.createCanonicalString(otherAddress)));
+    }
+
+    @Test
+    public void testCreateCsvRow() {
+
+        Assertions.assertEquals("1,ИВАНОВ,,\r\n", ContragentUtils.createCsvRow(1L, "ИВАНОВ", null, ""));
+        Assertions.assertEquals("\"ООО \"\"Ромашка\"\"\",\"Москва, Петрова\",\"a\nb\"\r\n",
+                ContragentUtils.createCsvRow("ООО \"Ромашка\"", "Москва, Петрова", "a\nb"));
+    }
+
+    @Test
+    public void testCreateSimilar() {
+
+        Address address = Address.builder().id(5L).index(123456).country("РОССИЯ").city("МОСКВА").street("ПЕТРОВА").build();
+        Contragent contragent = new Contragent.Builder()
+                .id(7L)
+                .person(new Person(3L, "ИВАН", "ИВАНОВИЧ", "ИВАНОВ"))
+                .organization(new Organization(2L, "РОМАШКА"))
+                .address(address)
+                .personPosition("ДИРЕКТОР")
+                .build();
+
+        ContragentDtoSimilar similar = ContragentUtils.createSimilar(contragent);
+
+        Assertions.assertEquals(7L, similar.getId());
+        Assertions.assertEquals(ContragentType.COMPANY, similar.getType());
+        Assertions.assertEquals("РОМАШКА, ИВАНОВ ИВАН ИВАНОВИЧ", similar.getName());
+        Assertions.assertEquals("ДИРЕКТОР", similar.getPosition());
+        Assertions.assertEquals("123456", similar.getAddress().getPostIndex());
+        Assertions.assertEquals("ПЕТРОВА", similar.getAddress().getStreet());
+    }
 }
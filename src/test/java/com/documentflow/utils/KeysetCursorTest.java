@@ -0,0 +1,39 @@
+package com.documentflow.utils;
+
+import com.documentflow.exceptions.BadArgumentException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testParse() {
+        LocalDateTime regDate = LocalDateTime.of(2026, 10, 17, 9, 30, 15, 123000000);
+        String value = KeysetCursor.format(regDate, 42L);
+
+        KeysetCursor<LocalDateTime> after = KeysetCursor.parse(value, null, LocalDateTime::parse);
+        Assertions.assertEquals(regDate, after.getKey());
+        Assertions.assertEquals(42L, (long) after.getId());
+        Assertions.assertFalse(after.isBackward());
+
+        KeysetCursor<LocalDateTime> before = KeysetCursor.parse("", value, LocalDateTime::parse);
+        Assertions.assertTrue(before.isBackward());
+
+        Assertions.assertNull(KeysetCursor.parse(null, null, LocalDateTime::parse));
+    }
+
+    @Test
+    public void testParseKeyWithSeparator() {
+        KeysetCursor<String> cursor = KeysetCursor.parse("a_b_7", null, key -> key);
+        Assertions.assertEquals("a_b", cursor.getKey());
+        Assertions.assertEquals(7L, (long) cursor.getId());
+    }
+
+    @Test
+    public void testParseBadCursor() {
+        Assertions.assertThrows(BadArgumentException.class, () -> KeysetCursor.parse("2026-10-17", null, LocalDateTime::parse));
+        Assertions.assertThrows(BadArgumentException.class, () -> KeysetCursor.parse("2026-10-17T10:00_x", null, LocalDateTime::parse));
+    }
+}
@@ -0,0 +1,56 @@
+package com.documentflow.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RegNumberTest {
+
+    @Test
+    public void testParseStoredNumber() {
+        assertParts(RegNumber.parse("ВХ-1234/25"), "ВХ", 1234, 1234, 2025);
+        assertParts(RegNumber.parse("ИСХ-7/2026"), "ИСХ", 7, 7, 2026);
+        assertParts(RegNumber.parse("15/26"), null, 15, 15, 2026);
+        Assertions.assertNull(RegNumber.parse("б/н"));
+        Assertions.assertNull(RegNumber.parse("ВХ-12"));
+        Assertions.assertNull(RegNumber.parse(null));
+    }
+
+    @Test
+    public void testParseExactQuery() {
+        assertParts(RegNumber.parseQuery("вх-1234/25"), "ВХ", 1234, 1234, 2025);
+        assertParts(RegNumber.parseQuery(" ВХ 1234 "), "ВХ", 1234, 1234, null);
+    }
+
+    @Test
+    public void testParseRangeQuery() {
+        assertParts(RegNumber.parseQuery("ВХ-1000..1200 for 2025"), "ВХ", 1000, 1200, 2025);
+        assertParts(RegNumber.parseQuery("ВХ-1000..1200 за 2025 г."), "ВХ", 1000, 1200, 2025);
+        assertParts(RegNumber.parseQuery("1200..1000/25"), null, 1000, 1200, 2025);
+    }
+
+    @Test
+    public void testParseYearQuery() {
+        assertParts(RegNumber.parseQuery("за 2025"), null, null, null, 2025);
+        assertParts(RegNumber.parseQuery("/25"), null, null, null, 2025);
+        assertParts(RegNumber.parseQuery("2025 год"), null, null, null, 2025);
+    }
+
+    @Test
+    public void testFreeTextIsNotParsed() {
+        Assertions.assertNull(RegNumber.parseQuery("б/н"));
+        //голые цифры ищутся подстрокой: "12" находит и "112/25", и "12-ВХ"
+        Assertions.assertNull(RegNumber.parseQuery("12"));
+        Assertions.assertNull(RegNumber.parseQuery(" 1234 "));
+        Assertions.assertNull(RegNumber.parseQuery("34/2"));
+        Assertions.assertNull(RegNumber.parseQuery("договор поставки"));
+        Assertions.assertNull(RegNumber.parseQuery(null));
+    }
+
+    private void assertParts(RegNumber number, String prefix, Integer from, Integer to, Integer year) {
+        Assertions.assertNotNull(number);
+        Assertions.assertEquals(prefix, number.getPrefix());
+        Assertions.assertEquals(from, number.getSequenceFrom());
+        Assertions.assertEquals(to, number.getSequenceTo());
+        Assertions.assertEquals(year, number.getYear());
+    }
+}
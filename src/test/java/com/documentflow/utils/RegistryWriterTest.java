@@ -0,0 +1,49 @@
+package com.documentflow.utils;
+
+import com.documentflow.model.enums.ExportFormat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class RegistryWriterTest {
+
+    @Test
+    public void testCsv() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (RegistryWriter writer = RegistryWriter.create(ExportFormat.CSV, output)) {
+            writer.writeRow("Номер", "Дата", "Содержание");
+            writer.writeRow("ВХ-1/26", LocalDateTime.of(2026, 1, 9, 14, 30, 15), "Письмо, \"срочное\"");
+            writer.writeRow(null, LocalDate.of(2026, 2, 1), 3);
+        }
+        Assertions.assertEquals("\uFEFFНомер,Дата,Содержание\r\n" +
+                        "ВХ-1/26,09.01.2026 14:30,\"Письмо, \"\"срочное\"\"\"\r\n" +
+                        ",01.02.2026,3\r\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSpreadsheetXml() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (RegistryWriter writer = RegistryWriter.create(ExportFormat.XML, output)) {
+            writer.writeRow("Номер", "Листов");
+            writer.writeRow("ВХ-1/26 <копия> & \u0001", 12);
+        }
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(output.toByteArray()));
+        NodeList rows = document.getElementsByTagName("Row");
+        Assertions.assertEquals(2, rows.getLength());
+        NodeList data = document.getElementsByTagName("Data");
+        Assertions.assertEquals("ВХ-1/26 <копия> & ", data.item(2).getTextContent());
+        Assertions.assertEquals("12", data.item(3).getTextContent());
+        Assertions.assertEquals("Number", data.item(3).getAttributes().getNamedItem("ss:Type").getNodeValue());
+    }
+}
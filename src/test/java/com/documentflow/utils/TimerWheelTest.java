@@ -0,0 +1,66 @@
+package com.documentflow.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testExpiresOnDeadline() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 3, 0);
+        Assertions.assertTrue(wheel.schedule(25, "a"));
+        Assertions.assertTrue(wheel.schedule(30, "b"));
+
+        Assertions.assertEquals(Collections.emptyList(), wheel.advance(29));
+        Assertions.assertEquals(Arrays.asList("a", "b"), wheel.advance(30));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 2, 1000);
+        Assertions.assertTrue(wheel.schedule(500, "late"));
+        Assertions.assertEquals(Collections.singletonList("late"), wheel.advance(1000));
+    }
+
+    @Test
+    public void testRejectsDeadlineBeyondHorizon() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 2, 0);
+        Assertions.assertEquals(150, wheel.getHorizon());
+        Assertions.assertTrue(wheel.schedule(150, "last"));
+        Assertions.assertFalse(wheel.schedule(151, "too far"));
+
+        wheel.advance(100);
+        Assertions.assertTrue(wheel.schedule(250, "now in reach"));
+    }
+
+    @Test
+    public void testCascadesThroughLevels() {
+        Random random = new Random(7);
+        TimerWheel<Long> wheel = new TimerWheel<>(1, 8, 4, 0);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long deadline = random.nextInt(4000);
+            deadlines.add(deadline);
+            Assertions.assertTrue(wheel.schedule(deadline, deadline));
+        }
+
+        //каждый элемент истекает ровно на своем тике, при любом шаге продвижения
+        long now = 0;
+        List<Long> expired = new ArrayList<>();
+        while (now < 4100) {
+            now += 1 + random.nextInt(50);
+            for (Long deadline : wheel.advance(now)) {
+                Assertions.assertTrue(deadline <= now);
+                Assertions.assertTrue(deadline > now - 51);
+                expired.add(deadline);
+            }
+        }
+        Collections.sort(deadlines);
+        Collections.sort(expired);
+        Assertions.assertEquals(deadlines, expired);
+        Assertions.assertEquals(0, wheel.size());
+    }
+}